@@ -7,7 +7,13 @@ import java.awt.Toolkit;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Base64;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -18,10 +24,12 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.simple.SimpleLogger;
 
 import it.usna.shellyscan.controller.DeferrablesContainer;
+import it.usna.shellyscan.model.BackupEngine;
 import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.DevicesFactory;
 import it.usna.shellyscan.model.IPCollection;
 import it.usna.shellyscan.model.NonInteractiveDevices;
+import it.usna.shellyscan.model.device.GhostDevice;
 import it.usna.shellyscan.view.DevicesTable;
 import it.usna.shellyscan.view.MainView;
 import it.usna.shellyscan.view.chart.ChartType;
@@ -81,23 +89,13 @@ public class Main {
 		} else if((cliIndex = cli.hasEntry("-ipscan", "-ipscan0", "-ip", "-ip0")) >= 0) {
 			try {
 				final Pattern ipRangePattern = Pattern.compile(IP_SCAN_PAR_FORMAT);
-				Matcher m = ipRangePattern.matcher(cli.getParameter(cliIndex));
-				m.find();
-				String baseIPPar = m.group(1);
-				int firstIP = Integer.parseInt(m.group(2));
-				int lastIP = Integer.parseInt(m.group(3));
 				ipCollection = new IPCollection();
-				ipCollection.add(baseIPPar, firstIP, lastIP);
+				addIPScanPar(ipCollection, ipRangePattern, cli.getParameter(cliIndex));
 				for(int i = 1; (cliIndex = cli.hasEntry("-ipscan" + i, "-ip" + i)) >= 0; i++) {
-					m = ipRangePattern.matcher(cli.getParameter(cliIndex));
-					m.find();
-					baseIPPar = m.group(1);
-					firstIP = Integer.parseInt(m.group(2));
-					lastIP = Integer.parseInt(m.group(3));
-					ipCollection.add(baseIPPar, firstIP, lastIP);
+					addIPScanPar(ipCollection, ipRangePattern, cli.getParameter(cliIndex));
 				}
 			} catch (Exception e) {
-				System.err.println("Wrong parameter format; example: -ipscan 192.168.1.1-254");
+				System.err.println("Wrong parameter format; examples: -ipscan 192.168.1.1-254; -ipscan 192.168.0.0/22");
 				System.exit(1);
 			}
 		} else if((cliIndex = cli.hasEntry("-noscan")) >= 0) { // only archive (it's actually an IP scan with firstIP > lastIP)
@@ -148,16 +146,18 @@ public class Main {
 				System.exit(10);
 			}
 			LOG.info("Backup devices in {}", path);
-			try (NonInteractiveDevices model = (ipCollection == null) ? new NonInteractiveDevices(fullScan) : new NonInteractiveDevices(ipCollection)) {
-				model.execute(d -> {
-					try {
-						d.backup(Path.of(path, d.getHostname().replaceAll("[^\\w_-]+", "_") + "." + Main.BACKUP_FILE_EXT));
-						System.out.println(d.getHostname() + " success");
-					} catch (Exception e) {
-						System.out.println(d.getHostname() + " error - " + e.toString());
-					}
-				});
-				LOG.info("Backup end");
+			try (NonInteractiveDevices model = (ipCollection == null) ? new NonInteractiveDevices(fullScan) : new NonInteractiveDevices(ipCollection);
+					BackupEngine engine = new BackupEngine((r, completed, submitted) -> {
+						if(r.outcome() == BackupEngine.Outcome.ERROR) {
+							System.out.println(r.device().getHostname() + " error - " + r.error().toString());
+						} else {
+							System.out.println(r.device().getHostname() + " success (" + r.elapsed() + " ms)");
+						}
+					})) {
+				model.execute(d -> engine.submit(d, Path.of(path, d.getHostname().replaceAll("[^\\w_-]+", "_") + "." + Main.BACKUP_FILE_EXT)));
+				List<BackupEngine.Result> results = engine.await();
+				engine.writeManifest(results, Path.of(path, BackupEngine.MANIFEST_FILE));
+				LOG.info("Backup end: {} devices", results.size());
 				System.exit(0);
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -195,10 +195,44 @@ public class Main {
 			appProp.remove(DevicesTable.STORE_PREFIX + ".COL_P");
 			appProp.remove(DevicesTable.STORE_EXT_PREFIX + ".COL_P");
 		}
+		// Startup pipeline: HTTP/WS clients start, archive parsing and mDNS services creation run concurrently
+		// with the view construction; the view is shown once clients are running and archive rows are added (on the EDT)
+		// as soon as both archive and view are ready
+		final ExecutorService startupExecutor = Executors.newCachedThreadPool();
 		try {
+			final long startTime = System.currentTimeMillis();
 			final Devices model = new Devices();
 			DeferrablesContainer.init(model); // first model listener
+
+			final boolean useArchive = appProp.getBoolProperty(ScannerProperties.PROP_USE_ARCHIVE);
+			final boolean fullScanFinal = fullScan;
+			final IPCollection ipCollectionFinal = ipCollection;
+			final CompletableFuture<Void> clients = startupStage("clients", startTime, startupExecutor, () -> {
+				model.startClients();
+				return null;
+			});
+			final CompletableFuture<List<GhostDevice>> archive = useArchive ?
+					startupStage("archive", startTime, startupExecutor, () -> model.readStore(Path.of(appProp.getProperty(ScannerProperties.PROP_ARCHIVE_FILE, ScannerProperties.PROP_ARCHIVE_FILE_DEFAULT)))) :
+					CompletableFuture.completedFuture(List.of());
+			final CompletableFuture<Void> mdns = ipCollection == null ? startupStage("mdns", startTime, startupExecutor, () -> {
+				model.mdnsInit(fullScanFinal);
+				return null;
+			}) : CompletableFuture.completedFuture(null);
+			final int wsServerPort = appProp.getIntProperty(ScannerProperties.PROP_WS_SERVER_PORT);
+			if(wsServerPort > 0) { // not needed by other stages
+				startupStage("ws-server", startTime, startupExecutor, () -> {
+					model.startWsServer(wsServerPort);
+					return null;
+				}).exceptionally(e -> {
+					LOG.warn("Outbound web socket server: {}", e.getCause() != null ? e.getCause().toString() : e.toString());
+					return null;
+				});
+			}
+
+			final long viewStart = System.currentTimeMillis();
 			final MainView view = new MainView(model, appProp);
+			LOG.info("Startup view: {} ms (+{} ms)", System.currentTimeMillis() - viewStart, viewStart - startTime);
+			clients.join(); // no request can be started from the view before clients are running
 
 			cliIndex = cli.hasEntry("-graphs");
 			if(cliIndex >= 0) {
@@ -221,33 +255,55 @@ public class Main {
 				activateGUI(view, model, appProp);
 			}
 
-			// final values for thread
-			final boolean fullScanFinal = fullScan;
-			final IPCollection ipCollectionFinal = ipCollection;
-			SwingUtilities.invokeLater(() -> {
+			SwingUtilities.invokeLater(() -> view.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR)));
+			final CompletableFuture<Void> ghosts = archive.handleAsync((list, e) -> { // model listeners (view) are already registered; notified on the EDT
+				if(e != null) {
+					appProp.setBoolProperty(ScannerProperties.PROP_USE_ARCHIVE, false);
+					Msg.errorMsg(view, e.getCause() != null ? e.getCause() : e);
+				} else {
+					model.loadGhosts(list);
+				}
+				LOG.info("Startup table ready: {} rows (+{} ms)", model.size(), System.currentTimeMillis() - startTime);
+				return null;
+			}, SwingUtilities::invokeLater);
+			CompletableFuture.allOf(ghosts, clients, mdns).thenRunAsync(() -> {
 				try {
-					view.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-					boolean useArchive = appProp.getBoolProperty(ScannerProperties.PROP_USE_ARCHIVE);
-					if(useArchive) {
+					if(appProp.getBoolProperty(ScannerProperties.PROP_DISCOVERY_CACHE)) {
 						try {
-							model.loadFromStore(Path.of(appProp.getProperty(ScannerProperties.PROP_ARCHIVE_FILE, ScannerProperties.PROP_ARCHIVE_FILE_DEFAULT)));
-						} catch (/*IO*/Exception e) {
-							appProp.setBoolProperty(ScannerProperties.PROP_USE_ARCHIVE, false);
-							Msg.errorMsg(view, e);
+							model.loadFromCache(Path.of(ScannerProperties.DISCOVERY_CACHE_FILE));
+						} catch (/*IO*/Exception e) { // next store will fix it
+							SwingUtilities.invokeLater(() -> Msg.errorMsg(view, e));
 						}
 					}
 					final int refreshStatusInterval = appProp.getIntProperty(ScannerProperties.PROP_REFRESH_ITERVAL/*, ScannerProperties.PROP_REFRESH_ITERVAL_DEFAULT*/) * 1000;
 					final int refreshConfigTics = appProp.getIntProperty(ScannerProperties.PROP_REFRESH_CONF/*, ScannerProperties.PROP_REFRESH_CONF_DEFAULT*/);
+					model.setPushRefresh(appProp.getBoolProperty(ScannerProperties.PROP_REFRESH_PUSH));
+					model.setLightweightRefresh(appProp.getBoolProperty(ScannerProperties.PROP_REFRESH_LIGHTWEIGHT));
+					model.setAdaptiveRefresh(appProp.getBoolProperty(ScannerProperties.PROP_REFRESH_ADAPTIVE), appProp.getIntProperty(ScannerProperties.PROP_REFRESH_MIN) * 1000, appProp.getIntProperty(ScannerProperties.PROP_REFRESH_MAX) * 1000,
+							Devices.RefreshBounds.parse(appProp.getProperty(ScannerProperties.PROP_REFRESH_TYPE_BOUNDS)));
 					if(ipCollectionFinal != null) {
 						model.scannerInit(ipCollectionFinal, refreshStatusInterval, refreshConfigTics);
 					} else {
 						model.scannerInit(fullScanFinal, refreshStatusInterval, refreshConfigTics, appProp.getBoolProperty(ScannerProperties.PROP_AUTORELOAD_ARCHIVE) && useArchive);
 					}
+					LOG.info("Startup scanner: +{} ms", System.currentTimeMillis() - startTime);
+					final String mqttBroker = appProp.getProperty(ScannerProperties.PROP_MQTT_BROKER);
+					if(mqttBroker.isEmpty() == false) {
+						char[] mqttPwd = new char[0];
+						try {
+							mqttPwd = new String(Base64.getDecoder().decode(appProp.getProperty(ScannerProperties.PROP_MQTT_PWD).substring(1))).toCharArray();
+						} catch(RuntimeException e) {}
+						model.setMqttBroker(mqttBroker, appProp.getProperty(ScannerProperties.PROP_MQTT_USER), mqttPwd);
+					}
 				} catch (/*IO*/Exception e) {
-					Msg.errorMsg(e);
+					throw new CompletionException(e);
+				}
+			}, startupExecutor).whenComplete((v, e) -> {
+				startupExecutor.shutdown();
+				SwingUtilities.invokeLater(() -> view.setCursor(Cursor.getDefaultCursor()));
+				if(e != null) { // clients, mdns or scanner initialization failed
+					Msg.errorMsg(e.getCause() != null ? e.getCause() : e);
 					System.exit(1);
-				} finally {
-					view.setCursor(Cursor.getDefaultCursor());
 				}
 			});
 			if(cli.unused().length > 0) {
@@ -260,10 +316,38 @@ public class Main {
 		}
 	}
 	
+	/**
+	 * Run an initialization task on executor logging its duration and start time (relative to startTime)
+	 */
+	private static <T> CompletableFuture<T> startupStage(String name, long startTime, ExecutorService executor, Callable<T> task) {
+		return CompletableFuture.supplyAsync(() -> {
+			final long begin = System.currentTimeMillis();
+			try {
+				return task.call();
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			} finally {
+				LoggerFactory.getLogger(Main.class).info("Startup {}: {} ms (+{} ms)", name, System.currentTimeMillis() - begin, begin - startTime);
+			}
+		}, executor);
+	}
+	
+	// 192.168.1.1-254 or CIDR (192.168.0.0/22)
+	private static void addIPScanPar(IPCollection ipCollection, Pattern ipRangePattern, String ipPar) {
+		if(ipPar.contains("/")) {
+			ipCollection.add(ipPar);
+		} else {
+			Matcher m = ipRangePattern.matcher(ipPar);
+			m.find();
+			ipCollection.add(m.group(1), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)));
+		}
+	}
+	
 	private static void activateGUI(final MainView view, final Devices model, final ScannerProperties appProp) {
 		view.setVisible(true);
 		view.requestFocus(); // remove random focus on toolbar button
 		model.addListener(view);
+		model.addUpdateBatchListener(view);
 		appProp.addListener(view);
 		new Thread(() -> ApplicationUpdateCHK.checkForUpdates(view, appProp)).start();
 	}
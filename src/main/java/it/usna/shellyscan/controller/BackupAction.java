@@ -5,6 +5,7 @@ import static it.usna.shellyscan.Main.LABELS;
 import java.awt.Cursor;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
@@ -15,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import it.usna.shellyscan.Main;
+import it.usna.shellyscan.model.BackupEngine;
 import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.GhostDevice;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice;
@@ -42,39 +44,56 @@ public class BackupAction extends UsnaAction {
 
 			class BackWorker extends SwingWorker<String, Object> {
 				@Override
-				protected String doInBackground() {
+				protected String doInBackground() throws InterruptedException {
 					mainView.getRootPane().setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 					mainView.reserveStatusLine(true);
-					String res = "<html>";
-					for(int j = 0; j < ind.length; j++) {
-						final int modelRow = devicesTable.convertRowIndexToModel(ind[j]);
-						final ShellyAbstractDevice d = model.get(modelRow);
-						final String hostName = d.getHostname();
-						mainView.setStatus(String.format(LABELS.getString("statusBackup"), j + 1, ind.length, hostName));
-						final Path outFile = (ind.length > 1) ?
-								fc.getSelectedFile().toPath().resolve(defFileName(d)) : fc.getSelectedFile().toPath();
-						try {
-							model.pauseRefresh(modelRow);
-							final boolean connected = d.backup(outFile);
-							res += String.format(LABELS.getString(connected ? "dlgSetMultiMsgOk" : "dlgSetMultiMsgStored"), hostName) + "<br>";
-						} catch (IOException | RuntimeException e1) {
-							if(d.getStatus() == Status.OFF_LINE || d.getStatus() == Status.NOT_LOOGGED || d instanceof GhostDevice) { // if error happened because the device is off-line -> try to queue action in DeferrablesContainer
-								LOG.debug("Interactive Backup error {}", d, e1);
+					final int[] modelRows = new int[ind.length];
+					final Path[] outFiles = new Path[ind.length];
+					try(BackupEngine engine = new BackupEngine(new BackupEngine.BackupListener() {
+						@Override
+						public void done(BackupEngine.Result r, int completed, int submitted) {
+							mainView.setStatus(String.format(LABELS.getString("statusBackup"), completed, ind.length, r.device().getHostname()));
+						}
+					})) {
+						for(int j = 0; j < ind.length; j++) {
+							modelRows[j] = devicesTable.convertRowIndexToModel(ind[j]);
+							final ShellyAbstractDevice d = model.get(modelRows[j]);
+							outFiles[j] = (ind.length > 1) ? fc.getSelectedFile().toPath().resolve(defFileName(d)) : fc.getSelectedFile().toPath();
+							model.pauseRefresh(modelRows[j]);
+							final int modelRow = modelRows[j];
+							engine.submit(d, outFiles[j]).whenComplete((r, e) -> model.activateRefresh(modelRow));
+						}
+						final List<BackupEngine.Result> results = engine.await();
+						if(ind.length > 1) {
+							try {
+								engine.writeManifest(results, fc.getSelectedFile().toPath().resolve(BackupEngine.MANIFEST_FILE));
+							} catch (IOException e) {
+								LOG.error("Backup manifest", e);
+							}
+						}
+						String res = "<html>";
+						for(int j = 0; j < results.size(); j++) {
+							final BackupEngine.Result r = results.get(j);
+							final ShellyAbstractDevice d = r.device();
+							final String hostName = d.getHostname();
+							if(r.outcome() != BackupEngine.Outcome.ERROR) {
+								res += String.format(LABELS.getString(r.outcome() == BackupEngine.Outcome.OK ? "dlgSetMultiMsgOk" : "dlgSetMultiMsgStored"), hostName) + "<br>";
+							} else if(d.getStatus() == Status.OFF_LINE || d.getStatus() == Status.NOT_LOOGGED || d instanceof GhostDevice) { // if error happened because the device is off-line -> try to queue action in DeferrablesContainer
+								LOG.debug("Interactive Backup error {}", d, r.error());
+								final Path outFile = outFiles[j];
 								DeferrablesContainer dc = DeferrablesContainer.getInstance();
-								dc.addOrUpdate(modelRow, DeferrableTask.Type.BACKUP, LABELS.getString("action_back_tooltip"), (def, dev) -> {
+								dc.addOrUpdate(modelRows[j], DeferrableTask.Type.BACKUP, LABELS.getString("action_back_tooltip"), (def, dev) -> {
 									dev.backup(outFile);
 									return null;
 								});
 								res += String.format(LABELS.getString("dlgSetMultiMsgQueue"), hostName) + "<br>";
 							} else {
-								LOG.debug("Backup error {}", d.getHostname(), e1);
+								LOG.debug("Backup error {}", hostName, r.error());
 								res += String.format(LABELS.getString("dlgSetMultiMsgFail"), hostName) + "<br>";	
 							}
-						} finally {
-							model.activateRefresh(modelRow);
 						}
+						return res;
 					}
-					return res;
 				}
 
 				@Override
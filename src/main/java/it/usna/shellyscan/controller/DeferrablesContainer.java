@@ -127,6 +127,17 @@ public class DeferrablesContainer extends UsnaObservable<DeferrableTask.Status,
 						cancel(i);
 					}
 				}
+			} else if(mesgType == Devices.EventType.DELETE) {
+				synchronized (devIdx) {
+					for(int i = 0; i < devIdx.size(); i++) {
+						Integer idx = devIdx.get(i);
+						if(modelIdx.equals(idx)) {
+							cancel(i);
+						} else if(idx != null && idx > modelIdx) { // following devices shifted
+							devIdx.set(i, idx - 1);
+						}
+					}
+				}
 			}
 		} catch(RuntimeException e) {
 			LOG.error("update", e);
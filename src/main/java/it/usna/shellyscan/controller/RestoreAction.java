@@ -278,7 +278,7 @@ public class RestoreAction extends UsnaAction {
 				device.refreshSettings();
 				Thread.sleep(Devices.MULTI_QUERY_DELAY);
 				device.refreshStatus();
-				mainView.update(Devices.EventType.UPDATE, modelRow);
+				mainView.updateRow(modelRow);
 				return null;
 			} else {
 				if(device.getStatus() == Status.OFF_LINE || device.getStatus() == Status.NOT_LOOGGED || device.getStatus() == Status.GHOST) { // if error caused by "device is off-line" -> try to queue action in DeferrablesContainer
@@ -296,7 +296,7 @@ public class RestoreAction extends UsnaAction {
 								dev.refreshSettings();
 								Thread.sleep(Devices.MULTI_QUERY_DELAY);
 								dev.refreshStatus();
-								mainView.update(Devices.EventType.UPDATE, modelRow);
+								mainView.updateRow(modelRow);
 							}
 						} catch(Exception e) {}
 						return restoreError;
@@ -304,7 +304,7 @@ public class RestoreAction extends UsnaAction {
 					return QUEUE_RET;
 				} else {
 					LOG.error("Restore error {} {}", device, ret);
-					mainView.update(Devices.EventType.UPDATE, modelRow);
+					mainView.updateRow(modelRow);
 					return ret;
 				}
 			}
@@ -0,0 +1,112 @@
+package it.usna.shellyscan.model;
+
+import it.usna.shellyscan.model.device.Meters;
+import it.usna.shellyscan.model.device.ModulesHolder;
+import it.usna.shellyscan.model.device.ShellyAbstractDevice;
+import it.usna.shellyscan.model.device.modules.DeviceModule;
+import it.usna.shellyscan.model.device.modules.InputInterface;
+import it.usna.shellyscan.model.device.modules.MotionInterface;
+import it.usna.shellyscan.model.device.modules.RGBInterface;
+import it.usna.shellyscan.model.device.modules.RelayInterface;
+import it.usna.shellyscan.model.device.modules.RollerInterface;
+import it.usna.shellyscan.model.device.modules.WhiteInterface;
+
+/**
+ * Refresh interval of a single device computed from its recent behavior:
+ * <ul>
+ * <li>exponential backoff while the device is offline (sleeping battery devices included);</li>
+ * <li>min interval while relays, rollers, lights, inputs or motion sensors are changing; never more than base for these
+ * (interactive) devices;</li>
+ * <li>interval slowly increased while sensor values do not change.</li>
+ * </ul>
+ * Interval is always in the range [min, max]; bounds can be set for each device type (see Devices.setAdaptiveRefresh(...)).
+ * @author usna
+ */
+class AdaptiveRefresh {
+	private final int base;
+	private final int min;
+	private final int max;
+	private long delay;
+	private int fingerprint;
+	private boolean first = true;
+
+	AdaptiveRefresh(int base, int min, int max) {
+		this.min = Math.min(min, max);
+		this.max = max;
+		this.base = Math.max(this.min, Math.min(base, max));
+		this.delay = this.base;
+	}
+
+	/**
+	 * @param d the device just refreshed
+	 * @param offline true if last refresh failed with a DeviceOfflineException
+	 */
+	synchronized void update(ShellyAbstractDevice d, boolean offline) {
+		if(offline) {
+			delay = Math.min(max, Math.max(delay, base) * 2);
+			return;
+		}
+		final boolean interactive = isInteractive(d);
+		final int fp = interactive ? modulesFingerprint((ModulesHolder)d) : metersFingerprint(d);
+		final boolean changed = first == false && fp != fingerprint;
+		fingerprint = fp;
+		first = false;
+		if(interactive) {
+			delay = changed ? min : base;
+		} else if(changed) {
+			delay = base;
+		} else {
+			delay = Math.min(max, Math.max(delay, base) * 3 / 2);
+		}
+	}
+
+	synchronized long getDelay() {
+		return delay;
+	}
+
+	// actuators, inputs or motion sensors: the user expects a prompt feedback
+	private static boolean isInteractive(ShellyAbstractDevice d) {
+		if(d instanceof ModulesHolder holder && holder.getModules() != null) {
+			for(DeviceModule m: holder.getModules()) {
+				if(m instanceof RelayInterface || m instanceof RollerInterface || m instanceof WhiteInterface || m instanceof RGBInterface ||
+						m instanceof InputInterface || m instanceof MotionInterface) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static int modulesFingerprint(ModulesHolder holder) {
+		int h = 1;
+		for(DeviceModule m: holder.getModules()) {
+			if(m instanceof RelayInterface relay) {
+				h = 31 * h + (relay.isOn() ? 1 : 0);
+			} else if(m instanceof RollerInterface roller) {
+				h = 31 * h + roller.getPosition();
+			} else if(m instanceof WhiteInterface white) {
+				h = 31 * (31 * h + (white.isOn() ? 1 : 0)) + white.getBrightness();
+			} else if(m instanceof RGBInterface rgb) {
+				h = 31 * (31 * h + (rgb.isOn() ? 1 : 0)) + ((rgb.getRed() << 16) | (rgb.getGreen() << 8) | rgb.getBlue()) + rgb.getGain();
+			} else if(m instanceof InputInterface input) {
+				h = 31 * h + (input.isInputOn() ? 1 : 0);
+			} else if(m instanceof MotionInterface motion) {
+				h = 31 * h + (motion.motion() ? 1 : 0);
+			}
+		}
+		return h;
+	}
+
+	private static int metersFingerprint(ShellyAbstractDevice d) {
+		int h = 1;
+		Meters[] meters = d.getMeters();
+		if(meters != null) {
+			for(Meters m: meters) {
+				for(Meters.Type t: m.getTypes()) {
+					h = 31 * h + Float.floatToIntBits(m.getValue(t));
+				}
+			}
+		}
+		return h;
+	}
+}
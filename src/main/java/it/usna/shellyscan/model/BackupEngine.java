@@ -0,0 +1,201 @@
+package it.usna.shellyscan.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import it.usna.shellyscan.model.device.RequestGovernor;
+import it.usna.shellyscan.model.device.ShellyAbstractDevice;
+
+/**
+ * Parallel backup of many devices: at most maxConcurrent backups run at the same time; backups of the same host
+ * (range extender ports and BLU devices share the gateway address) are serialized and spaced by hostInterval ms.<br>
+ * Per device results (outcome, queue wait and duration) are reported to the listener and can be written to a manifest.
+ * @author usna
+ */
+public class BackupEngine implements Closeable {
+	private final static Logger LOG = LoggerFactory.getLogger(BackupEngine.class);
+	public final static int DEF_CONCURRENCY = 8;
+	public final static long DEF_HOST_INTERVAL = 500; // ms
+	public final static String MANIFEST_FILE = "backup_manifest.json";
+	private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+	private final ExecutorService executor;
+	private final long hostInterval;
+	private final BackupListener listener;
+	private final Map<InetAddress, CompletableFuture<Result>> lanes = new HashMap<>(); // host -> last submitted backup
+	private final List<CompletableFuture<Result>> jobs = new ArrayList<>();
+	private final AtomicInteger completed = new AtomicInteger();
+	private final long start = System.currentTimeMillis();
+
+	public enum Outcome {OK, STORED, ERROR};
+
+	/**
+	 * @param device
+	 * @param file
+	 * @param outcome OK: data read from device; STORED: stored data used (e.g. sleeping battery device); ERROR
+	 * @param waited ms from submit to start
+	 * @param elapsed backup duration (ms)
+	 * @param error null if outcome != ERROR
+	 */
+	public record Result(ShellyAbstractDevice device, Path file, Outcome outcome, long waited, long elapsed, Exception error) {}
+
+	public interface BackupListener {
+		/** called on a worker thread before the device backup starts */
+		default void started(ShellyAbstractDevice d) {}
+		/** called on a worker thread after the device backup completes (successfully or not) */
+		void done(Result res, int completed, int submitted);
+	}
+
+	public BackupEngine(BackupListener listener) {
+		this(DEF_CONCURRENCY, DEF_HOST_INTERVAL, listener);
+	}
+
+	/**
+	 * @param maxConcurrent maximum number of backups running at the same time
+	 * @param hostInterval minimum time (ms) between two backups of the same host
+	 * @param listener can be null
+	 */
+	public BackupEngine(int maxConcurrent, long hostInterval, BackupListener listener) {
+		this.executor = Executors.newFixedThreadPool(maxConcurrent);
+		this.hostInterval = hostInterval;
+		this.listener = listener;
+	}
+
+	/**
+	 * Queue a device backup; never blocks
+	 */
+	public synchronized CompletableFuture<Result> submit(ShellyAbstractDevice d, Path file) {
+		final InetAddress host = d.getAddressAndPort().getAddress();
+		final long queued = System.currentTimeMillis();
+		final CompletableFuture<Result> previous = lanes.get(host);
+		final CompletableFuture<Result> job;
+		if(previous == null) {
+			job = CompletableFuture.supplyAsync(() -> execute(d, file, queued), executor);
+		} else {
+			job = previous.handleAsync((r, e) -> execute(d, file, queued), CompletableFuture.delayedExecutor(hostInterval, TimeUnit.MILLISECONDS, executor));
+		}
+		lanes.put(host, job);
+		jobs.add(job);
+		job.whenComplete((r, e) -> {
+			synchronized(BackupEngine.this) {
+				lanes.remove(host, job);
+			}
+		});
+		return job;
+	}
+
+	private Result execute(ShellyAbstractDevice d, Path file, long queued) {
+		final long begin = System.currentTimeMillis();
+		if(listener != null) {
+			listener.started(d);
+		}
+		Result res;
+		final RequestGovernor.Lane prevLane = RequestGovernor.enterLane(RequestGovernor.Lane.BULK);
+		try {
+			final boolean connected = d.backup(file);
+			res = new Result(d, file, connected ? Outcome.OK : Outcome.STORED, begin - queued, System.currentTimeMillis() - begin, null);
+		} catch(IOException | RuntimeException e) {
+			res = new Result(d, file, Outcome.ERROR, begin - queued, System.currentTimeMillis() - begin, e);
+		} finally {
+			RequestGovernor.exitLane(prevLane);
+		}
+		LOG.debug("Backup {} {}: wait {} ms, {} ms", d.getHostname(), res.outcome, res.waited, res.elapsed);
+		final int done = completed.incrementAndGet();
+		if(listener != null) {
+			try {
+				listener.done(res, done, submitted());
+			} catch(RuntimeException e) {
+				LOG.error("BackupEngine listener", e);
+			}
+		}
+		return res;
+	}
+
+	public synchronized int submitted() {
+		return jobs.size();
+	}
+
+	/**
+	 * Wait for all submitted backups
+	 * @return results in submit order
+	 */
+	public List<Result> await() throws InterruptedException {
+		final List<CompletableFuture<Result>> all;
+		synchronized(this) {
+			all = new ArrayList<>(jobs);
+		}
+		final List<Result> res = new ArrayList<>(all.size());
+		for(CompletableFuture<Result> job: all) {
+			try {
+				res.add(job.get());
+			} catch(ExecutionException e) { // execute(...) catches device exceptions
+				LOG.error("BackupEngine", e);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Write a json summary of results (one entry for each device plus totals)
+	 */
+	public void writeManifest(List<Result> results, Path file) throws IOException {
+		final ObjectNode root = JsonNodeFactory.instance.objectNode();
+		root.put("time", start);
+		root.put("elapsed", System.currentTimeMillis() - start);
+		int ok = 0, stored = 0, err = 0;
+		final ArrayNode devices = root.putArray("devices");
+		for(Result r: results) {
+			final ObjectNode entry = devices.addObject();
+			entry.put("hostname", r.device.getHostname());
+			entry.put("mac", r.device.getMacAddress());
+			entry.put("type", r.device.getTypeName());
+			entry.put("address", r.device.getAddressAndPort().getRepresentation());
+			entry.put("file", r.file.getFileName().toString());
+			entry.put("outcome", r.outcome.name());
+			entry.put("wait", r.waited);
+			entry.put("elapsed", r.elapsed);
+			if(r.error != null) {
+				entry.put("error", r.error.toString());
+			}
+			switch(r.outcome) {
+			case OK -> ok++;
+			case STORED -> stored++;
+			case ERROR -> err++;
+			}
+		}
+		root.put("ok", ok);
+		root.put("stored", stored);
+		root.put("error", err);
+		try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			JSON_MAPPER.writerWithDefaultPrettyPrinter().writeValue(w, root);
+		}
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,204 @@
+package it.usna.shellyscan.model;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.usna.shellyscan.model.device.ShellyAbstractDevice;
+import it.usna.shellyscan.model.device.g1.AbstractG1Device;
+
+/**
+ * Receive gen1 CoIoT status messages (CoAP over UDP, port 5683) multicast by devices to 224.0.1.187
+ * (or sent to a configured unicast peer) and apply them to the matching devices (see AbstractG1Device.fillCoIoT(...)).
+ * While messages are received a device only needs an occasional /status poll.<br>
+ * Only CoIoT v2 (firmware 1.8+) "/cit/s" messages are decoded.
+ * @author usna
+ */
+public class CoIoTListener {
+	private final static Logger LOG = LoggerFactory.getLogger(CoIoTListener.class);
+	public final static int COIOT_PORT = 5683;
+	private final static String COIOT_GROUP = "224.0.1.187";
+	private final static long ACTIVE_TIME = 45_000; // ms; devices send their status at least every 15 s (default "coiot" period)
+	private final static int MAX_PACKET = 2048;
+	private final static int OPT_URI_PATH = 11;
+	private final static int OPT_GLOBAL_DEVID = 3332; // "<type>#<mac>#<coiot version>"
+	private final static int OPT_SERIAL = 3420; // changes when any value changes
+	private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+	private final Function<String, ShellyAbstractDevice> lookup;
+	private final Consumer<AbstractG1Device> onUpdate;
+	private final Map<AbstractG1Device, Integer> serials = Collections.synchronizedMap(new WeakHashMap<>()); // last serial received (duplicates filter)
+	private final Map<AbstractG1Device, Long> active = Collections.synchronizedMap(new WeakHashMap<>()); // last time a message has been mapped on the device
+	private DatagramChannel channel;
+
+	/**
+	 * @param lookup mac -> device (null if not in the model)
+	 * @param onUpdate called (on the receiver thread) whenever a message changed the device status
+	 */
+	public CoIoTListener(Function<String, ShellyAbstractDevice> lookup, Consumer<AbstractG1Device> onUpdate) {
+		this.lookup = lookup;
+		this.onUpdate = onUpdate;
+	}
+
+	/**
+	 * Bind port 5683 and join the CoIoT group on all multicast capable (IPv4) interfaces; no effect if already started
+	 */
+	public synchronized void start() throws IOException {
+		if(channel != null) {
+			return;
+		}
+		final DatagramChannel ch = DatagramChannel.open(StandardProtocolFamily.INET);
+		try {
+			ch.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+			ch.bind(new InetSocketAddress(COIOT_PORT));
+			final InetAddress group = InetAddress.getByName(COIOT_GROUP);
+			for(NetworkInterface ni: Collections.list(NetworkInterface.getNetworkInterfaces())) {
+				if(ni.isUp() && ni.supportsMulticast() && ni.isLoopback() == false && ni.inetAddresses().anyMatch(a -> a instanceof Inet4Address)) {
+					try {
+						ch.join(group, ni);
+						LOG.debug("CoIoT listening on {}", ni.getName());
+					} catch(IOException e) {
+						LOG.debug("CoIoT join {}", ni.getName(), e);
+					}
+				}
+			}
+		} catch(IOException e) {
+			ch.close();
+			throw e;
+		}
+		channel = ch;
+		final Thread receiver = new Thread(() -> receive(ch), "coiot");
+		receiver.setDaemon(true);
+		receiver.start();
+	}
+
+	public synchronized void stop() {
+		if(channel != null) {
+			try {
+				channel.close(); // receive(...) ends
+			} catch (IOException e) {
+				LOG.error("CoIoT close", e);
+			}
+			channel = null;
+			serials.clear();
+			active.clear();
+		}
+	}
+
+	/**
+	 * @return true if a status message mapped by this device (see AbstractG1Device.fillCoIoT(...)) has been received recently;
+	 * devices not mapping CoIoT values are never active and keep polling
+	 */
+	public boolean isActive(Object d) {
+		final Long last = active.get(d);
+		return last != null && System.currentTimeMillis() - last < ACTIVE_TIME;
+	}
+
+	private void receive(DatagramChannel ch) {
+		final ByteBuffer buf = ByteBuffer.allocate(MAX_PACKET);
+		while(ch.isOpen()) {
+			try {
+				buf.clear();
+				ch.receive(buf);
+				buf.flip();
+				message(buf);
+			} catch(ClosedChannelException e) { // stop()
+				break;
+			} catch(IOException | RuntimeException e) {
+				LOG.debug("CoIoT message", e);
+			}
+		}
+	}
+
+	private void message(ByteBuffer buf) throws IOException {
+		final Message msg = parse(buf);
+		final String[] id;
+		if(msg != null && "/cit/s".equals(msg.path) && msg.devId != null && buf.hasRemaining() && (id = msg.devId.split("#")).length >= 2 &&
+				lookup.apply(id[1].toUpperCase()) instanceof AbstractG1Device d) {
+			final int serial = msg.serial;
+			final Integer prevSerial = serials.put(d, serial);
+			if(prevSerial == null || serial < 0 || prevSerial != serial) {
+				final JsonNode g = JSON_MAPPER.readTree(buf.array(), buf.position(), buf.remaining()).get("G");
+				if(g != null && d.fillCoIoT(g)) {
+					active.put(d, System.currentTimeMillis());
+					onUpdate.accept(d);
+				}
+			} else if(active.containsKey(d)) { // same serial: values unchanged (periodic message) of a device mapping CoIoT values
+				active.put(d, System.currentTimeMillis());
+			}
+		}
+	}
+
+	/**
+	 * Decode CoAP header and options; buf is left positioned at the payload (if any)
+	 * @return null if not a CoAP version 1 message
+	 */
+	static Message parse(ByteBuffer buf) {
+		if(buf.remaining() < 4 || (buf.get(buf.position()) & 0xC0) != 0x40) { // not CoAP version 1
+			return null;
+		}
+		final int tokenLength = buf.get() & 0x0F;
+		buf.get(); // code
+		buf.getShort(); // message id
+		buf.position(buf.position() + tokenLength);
+		String path = "";
+		String devId = null;
+		int serial = -1;
+		int option = 0;
+		while(buf.hasRemaining()) {
+			final int b = buf.get() & 0xFF;
+			if(b == 0xFF) { // payload marker
+				break;
+			}
+			option += optionNibble(b >> 4, buf);
+			final byte[] value = new byte[optionNibble(b & 0x0F, buf)];
+			buf.get(value);
+			if(option == OPT_URI_PATH) {
+				path += "/" + new String(value, StandardCharsets.UTF_8);
+			} else if(option == OPT_GLOBAL_DEVID) {
+				devId = new String(value, StandardCharsets.UTF_8);
+			} else if(option == OPT_SERIAL) {
+				serial = 0;
+				for(byte v: value) {
+					serial = (serial << 8) | (v & 0xFF);
+				}
+			}
+		}
+		return new Message(path, devId, serial);
+	}
+
+	/**
+	 * @param path uri path (e.g. "/cit/s")
+	 * @param devId global device id option ("&lt;type&gt;#&lt;mac&gt;#&lt;coiot version&gt;"); null if missing
+	 * @param serial -1 if missing
+	 */
+	record Message(String path, String devId, int serial) {}
+
+	// option delta/length: 13 -> 1 extended byte, 14 -> 2 extended bytes
+	private static int optionNibble(int v, ByteBuffer buf) {
+		return switch(v) {
+		case 13 -> (buf.get() & 0xFF) + 13;
+		case 14 -> (buf.getShort() & 0xFFFF) + 269;
+		default -> v;
+		};
+	}
+}
@@ -0,0 +1,127 @@
+package it.usna.shellyscan.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Periodic refresh of a single device; the refresh is asynchronous (it only starts the requests) and the delay before
+ * the next refresh is evaluated (nextDelay) when the returned future completes.
+ * If a workers executor is given the timer only triggers the refresh, that is started on a worker thread;
+ * only one refresh for each device can be in-flight.
+ * @author usna
+ */
+class DeviceRefreshTask implements Runnable {
+	private final Supplier<CompletableFuture<?>> refresh;
+	private final ScheduledExecutorService timer;
+	private final ExecutorService workers; // null -> refresh runs on the timer thread
+	private final LongSupplier nextDelay;
+	private final AtomicBoolean inFlight = new AtomicBoolean();
+	private boolean cancelled = false;
+	private ScheduledFuture<?> next;
+	private Future<?> worker;
+	private CompletableFuture<?> current;
+	private volatile long lastStart;
+	private volatile double avgPeriod; // ms; exponential moving average
+
+	private DeviceRefreshTask(Supplier<CompletableFuture<?>> refresh, ScheduledExecutorService timer, ExecutorService workers, LongSupplier nextDelay) {
+		this.refresh = refresh;
+		this.timer = timer;
+		this.workers = workers;
+		this.nextDelay = nextDelay;
+	}
+
+	static DeviceRefreshTask schedule(ScheduledExecutorService timer, ExecutorService workers, Supplier<CompletableFuture<?>> refresh, long delay, LongSupplier nextDelay) {
+		DeviceRefreshTask task = new DeviceRefreshTask(refresh, timer, workers, nextDelay);
+		synchronized(task) {
+			task.next = timer.schedule(task, delay, TimeUnit.MILLISECONDS);
+		}
+		return task;
+	}
+
+	@Override
+	public void run() {
+		if(inFlight.compareAndSet(false, true) == false) {
+			return;
+		}
+		if(workers == null) {
+			execute();
+		} else {
+			synchronized(this) {
+				try {
+					if(cancelled == false) {
+						worker = workers.submit(this::execute);
+					} else {
+						inFlight.set(false);
+					}
+				} catch(RejectedExecutionException e) {
+					inFlight.set(false);
+				}
+			}
+		}
+	}
+
+	private void execute() {
+		final long now = System.currentTimeMillis();
+		if(lastStart > 0) {
+			final long period = now - lastStart;
+			avgPeriod = (avgPeriod == 0) ? period : avgPeriod * 0.8 + period * 0.2;
+		}
+		lastStart = now;
+		CompletableFuture<?> f;
+		try {
+			f = refresh.get();
+		} catch(RuntimeException e) {
+			f = CompletableFuture.failedFuture(e);
+		}
+		synchronized(this) {
+			current = f;
+		}
+		f.whenComplete((v, e) -> {
+			inFlight.set(false);
+			reschedule();
+		});
+	}
+
+	private synchronized void reschedule() {
+		if(cancelled == false) {
+			try {
+				next = timer.schedule(this, nextDelay.getAsLong(), TimeUnit.MILLISECONDS);
+			} catch(RejectedExecutionException e) {} // executor shut down
+		}
+	}
+
+	public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+		if(cancelled) {
+			return false;
+		}
+		cancelled = true;
+		next.cancel(mayInterruptIfRunning);
+		if(worker != null) {
+			worker.cancel(mayInterruptIfRunning);
+		}
+		if(current != null) {
+			current.cancel(mayInterruptIfRunning);
+		}
+		return true;
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return achieved refreshes per second (0 if not yet measurable)
+	 */
+	public double getRate() {
+		final double avg = avgPeriod;
+		return avg > 0 ? 1000d / avg : 0d;
+	}
+}
@@ -5,15 +5,30 @@ import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import javax.jmdns.JmDNS;
 import javax.jmdns.JmmDNS;
@@ -28,22 +43,30 @@ import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.websocket.client.WebSocketClient;
+import org.eclipse.paho.client.mqttv3.MqttException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import it.usna.shellyscan.model.device.BatteryDeviceInterface;
+import it.usna.shellyscan.model.device.DeviceOfflineException;
 import it.usna.shellyscan.model.device.GhostDevice;
 import it.usna.shellyscan.model.device.InetAddressAndPort;
+import it.usna.shellyscan.model.device.RequestGovernor;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice.Status;
 import it.usna.shellyscan.model.device.ShellyUnmanagedDeviceInterface;
 import it.usna.shellyscan.model.device.blu.AbstractBluDevice;
 import it.usna.shellyscan.model.device.blu.BTHomeDevice;
+import it.usna.shellyscan.model.device.blu.BluGateway;
 import it.usna.shellyscan.model.device.blu.BluInetAddressAndPort;
 import it.usna.shellyscan.model.device.blu.BluTRV;
+import it.usna.shellyscan.model.device.g1.AbstractG1Device;
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 import it.usna.shellyscan.model.device.g2.AbstractProDevice;
 import it.usna.shellyscan.model.device.g3.AbstractG3Device;
@@ -63,7 +86,14 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 	};
 
 	private final static int EXECUTOR_POOL_SIZE = 128;
+	private final static int LIGHTWEIGHT_EXECUTOR_POOL_SIZE = 16; // lightweight refresh: refreshes do not run on executor
+	private final static int REFRESH_TIMER_POOL_SIZE = 2;
 	public final static long MULTI_QUERY_DELAY = 59;
+	private final static long UPDATE_FLUSH_PERIOD = 100; // ms - UpdateBatchListener max 10 notifications/s
+	final static int IP_SCAN_CONCURRENCY = 256; // pending TCP connections
+	final static int IP_SCAN_CONNECT_TIMEOUT = 2000; // ms
+	final static int IP_SCAN_ID_TIMEOUT = 10; // s - /shelly request on hosts accepting connections
+	private final static int WARM_REVALIDATE_SPACING = 20; // ms
 
 	private JmmDNS jd;
 	private Set<JmDNS> bjServices = new HashSet<>();
@@ -75,21 +105,62 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 	private IPCollection ipCollection = null;
 
 	private final static String SERVICE_TYPE1 = "_http._tcp.local.";
-//	private final static String SERVICE_TYPE2 = "_shelly._tcp.local.";
+	private final static String SERVICE_TYPE2 = "_shelly._tcp.local.";
 	private final List<ShellyAbstractDevice> devices = new ArrayList<>();
-	private final List<ScheduledFuture<?>> refreshProcess = new ArrayList<>();
+	private final List<DeviceRefreshTask> refreshProcess = new ArrayList<>();
+	private final Map<String, Integer> macIndex = new HashMap<>();
+	private final Map<InetAddressAndPort, Integer> addressIndex = new HashMap<>();
+	private final Map<String, Integer> idIndex = new HashMap<>(); // lower case hostname (as on insertion) -> index; BLU devices excluded
+	// guards devices, refreshProcess and indexes; write lock only on model structure (and refreshProcess) changes
+	private final ReentrantReadWriteLock devicesLock = new ReentrantReadWriteLock();
 	private int refreshInterval = 2000;
 	private int refreshTics = 3; // full refresh every STATUS_TICS refresh
+	private boolean adaptiveRefresh = false;
+	private int refreshMin = 1000;
+	private int refreshMax = 60_000;
+	private Map<String, RefreshBounds> refreshTypeBounds = Map.of(); // typeID -> adaptive refresh bounds
 
-	private ScheduledExecutorService executor = Executors.newScheduledThreadPool(EXECUTOR_POOL_SIZE);
+	private ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(EXECUTOR_POOL_SIZE);
+	private boolean lightweightRefresh = false;
+	private ScheduledExecutorService refreshTimer; // lightweight refresh mode: only triggers refreshes ...
+	private ExecutorService refreshWorkers; // ... executed here (virtual threads if available)
 	private HttpClient httpClient = new HttpClient();
 	private WebSocketClient wsClient = new WebSocketClient(httpClient);
 	
 	private DevicesStore ghostsStore = new DevicesStore();
+	private final DiscoveryCache discoveryCache = new DiscoveryCache();
+	private final Map<InetAddressAndPort, JsonNode> knownInfo = new ConcurrentHashMap<>(); // devices created (also from discovery cache) -> /shelly info
+	private final Set<InetAddressAndPort> mdnsPending = ConcurrentHashMap.newKeySet(); // mDNS creations in progress (a device is found on 2 services)
+	private final AtomicLong warmRevalidateDelay = new AtomicLong();
+	private volatile Set<String> rescanFound; // macs found by the running rescan; null if no rescan is running
+	private final StatusPushManager statusPush = new StatusPushManager(this::pushedStatus);
+	private final CoIoTListener coiot = new CoIoTListener(this::find, this::coiotStatus);
+	private final OutboundWsServer wsServer = new OutboundWsServer(id -> findById(id) instanceof AbstractG2Device g2 ? g2 : null, this::pushedStatus);
+	private final MqttIngest mqtt = new MqttIngest(this::findById, this::pushedStatus);
+	private boolean pushRefresh = false;
 	
-	public Devices() throws Exception {
+	private final Set<ShellyAbstractDevice> updatedDevices = Collections.newSetFromMap(new IdentityHashMap<>()); // UPDATE events waiting for the next flush (indexes could change meanwhile)
+	private final ScheduledExecutorService updatesFlusher = Executors.newSingleThreadScheduledExecutor();
+	private final List<UpdateBatchListener> batchListeners = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Receive coalesced UPDATE events: all devices updated since last notification, at most every UPDATE_FLUSH_PERIOD ms
+	 * (UPDATE events are coalesced the same way)
+	 */
+	public interface UpdateBatchListener {
+		void update(BitSet modelIndexes);
+	}
+	
+	/**
+	 * Clients are not started here: call startClients() before any device request (archive can be loaded meanwhile)
+	 */
+	public Devices() {
+		ShellyAbstractDevice.setFillExecutor(executor);
 		httpClient.setDestinationIdleTimeout(300_000); // 5 min
 		httpClient.setMaxConnectionsPerDestination(8);
+	}
+	
+	public void startClients() throws Exception {
 		httpClient.start();
 		
 //		wsClient.setConnectTimeout(100_000);
@@ -101,16 +172,17 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 
 	public void scannerInit(boolean fullScan, int refreshInterval, int refreshTics, boolean autorelod) throws IOException {
 		this.refreshInterval = refreshInterval;
+		BluGateway.setRefreshInterval(refreshInterval);
 		this.refreshTics = refreshTics;
 		this.fullScanMode = fullScan;
 		this.mdnsListener = new MDNSListener();
+		mdnsInit(fullScan);
 		if(fullScan) {
-			jd = JmmDNS.Factory.getInstance();
 			for(JmDNS dns: jd.getDNS()) {
 				bjServices.add(dns);
 				LOG.debug("Full scan {} {}", dns.getName(), dns.getInetAddress());
 				dns.addServiceListener(SERVICE_TYPE1, mdnsListener);
-//				dns.addServiceListener(SERVICE_TYPE2, dnsListener);
+				dns.addServiceListener(SERVICE_TYPE2, mdnsListener);
 			}
 			jd.addNetworkTopologyListener(new NetworkTopologyListener() {
 				@Override
@@ -127,21 +199,18 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 						LOG.debug("DNS add {} {}", dns.getName(), dns.getInetAddress());
 						bjServices.add(dns);
 						dns.addServiceListener(SERVICE_TYPE1, mdnsListener);
-//						dns.addServiceListener(SERVICE_TYPE2, dnsListener);
+						dns.addServiceListener(SERVICE_TYPE2, mdnsListener);
 					} catch (IOException e) {
 						LOG.error("DNS add {}", dns.getName(), e);
 					}
 				}
 			});
 		} else {
-			if(LOG.isTraceEnabled()) {
-				LOG.trace("Creating JmDNS on: {}; interface: {}", InetAddress.getLocalHost(), NetworkInterface.getByInetAddress(InetAddress.getLocalHost()).getInterfaceAddresses());
+			for(JmDNS dns: bjServices) {
+				LOG.debug("Local scan: {} {}", dns.getName(), dns.getInetAddress());
+				dns.addServiceListener(SERVICE_TYPE1, mdnsListener);
+				dns.addServiceListener(SERVICE_TYPE2, mdnsListener);
 			}
-			final JmDNS dns = JmDNS.create(/*network == null ? InetAddress.getLocalHost() : network*/InetAddress.getLocalHost(), null);
-			bjServices.add(dns);
-			LOG.debug("Local scan: {} {}", dns.getName(), dns.getInetAddress());
-			dns.addServiceListener(SERVICE_TYPE1, mdnsListener);
-//			dns.addServiceListener(SERVICE_TYPE2, dnsListener);
 		}
 		fireEvent(EventType.READY);
 		
@@ -151,9 +220,27 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 		}
 	}
 	
+	/**
+	 * Create mDNS services (slow: network interfaces enumeration, local host resolution); can be called in advance,
+	 * concurrently with other startup tasks, otherwise it is called by scannerInit(...)
+	 */
+	public void mdnsInit(boolean fullScan) throws IOException {
+		if(fullScan) {
+			if(jd == null) {
+				jd = JmmDNS.Factory.getInstance();
+			}
+		} else if(bjServices.isEmpty()) {
+			if(LOG.isTraceEnabled()) {
+				LOG.trace("Creating JmDNS on: {}; interface: {}", InetAddress.getLocalHost(), NetworkInterface.getByInetAddress(InetAddress.getLocalHost()).getInterfaceAddresses());
+			}
+			bjServices.add(JmDNS.create(/*network == null ? InetAddress.getLocalHost() : network*/InetAddress.getLocalHost(), null));
+		}
+	}
+	
 	public void scannerInit(final IPCollection ipCollection, int refreshInterval, int refreshTics) throws IOException {
 		this.ipCollection = ipCollection;
 		this.refreshInterval = refreshInterval;
+		BluGateway.setRefreshInterval(refreshInterval);
 		this.refreshTics = refreshTics;
 		LOG.debug("IP scan: {}", ipCollection);
 		scanByIP();
@@ -162,43 +249,174 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 		executor.schedule(() -> errorsReconnect(), 30, TimeUnit.SECONDS);
 	}
 	
+	/**
+	 * Start the server gen2+ devices connect to through their outbound web socket (see OutboundWsServer)
+	 */
+	public void startWsServer(int port) throws Exception {
+		wsServer.start(port);
+	}
+	
+	public void stopWsServer() {
+		wsServer.stop();
+	}
+	
+	/**
+	 * @return the outbound web socket server port; -1 if not running
+	 */
+	public int getWsServerPort() {
+		return wsServer.getPort();
+	}
+	
+	/**
+	 * Read devices status from an MQTT broker (see MqttIngest); the connection is opened in background
+	 * @param broker e.g. tcp://192.168.1.10:1883; null or empty: disconnect
+	 */
+	public void setMqttBroker(String broker, String user, char[] pwd) {
+		executor.execute(() -> {
+			try {
+				if(broker == null || broker.isEmpty()) {
+					mqtt.stop();
+				} else {
+					mqtt.start(broker, user, pwd);
+				}
+			} catch (MqttException | IllegalArgumentException e) { // IllegalArgumentException: wrong url
+				LOG.warn("MQTT broker {}: {}", broker, e.toString());
+			}
+		});
+	}
+	
 	public void setRefreshTime(int refreshInterval, int refreshTics) {
 		this.refreshInterval = refreshInterval;
+		BluGateway.setRefreshInterval(refreshInterval);
 		this.refreshTics = refreshTics;
 	}
 	
-	public void setIPInterval(IPCollection coll) {
-		this.ipCollection = coll;
+	/**
+	 * @param push if true gen2+ (not battery operated) devices status is received through web socket notifications
+	 * and gen1 devices status through CoIoT (status is then polled only on full refresh)
+	 */
+	public void setPushRefresh(boolean push) {
+		this.pushRefresh = push;
+		if(push) {
+			try {
+				coiot.start();
+			} catch (IOException e) { // e.g. port in use
+				LOG.warn("CoIoT listener: {}", e.toString());
+			}
+		} else {
+			statusPush.disconnectAll();
+			coiot.stop();
+		}
 	}
 	
-	private void scanByIP() throws IOException {
-		int dalay = 0;
-		for(InetAddress addr: ipCollection) {
-			executor.schedule(() -> {
-				try {
-					if(addr.isReachable(10_000)) {
-						JsonNode info = isShelly(addr, 80);
-						if(info != null) {
-							Thread.sleep(MULTI_QUERY_DELAY);
-							create(addr, 80, info, addr.getHostAddress());
-						}
-					} else {
-						LOG.trace("no ping {}", addr);
+	/**
+	 * Lightweight refresh mode: a small timer triggers refreshes that run on virtual threads
+	 * (if the runtime supports them; a cached thread pool otherwise), one in-flight refresh for each device.
+	 * The general purpose executor pool is sized according to the mode.
+	 * Devices already scheduled keep their mode until rescheduled (see refresh(ind, true)).
+	 */
+	public void setLightweightRefresh(boolean lightweight) {
+		this.lightweightRefresh = lightweight;
+		if(lightweight && refreshTimer == null) {
+			refreshTimer = Executors.newScheduledThreadPool(REFRESH_TIMER_POOL_SIZE);
+			refreshWorkers = newRefreshWorkers();
+		}
+		executor.setCorePoolSize(lightweight ? LIGHTWEIGHT_EXECUTOR_POOL_SIZE : EXECUTOR_POOL_SIZE);
+		ShellyAbstractDevice.setFillExecutor(lightweight ? refreshWorkers : executor);
+	}
+	
+	private static ExecutorService newRefreshWorkers() {
+		try { // java 21+
+			ExecutorService workers = (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			LOG.debug("Refresh on virtual threads");
+			return workers;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			LOG.debug("Virtual threads not available; refresh on cached thread pool");
+			return Executors.newCachedThreadPool();
+		}
+	}
+	
+	/**
+	 * Adaptive mode: each device refresh interval changes according to the device behavior (see AdaptiveRefresh);
+	 * effective on next (re)schedule
+	 * @param min minimum interval (ms)
+	 * @param max maximum interval (ms)
+	 * @param typeBounds typeID -&gt; bounds overriding min and max for devices of this type
+	 */
+	public void setAdaptiveRefresh(boolean adaptive, int min, int max, Map<String, RefreshBounds> typeBounds) {
+		this.adaptiveRefresh = adaptive;
+		this.refreshMin = min;
+		this.refreshMax = max;
+		this.refreshTypeBounds = typeBounds;
+	}
+	
+	/**
+	 * Adaptive refresh interval range (ms)
+	 */
+	public record RefreshBounds(int min, int max) {
+		/**
+		 * @param def "typeID=min-max" entries (seconds) separated by ';' (e.g. "SHSW-25=1-10; SNSN-0013A=5-300"); malformed entries are ignored
+		 * @return typeID -&gt; bounds
+		 */
+		public static Map<String, RefreshBounds> parse(String def) {
+			final Map<String, RefreshBounds> bounds = new HashMap<>();
+			for(String entry: def.split(";")) {
+				final String[] typeRange = entry.split("=");
+				final String[] range = typeRange.length == 2 ? typeRange[1].split("-") : new String[0];
+				if(range.length == 2) {
+					try {
+						bounds.put(typeRange[0].trim(), new RefreshBounds(Integer.parseInt(range[0].trim()) * 1000, Integer.parseInt(range[1].trim()) * 1000));
+					} catch(NumberFormatException e) {
+						LOG.debug("Refresh bounds: {}", entry);
 					}
-				} catch (TimeoutException e) {
-					LOG.trace("timeout {}", addr);
-				} catch (IOException | InterruptedException e) {
-					LOG.error("IP scan error {} {}", addr, e.toString());
 				}
-			}, dalay, TimeUnit.MILLISECONDS);
-			dalay += 4;
+			}
+			return bounds;
 		}
 	}
 	
+	public void setIPInterval(IPCollection coll) {
+		this.ipCollection = coll;
+	}
+	
+	// non blocking TCP scan on port 80; /shelly identification only for hosts accepting the connection (extenders ports are probed by create(...))
+	// the returned future completes when the scan and all identifications end
+	private CompletableFuture<Void> scanByIP() {
+		final IPCollection coll = ipCollection;
+		final ScheduledExecutorService scanExecutor = executor;
+		final List<CompletableFuture<Void>> identifications = new CopyOnWriteArrayList<>();
+		return CompletableFuture.runAsync(() -> {
+			try {
+				IPScanner.ScanReport report = new IPScanner(IP_SCAN_CONCURRENCY, IP_SCAN_CONNECT_TIMEOUT).scan(coll, (addr, port) -> {
+					identifications.add(CompletableFuture.runAsync(() -> {
+						try {
+							JsonNode info = isShelly(addr, port, IP_SCAN_ID_TIMEOUT);
+							if(info != null) {
+								Thread.sleep(MULTI_QUERY_DELAY);
+								create(addr, port, info, addr.getHostAddress());
+							}
+						} catch (TimeoutException e) {
+							LOG.trace("timeout {}", addr);
+						} catch (InterruptedException e) {}
+					}, scanExecutor));
+				}, r -> LOG.debug("IP scan: {}", r), 80);
+				LOG.info("IP scan {}: {}", coll, report);
+			} catch (RejectedExecutionException e) {
+				LOG.debug("IP scan interrupted");
+			} catch (IOException | RuntimeException e) {
+				LOG.error("IP scan error {}", e.toString());
+			}
+		}, scanExecutor).thenCompose(v -> CompletableFuture.allOf(identifications.toArray(CompletableFuture[]::new)));
+	}
+	
 	private JsonNode isShelly(final InetAddress address, int port) throws TimeoutException {
+		return isShelly(address, port, 80);
+	}
+	
+	private JsonNode isShelly(final InetAddress address, int port, int timeout) throws TimeoutException {
 		// if(name.startsWith("shelly") || name.startsWith("Shelly")) { // Shelly X devices can have different names
 		try {
-			ContentResponse response = httpClient.newRequest("http://" + address.getHostAddress() + ":" + port + "/shelly").timeout(80, TimeUnit.SECONDS).method(HttpMethod.GET).send();
+			ContentResponse response = httpClient.newRequest("http://" + address.getHostAddress() + ":" + port + "/shelly").timeout(timeout, TimeUnit.SECONDS).method(HttpMethod.GET).send();
 			JsonNode shellyNode = null;// = JSON_MAPPER.readTree(response.getContent());
 			int resp = response.getStatus();
 			if(resp == HttpStatus.OK_200 && (shellyNode = JSON_MAPPER.readTree(response.getContent())).has("mac")) { // "mac" is common to all shelly devices
@@ -213,14 +431,16 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 		}
 	}
 
+	/**
+	 * Reconciling rescan: discovered devices are matched (address and mac) against the model; only new, moved or failed
+	 * devices are created (ADD or SUBSTITUTE events), healthy devices keep their refresh process.<br>
+	 * When discovery ends, devices not found and not on-line are replaced by their ghost (useStore) or removed (DELETE events).
+	 */
 	public void rescan(boolean useStore) throws IOException {
 		LOG.trace("rescan");
-		List<GhostDevice> ghosts = null;
-		if(useStore) {
-			ghosts = ghostsStore.toGhosts(this);
-		}
-		clear();
-		fireEvent(EventType.CLEAR);
+		final Set<String> found = ConcurrentHashMap.newKeySet();
+		rescanFound = found;
+		final CompletableFuture<Void> discovery;
 		if(this.ipCollection == null) {
 			if(jd == null && bjServices.size() == 1) { // local scan
 				try {
@@ -232,88 +452,226 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 						LOG.debug("New local scan interface: {} {}", dns.getName(), dns.getInetAddress());
 						bjServices.add(dns);
 						dns.addServiceListener(SERVICE_TYPE1, new MDNSListener());
-//						dns.addServiceListener(SERVICE_TYPE2, new MDNSListener());
+						dns.addServiceListener(SERVICE_TYPE2, new MDNSListener());
 					}
 
 				} catch(Exception e) {
 					LOG.debug("local rescan {}", e);
 				}
 			}
-			for(JmDNS bonjourService: bjServices) {
-				LOG.debug("scanning: {} {}", bonjourService.getName(), bonjourService.getInetAddress());
-				final ServiceInfo[] serviceInfos = bonjourService.list(SERVICE_TYPE1);
-//				final ServiceInfo[] serviceInfos = bonjourService.list(SERVICE_TYPE2);
-				for (ServiceInfo dnsInfo: serviceInfos) {
-					final String name = dnsInfo.getName();
-					executor.execute(() -> create(dnsInfo.getInetAddresses()[0], 80, name, true));
+			final List<CompletableFuture<Void>> creations = new CopyOnWriteArrayList<>();
+			LOG.debug("scanning: {}", bjServices);
+			discovery = new MDNSBrowser().browse(new ArrayList<>(bjServices), dnsInfo -> creations.add(CompletableFuture.runAsync(() -> rescanCreate(dnsInfo), executor)), SERVICE_TYPE2, SERVICE_TYPE1) // gen2+ also on _shelly._tcp
+					.thenCompose(v -> CompletableFuture.allOf(creations.toArray(CompletableFuture[]::new)));
+		} else {
+			discovery = scanByIP();
+		}
+		discovery.whenCompleteAsync((v, e) -> {
+			boolean last = true;
+			try {
+				last = reconcile(found, useStore);
+			} finally {
+				if(last) { // otherwise a newer rescan will fire READY
+					LOG.debug("end scan");
+					fireEvent(EventType.READY);
 				}
 			}
-			if(useStore) {
-				loadGhosts(ghosts);
-			}
+		}, executor);
+	}
+	
+	// mDNS rescan: no request to a healthy device found at the same address with the same name
+	private void rescanCreate(ServiceInfo si) {
+		final ShellyAbstractDevice d = find(new InetAddressAndPort(si.getInetAddresses()[0], si.getPort()));
+		if(d != null && isHealthy(d) && si.getName().equalsIgnoreCase(d.getHostname())) {
+			rescanKeep(d);
 		} else {
-			scanByIP();
-			if(useStore) {
-				loadGhosts(ghosts);
+			mdnsCreate(si);
+		}
+	}
+	
+	private void rescanKeep(ShellyAbstractDevice d) {
+		LOG.trace("Rescan: keep {}", d);
+		rescanFound(d);
+		if(d instanceof AbstractProDevice || d instanceof AbstractG3Device) {
+			final RequestGovernor.Lane prevLane = RequestGovernor.enterLane(RequestGovernor.Lane.BACKGROUND);
+			try {
+				discoverBlu(d); // BLU devices added since last scan
+			} catch(IOException | RuntimeException e) {
+				LOG.debug("rescan BLU {}", d, e);
+			} finally {
+				RequestGovernor.exitLane(prevLane);
+			}
+		}
+	}
+	
+	private ShellyAbstractDevice find(InetAddressAndPort addr) {
+		devicesLock.readLock().lock();
+		try {
+			Integer ind = addressIndex.get(addr);
+			return ind == null ? null : devices.get(ind);
+		} finally {
+			devicesLock.readLock().unlock();
+		}
+	}
+	
+	private ShellyAbstractDevice find(String mac) {
+		devicesLock.readLock().lock();
+		try {
+			Integer ind = macIndex.get(mac);
+			return ind == null ? null : devices.get(ind);
+		} finally {
+			devicesLock.readLock().unlock();
+		}
+	}
+	
+	// device id (e.g. shellyplus1pm-a8032ab12345: "src" of gen2+ messages; shelly1pm-A4CF12: gen1 default hostname / mqtt id);
+	// a device renamed after insertion is not found until substituted (e.g. on rescan)
+	private ShellyAbstractDevice findById(String id) {
+		devicesLock.readLock().lock();
+		try {
+			final Integer ind = idIndex.get(id.toLowerCase());
+			if(ind != null) {
+				final ShellyAbstractDevice d = devices.get(ind);
+				if(id.equalsIgnoreCase(d.getHostname())) {
+					return d;
+				}
+			}
+			return null;
+		} finally {
+			devicesLock.readLock().unlock();
+		}
+	}
+	
+	private static boolean isHealthy(ShellyAbstractDevice d) {
+		final Status st = d.getStatus();
+		return (st == Status.ON_LINE || st == Status.READING) && d instanceof GhostDevice == false &&
+				(d instanceof ShellyUnmanagedDeviceInterface == false || ((ShellyUnmanagedDeviceInterface)d).getException() == null);
+	}
+	
+	private void rescanFound(ShellyAbstractDevice d) {
+		final Set<String> found = rescanFound;
+		if(found != null) {
+			found.add(d.getMacAddress());
+		}
+	}
+	
+	// end of rescan: devices not found and not healthy are replaced by their ghost (useStore) or removed;
+	// healthy devices are kept even if not rediscovered: mDNS answers can be lost while the device still responds to polling
+	private boolean reconcile(Set<String> found, boolean useStore) {
+		devicesLock.writeLock().lock();
+		try {
+			if(rescanFound != found) { // a newer rescan is running
+				return false;
+			}
+			rescanFound = null;
+			int firstRemoved = -1;
+			for(int ind = devices.size() - 1; ind >= 0; ind--) {
+				final ShellyAbstractDevice d = devices.get(ind);
+				if(found.contains(d.getMacAddress()) || isHealthy(d) || (useStore && d instanceof GhostDevice)) {
+					continue;
+				}
+				final DeviceRefreshTask task = refreshProcess.get(ind);
+				if(task != null) {
+					task.cancel(true);
+				}
+				statusPush.disconnect(d);
+				final GhostDevice ghost;
+				if(useStore && (ghost = ghostsStore.ghostOf(d)) != null) {
+					setDevice(ind, ghost);
+					refreshProcess.set(ind, null);
+					fireEvent(EventType.SUBSTITUTE, ind);
+				} else {
+					refreshProcess.remove(ind);
+					removeDevice(ind);
+					knownInfo.remove(d.getAddressAndPort());
+					fireEvent(EventType.DELETE, ind);
+					firstRemoved = ind;
+				}
+			}
+			if(firstRemoved >= 0) {
+				rescheduleShifted(firstRemoved);
+			}
+			LOG.debug("Rescan reconciled: {} found, {} devices", found.size(), devices.size());
+			return true;
+		} finally {
+			devicesLock.writeLock().unlock();
+		}
+	}
+
+	// refresh processes of devices shifted by a removal refer to their old index (initial delay); call with write lock
+	private void rescheduleShifted(int first) {
+		for(int ind = first; ind < devices.size(); ind++) {
+			final DeviceRefreshTask task = refreshProcess.get(ind);
+			if(task != null && task.isCancelled() == false) { // paused processes are rescheduled by activateRefresh(...)
+				task.cancel(true);
+				refreshProcess.set(ind, scheduleRefresh(devices.get(ind), ind, refreshInterval, refreshTics));
 			}
 		}
-		LOG.debug("end scan");
-		fireEvent(EventType.READY);
 	}
 
 	public void refresh(final int ind, boolean force) {
-		synchronized(devices) {
+		devicesLock.readLock().lock();
+		try {
 			final ShellyAbstractDevice d = devices.get(ind);
 			if(d instanceof GhostDevice == false && (d.getStatus() != Status.READING || force)) {
 				pauseRefresh(ind);
 				d.setStatus(Status.READING);
-				executor.schedule(() -> {
+				executor.execute(() -> {
 					if(d instanceof ShellyUnmanagedDeviceInterface unmanaged && unmanaged.getException() != null) { // try to create proper device
 						InetAddressAndPort addr = d.getAddressAndPort();
 						create(addr.getAddress(), addr.getPort(), d.getHostname(), true);
 					} else {
-						try {
-							d.refreshSettings();
-							Thread.sleep(MULTI_QUERY_DELAY);
-							d.refreshStatus();
-						} catch (RuntimeException e) {
-							LOG.error("Unexpected on refresh", e);
-						} catch (IOException | InterruptedException e) {
-							if(d.getStatus() == Status.ERROR) {
-								LOG.error("Unexpected on refresh", e);
-							} else {
-								LOG.debug("refresh {} - {}", d, d.getStatus());
+						final RequestGovernor.Lane lane = RequestGovernor.currentLane();
+						d.refreshSettingsAsync()
+						.thenCompose(v -> RequestGovernor.inLane(lane, d::refreshStatusAsync)) // continuation could run on an http client thread
+						.whenComplete((v, e) -> {
+							if(e != null) {
+								final Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+								if(cause instanceof RuntimeException) {
+									LOG.error("Unexpected on refresh", cause);
+								} else if(d.getStatus() == Status.ERROR) {
+									LOG.error("Unexpected on refresh", cause);
+								} else {
+									LOG.debug("refresh {} - {}", d, d.getStatus());
+								}
 							}
-						} finally {
 							activateRefresh(ind);
 							updateViewRow(d, ind);
-						}
+						});
 					}
-				}, MULTI_QUERY_DELAY, TimeUnit.MILLISECONDS);
+				});
 			}
+		} finally {
+			devicesLock.readLock().unlock();
 		}
 	}
 
 	public void stopAllRefreshes() {
-		synchronized(devices) {
+		devicesLock.readLock().lock();
+		try {
 			for (int i = 0; i < refreshProcess.size(); i++) {
 				pauseRefresh(i);
 			}
 			LOG.debug("All device refresh timers stopped.");
+		} finally {
+			devicesLock.readLock().unlock();
 		}
 	}
 
 	public void startAllRefreshes() {
-		synchronized(devices) {
+		devicesLock.writeLock().lock();
+		try {
 			for (int i = 0; i < refreshProcess.size(); i++) {
 				activateRefresh(i);
 			}
 			LOG.debug("All device refresh timers restarted.");
+		} finally {
+			devicesLock.writeLock().unlock();
 		}
 	}
 
 	public void reboot(int ind) {
-		final ShellyAbstractDevice d = devices.get(ind);
+		final ShellyAbstractDevice d = get(ind);
 		pauseRefresh(ind); // Before reboot disable refresh process
 		d.setStatus(Status.READING);
 		updateViewRow(d, ind);
@@ -337,29 +695,39 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 	}
 	
 	public void pauseRefresh(int ind) {
-		synchronized(devices) {
-			ScheduledFuture<?> future = refreshProcess.get(ind);
+		devicesLock.readLock().lock();
+		try {
+			DeviceRefreshTask future = refreshProcess.get(ind);
 			if(future != null) {
 				future.cancel(true);
 			}
+		} finally {
+			devicesLock.readLock().unlock();
 		}
 	}
 	
+	// must not be called while holding the read lock
 	public void activateRefresh(int ind) {
-		synchronized(devices) {
-			ScheduledFuture<?> future = refreshProcess.get(ind);
+		devicesLock.writeLock().lock();
+		try {
+			DeviceRefreshTask future = refreshProcess.get(ind);
 			if(future != null && future.isCancelled()) {
 				refreshProcess.set(ind, scheduleRefresh(devices.get(ind), ind, refreshInterval, refreshTics));
 			}
+		} finally {
+			devicesLock.writeLock().unlock();
 		}
 	}
 
 	private void updateViewRow(final ShellyAbstractDevice d, int ind) {
 		if(Thread.interrupted() == false) {
-			synchronized(devices) {
+			devicesLock.readLock().lock();
+			try {
 				if(devices.size() > ind && d == devices.get(ind)) { // underlying model unchanged (on rescan)
-					fireEvent(EventType.UPDATE, ind);
+					fireUpdate(d);
 				}
+			} finally {
+				devicesLock.readLock().unlock();
 			}
 		}
 	}
@@ -384,13 +752,30 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 	}
 
 	/**
-	 * Create a device JsonNode info (/shelly) given
+	 * Create a device JsonNode info (/shelly or built from mDNS TXT records) given
+	 * @return the created device, the healthy device kept or null
 	 */
-	private void create(InetAddress address, int port, JsonNode info, String hostName) {
+	private ShellyAbstractDevice create(InetAddress address, int port, JsonNode info, String hostName) {
+		final InetAddressAndPort addr = new InetAddressAndPort(address, port);
+		final ShellyAbstractDevice existing = find(addr);
+		if(existing != null && isHealthy(existing)) {
+			final JsonNode known = knownInfo.get(addr);
+			if((known != null && sameInfo(known, info)) || // already created (or from discovery cache); kept up to date by refresh process
+					(rescanFound != null && existing.getMacAddress().equalsIgnoreCase(info.path("mac").asText()))) { // rescan: same mac at the same address
+				LOG.trace("Keep {}:{} - {}", address, port, hostName);
+				if(rescanFound != null) {
+					rescanKeep(existing);
+				}
+				return existing;
+			}
+		}
 		LOG.trace("Creating {}:{} - {}", address, port, hostName);
+		final RequestGovernor.Lane prevLane = RequestGovernor.enterLane(RequestGovernor.Lane.BACKGROUND);
 		try {
 			ShellyAbstractDevice d = DevicesFactory.create(httpClient, wsClient, address, port, info, hostName);
 			if(/*d != null &&*/ Thread.interrupted() == false) {
+				discoveryCache.put(d, info);
+				knownInfo.put(d.getAddressAndPort(), info);
 				newDevice(d);
 				LOG.debug("Create {}:{} - {}", address, port, d);
 
@@ -415,25 +800,130 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 				}
 				// BTHome (BLU)
 				if(d instanceof AbstractProDevice || d instanceof AbstractG3Device) {
-					final JsonNode currenteComponents = d.getJSON("/rpc/Shelly.GetComponents?dynamic_only=true").path("components"); // empty on 401
-					for(JsonNode compInfo: currenteComponents) {
-						String key = compInfo.path("key").asText();
-						if(key.startsWith(AbstractBluDevice.DEVICE_KEY_PREFIX) || key.startsWith(BluTRV.DEVICE_KEY_PREFIX)) {
-							newBluDevice(d, compInfo, key);
-						}
-//						if(key.startsWith(BluTRV.DEVICE_KEY_PREFIX)) { newBluDevice(d, compInfo, key); }
-					}
+					discoverBlu(d);
 				}
+				return d;
 			}
 		} catch(Exception e) {
 			LOG.error("Unexpected-add: {}:{}; host: {}", address, port, hostName, e);
+		} finally {
+			RequestGovernor.exitLane(prevLane);
+		}
+		return null;
+	}
+	
+	private final static String[] INFO_COMPARE_FIELDS = {"mac", "gen", "app", "ver", "type", "fw", "auth", "auth_en"};
+	
+	// same device, same firmware; /shelly and info built from mDNS TXT records share these fields
+	private static boolean sameInfo(JsonNode info1, JsonNode info2) {
+		for(String field: INFO_COMPARE_FIELDS) {
+			if(info1.path(field).equals(info2.path(field)) == false) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the /shelly equivalent of a gen2+ device built from mDNS TXT records ("gen", "app", "ver");
+	 * null if TXT records are not enough to create the device
+	 */
+	private static JsonNode txtInfo(ServiceInfo si) {
+		final int gen;
+		try {
+			gen = Integer.parseInt(si.getPropertyString("gen"));
+		} catch(NumberFormatException e) { // also null
+			return null;
+		}
+		final String app = si.getPropertyString("app");
+		final String id = si.getName();
+		final int dash = id.lastIndexOf('-');
+		if(gen < 2 || app == null || dash < 0 || DevicesFactory.canCreateFromTXT(app) == false) {
+			return null;
+		}
+		final String mac = id.substring(dash + 1).toUpperCase();
+		if(mac.matches("[0-9A-F]{12}") == false) {
+			return null;
+		}
+		final ObjectNode info = JsonNodeFactory.instance.objectNode();
+		info.put("id", id);
+		info.put("mac", mac);
+		info.put("gen", gen);
+		info.put("app", app);
+		final String ver = si.getPropertyString("ver");
+		if(ver != null) {
+			info.put("ver", ver);
+		}
+		info.put("auth_en", false); // not advertised; protected devices are then probed (see mdnsCreate(...))
+		return info;
+	}
+	
+	private final static String[] SHELLY_TXT_KEYS = {"gen", "app", "id", "fw_id", "arch"};
+	
+	// false if the service has TXT records but no Shelly one (gen1 devices advertise "id", "fw_id", "arch"), nor a Shelly name
+	private static boolean mayBeShelly(ServiceInfo si) {
+		if(si.getName().toLowerCase().startsWith("shelly") || si.getPropertyNames().hasMoreElements() == false) {
+			return true;
+		}
+		for(String key: SHELLY_TXT_KEYS) {
+			if(si.getPropertyString(key) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Device found by mDNS: gen2+ devices are created from TXT records (no /shelly request) if possible
+	 */
+	private void mdnsCreate(ServiceInfo si) {
+		final InetAddress address = si.getInetAddresses()[0];
+		final int port = si.getPort();
+		final String name = si.getName();
+		final InetAddressAndPort addr = new InetAddressAndPort(address, port);
+		if(mdnsPending.add(addr) == false) {
+			LOG.trace("Creation in progress {}:{} - {}", address, port, name);
+			return;
+		}
+		try {
+			final JsonNode info = txtInfo(si);
+			if(info != null) {
+				final ShellyAbstractDevice d = create(address, port, info, name);
+				if(d == null || d.getStatus() == Status.NOT_LOOGGED) { // TXT records do not tell if login is needed; /shelly does
+					create(address, port, name, true);
+				}
+			} else if(mayBeShelly(si)) {
+				create(address, port, name, true);
+			} else {
+				LOG.trace("Not Shelly (TXT) {}:{} - {}", address, port, name);
+			}
+		} finally {
+			mdnsPending.remove(addr);
+		}
+	}
+	
+	private void discoverBlu(ShellyAbstractDevice d) throws IOException {
+		final JsonNode currenteComponents = d.getJSON("/rpc/Shelly.GetComponents?dynamic_only=true").path("components"); // empty on 401
+		for(JsonNode compInfo: currenteComponents) {
+			String key = compInfo.path("key").asText();
+			if(key.startsWith(AbstractBluDevice.DEVICE_KEY_PREFIX) || key.startsWith(BluTRV.DEVICE_KEY_PREFIX)) {
+				if(rescanFound != null && find(compInfo.path("config").path("addr").asText()) instanceof AbstractBluDevice blu &&
+						isHealthy(blu) && blu.getParent().getAddressAndPort().equals(d.getAddressAndPort())) {
+					rescanFound(blu); // rescan: healthy BLU device of the same gateway
+				} else {
+					newBluDevice(d, compInfo, key, null);
+				}
+			}
+//			if(key.startsWith(BluTRV.DEVICE_KEY_PREFIX)) { newBluDevice(d, compInfo, key); }
 		}
 	}
 	
 	// Add or update (existence tested by mac address) a device
 	private void newDevice(ShellyAbstractDevice d) {
-		synchronized(devices) {
-			int ind = devices.indexOf(d);
+		rescanFound(d);
+		devicesLock.writeLock().lock();
+		try {
+			final int ind = indexOf(d);
 			if(ind >= 0) {
 				ShellyAbstractDevice existingDevice = devices.get(ind);
 				if(d instanceof ShellyUnmanagedDeviceInterface == false || existingDevice instanceof ShellyUnmanagedDeviceInterface || existingDevice instanceof GhostDevice) { // Do not replace device if was recognized and now is not
@@ -441,25 +931,33 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 						if(refreshProcess.get(ind) != null) {
 							refreshProcess.get(ind).cancel(true);
 						}
-						devices.set(ind, d);
+						statusPush.disconnect(existingDevice);
+						setDevice(ind, d);
 						fireEvent(EventType.SUBSTITUTE, ind);
 						refreshProcess.set(ind, scheduleRefresh(d, ind, refreshInterval, refreshTics));
 //					} // else -> don't loose stored informations on BatteryDeviceInterface implementation
 				}
 			} else {
-				final int idx = devices.size();
-				devices.add(d);
+				final int idx = addDevice(d);
 				fireEvent(EventType.ADD, idx);
 				refreshProcess.add(scheduleRefresh(d, idx, refreshInterval, refreshTics));
 			}
+		} finally {
+			devicesLock.writeLock().unlock();
 		}
 	}
 	
-	private void newBluDevice(ShellyAbstractDevice parent, JsonNode compInfo, String key) {
+	private void newBluDevice(ShellyAbstractDevice parent, JsonNode compInfo, String key, Map<String, JsonNode> cached) {
 		try {
-			AbstractBluDevice newBlu = DevicesFactory.createBlu((AbstractG2Device)parent, httpClient, /*wsClient,*/ compInfo, key);
-			synchronized(devices) {
-				int ind = devices.indexOf(newBlu);
+			AbstractBluDevice newBlu = DevicesFactory.createBlu((AbstractG2Device)parent, httpClient, /*wsClient,*/ compInfo, key, cached);
+			if(cached != null) {
+				newBlu.setStatus(Status.READING);
+			}
+			discoveryCache.putBlu(newBlu, compInfo, key);
+			rescanFound(newBlu);
+			devicesLock.writeLock().lock();
+			try {
+				final int ind = indexOf(newBlu);
 				if(ind >= 0) { // already in list
 					ShellyAbstractDevice oldBlu = devices.get(ind);
 					if(oldBlu instanceof GhostDevice ||
@@ -468,7 +966,7 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 						if(refreshProcess.get(ind) != null) {
 							refreshProcess.get(ind).cancel(true);
 						}
-						devices.set(ind, newBlu);
+						setDevice(ind, newBlu);
 						if(oldBlu instanceof AbstractBluDevice old) { // could be a ghost
 							((BluInetAddressAndPort)newBlu.getAddressAndPort()).addAlternativeParent(old);
 						}
@@ -478,48 +976,191 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 						((BluInetAddressAndPort)oldBlu.getAddressAndPort()).addAlternativeParent(parent.getAddressAndPort());
 					}
 				} else {
-					final int idx = devices.size();
-					devices.add(newBlu);
+					final int idx = addDevice(newBlu);
 					fireEvent(EventType.ADD, idx);
 					refreshProcess.add(scheduleRefresh(newBlu, idx, refreshInterval, refreshTics));
 				}
+			} finally {
+				devicesLock.writeLock().unlock();
 			}
 		} catch (RuntimeException e) {
 			LOG.error("newBluDevice-parent: {} - key: {}", parent.getAddressAndPort(), compInfo.path("key").asText(), e);
 		}
 	}
 
-	private ScheduledFuture<?> scheduleRefresh(ShellyAbstractDevice d, int idx, final int interval, final int statusTics) {
-		final Runnable refreshRunner = new Runnable() {
-			private final Integer megIdx = Integer.valueOf(idx);
+	private DeviceRefreshTask scheduleRefresh(ShellyAbstractDevice d, int idx, final int interval, final int statusTics) {
+		final RefreshBounds bounds = refreshTypeBounds.get(d.getTypeID());
+		final AdaptiveRefresh adaptive = adaptiveRefresh ? (bounds != null ? new AdaptiveRefresh(interval, bounds.min(), bounds.max()) : new AdaptiveRefresh(interval, refreshMin, refreshMax)) : null;
+		final Supplier<CompletableFuture<?>> refreshRunner = new Supplier<>() {
 			private int ticCount = 0;
 
+			// only starts the requests; the returned future completes when the device has been refreshed
 			@Override
-			public void run() {
+			public CompletableFuture<?> get() {
+				CompletableFuture<Void> refresh = CompletableFuture.completedFuture(null);
+				final RequestGovernor.Lane prevLane = RequestGovernor.enterLane(RequestGovernor.Lane.BACKGROUND);
 				try {
-					if(++ticCount >= statusTics) {
-						d.refreshSettings(); // if device is offline ticCount never goes to 0 -> full refresh if unsleep again
+					final boolean fullTic = ++ticCount >= statusTics;
+					if(fullTic) {
+						if(d.settingsChanged()) { // gen2+: skip GetConfig if sys.cfg_rev is unchanged
+							refresh = d.refreshSettingsAsync(); // if device is offline ticCount never goes to 0 -> full refresh if unsleep again
+						}
 						ticCount = 0;
-						Thread.sleep(MULTI_QUERY_DELAY);
+						if(wsServer.isActive(d)) { // connected to the scanner through its outbound web socket
+							wsServer.ping(d);
+						} else if(pushRefresh && d instanceof AbstractG2Device g2 && d instanceof BatteryDeviceInterface == false && d.getStatus() == Status.ON_LINE) {
+							if(statusPush.isActive(d)) {
+								statusPush.ping(d);
+							} else {
+								statusPush.connect(g2, executor);
+							}
+						}
 					}
-					d.refreshStatus();
-				} catch (JsonProcessingException | RuntimeException e) {
-					LOG.trace("Unexpected-refresh: {}", d, e);
-					d.setStatus(Status.ERROR);
-				} catch (IOException | InterruptedException e) {}
-				synchronized(devices) {
-					if(devices.size() > idx && d == devices.get(idx) && Thread.interrupted() == false) { // underlying model unchanged (on rescan)
-						fireEvent(EventType.UPDATE, megIdx);
+					if(statusPush.isActive(d) == false && wsServer.isActive(d) == false &&
+							(fullTic || (coiot.isActive(d) == false && mqtt.isActive(d) == false))) { // CoIoT / MQTT: occasional poll for the other values
+						refresh = refresh.thenCompose(v -> RequestGovernor.inLane(RequestGovernor.Lane.BACKGROUND, d::refreshStatusAsync)); // continuation could run on an http client thread
 					}
+					refresh = refresh.thenCompose(v -> (d instanceof AbstractG2Device g2 && g2.getConfigRevision() >= 0 && g2.settingsChanged()) ? // configuration changed: do not wait for statusTics
+							RequestGovernor.inLane(RequestGovernor.Lane.BACKGROUND, d::refreshSettingsAsync) : CompletableFuture.completedFuture(null));
+				} catch (RuntimeException e) {
+					refresh = CompletableFuture.failedFuture(e);
+				} finally {
+					RequestGovernor.exitLane(prevLane);
 				}
+				return refresh.handle((v, failure) -> { // also executed if the task is cancelled meanwhile (DeviceRefreshTask.cancel(...) only cancels the returned stage)
+					boolean offline = false;
+					final Throwable e = (failure instanceof CompletionException) ? failure.getCause() : failure;
+					if(e instanceof JsonProcessingException || e instanceof RuntimeException) {
+						LOG.trace("Unexpected-refresh: {}", d, e);
+						d.setStatus(Status.ERROR);
+						statusPush.disconnect(d);
+					} else if(e instanceof IOException) {
+						statusPush.disconnect(d); // offline / not logged: back to polling
+						offline = e instanceof DeviceOfflineException;
+					}
+					if(adaptive != null) {
+						adaptive.update(d, offline);
+					}
+					fireUpdate(d); // flushUpdates() discards devices no more in the model
+					return null;
+				});
 			}
 		};
-		return executor.scheduleWithFixedDelay(refreshRunner, interval + idx, interval, TimeUnit.MILLISECONDS);
+		final LongSupplier nextDelay = (adaptive != null) ? adaptive::getDelay : () -> interval;
+		if(lightweightRefresh) {
+			return DeviceRefreshTask.schedule(refreshTimer, refreshWorkers, refreshRunner, interval + idx, nextDelay);
+		} else {
+			return DeviceRefreshTask.schedule(executor, null, refreshRunner, interval + idx, nextDelay);
+		}
+	}
+	
+	/**
+	 * @return achieved status refreshes per second for the device (0 if not refreshed or not yet measurable)
+	 */
+	public double getRefreshRate(int ind) {
+		devicesLock.readLock().lock();
+		try {
+			DeviceRefreshTask task = (ind >= 0 && ind < refreshProcess.size()) ? refreshProcess.get(ind) : null; // the view could be out of sync
+			return (task == null || task.isCancelled()) ? 0d : task.getRate();
+		} finally {
+			devicesLock.readLock().unlock();
+		}
+	}
+	
+	// CoIoT status received
+	private void coiotStatus(AbstractG1Device d) {
+		if(d instanceof BatteryDeviceInterface && d.getStatus() != Status.ON_LINE) { // just woken up: the device can be read now
+			executor.execute(() -> {
+				final RequestGovernor.Lane prevLane = RequestGovernor.enterLane(RequestGovernor.Lane.BACKGROUND);
+				try {
+					d.refreshStatus();
+					d.refreshSettings();
+				} catch (IOException | RuntimeException e) {
+					LOG.trace("CoIoT wake-up refresh: {}", d, e);
+				} finally {
+					RequestGovernor.exitLane(prevLane);
+				}
+				pushedStatus(d);
+			});
+		}
+		pushedStatus(d);
+	}
+	
+	// web socket notification or CoIoT status received
+	private void pushedStatus(ShellyAbstractDevice d) {
+		devicesLock.readLock().lock();
+		try {
+			final int ind = indexOf(d);
+			if(ind >= 0 && devices.get(ind) == d) {
+				DeviceRefreshTask future = refreshProcess.get(ind);
+				if(future != null && future.isCancelled() == false) { // refresh not paused
+					fireUpdate(d);
+				}
+			} else {
+				statusPush.disconnect(d);
+			}
+		} finally {
+			devicesLock.readLock().unlock();
+		}
+	}
+
+	// UPDATE events (per device and batch) are sent on next flush; many updates of the same device are coalesced
+	private void fireUpdate(ShellyAbstractDevice d) {
+		synchronized(updatedDevices) {
+			if(updatedDevices.isEmpty()) {
+				try {
+					updatesFlusher.schedule(this::flushUpdates, UPDATE_FLUSH_PERIOD, TimeUnit.MILLISECONDS);
+				} catch(RejectedExecutionException e) { // closing
+					return;
+				}
+			}
+			updatedDevices.add(d);
+		}
+	}
+	
+	private void flushUpdates() {
+		final List<ShellyAbstractDevice> updated;
+		synchronized(updatedDevices) {
+			updated = new ArrayList<>(updatedDevices);
+			updatedDevices.clear();
+		}
+		final BitSet rows = new BitSet();
+		devicesLock.readLock().lock();
+		try {
+			for(ShellyAbstractDevice d: updated) {
+				final int ind = indexOf(d);
+				if(ind >= 0 && devices.get(ind) == d) { // still in the model (could have been removed or substituted)
+					rows.set(ind);
+				}
+			}
+		} finally {
+			devicesLock.readLock().unlock();
+		}
+		// listeners are notified without lock: they could call methods requiring the write lock (a read lock cannot be upgraded)
+		rows.stream().forEach(ind -> fireEvent(EventType.UPDATE, ind));
+		if(rows.isEmpty() == false) {
+			for(UpdateBatchListener l: batchListeners) {
+				try {
+					l.update(rows);
+				} catch(RuntimeException e) {
+					LOG.error("Unexpected-flushUpdates", e);
+				}
+			}
+		}
+	}
+	
+	public void addUpdateBatchListener(UpdateBatchListener l) {
+		batchListeners.add(l);
+	}
+	
+	public void removeUpdateBatchListener(UpdateBatchListener l) {
+		batchListeners.remove(l);
 	}
 
 	private void ghostsReconnect() {
 		LOG.debug("Starting ghosts reconnect");
-		synchronized(devices) {
+		devicesLock.readLock().lock();
+		try {
 			int dalay = 0;
 			for(ShellyAbstractDevice d: devices) {
 				if(d instanceof GhostDevice g && g.isBatteryOperated() == false && g.getGeneration().equals(AbstractBluDevice.GENERATION) == false && g.getGeneration().equals(BTHomeDevice.GENERATION) == false) { // getPort() port is (potentially if!=80) variable
@@ -531,12 +1172,15 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 					dalay += 4;
 				}
 			}
+		} finally {
+			devicesLock.readLock().unlock();
 		}
 	}
 	
 	private void errorsReconnect() {
 		LOG.debug("Starting unmanaged err reconnect");
-		synchronized(devices) {
+		devicesLock.readLock().lock();
+		try {
 			int dalay = 0;
 			for(ShellyAbstractDevice d: devices) {
 				if(d instanceof ShellyUnmanagedDeviceInterface u && u.getException() != null) {
@@ -548,72 +1192,257 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 					dalay += 4;
 				}
 			}
+		} finally {
+			devicesLock.readLock().unlock();
 		}
 	}
 	
-	public int getIndex (ShellyAbstractDevice d) {
-		return devices.indexOf(d);
+	// --- indexes; write lock must be held for changes ---
+	
+	private int indexOf(ShellyAbstractDevice d) {
+		Integer ind = macIndex.get(d.getMacAddress());
+		return ind == null ? -1 : ind;
+	}
+	
+	private int addDevice(ShellyAbstractDevice d) {
+		final int ind = devices.size();
+		devices.add(d);
+		macIndex.put(d.getMacAddress(), ind);
+		addressIndex.put(d.getAddressAndPort(), ind);
+		putIdIndex(d, ind);
+		return ind;
+	}
+	
+	private void setDevice(int ind, ShellyAbstractDevice d) {
+		final ShellyAbstractDevice old = devices.set(ind, d);
+		addressIndex.remove(old.getAddressAndPort(), ind);
+		removeIdIndex(old, ind);
+		macIndex.put(d.getMacAddress(), ind);
+		addressIndex.put(d.getAddressAndPort(), ind);
+		putIdIndex(d, ind);
+	}
+	
+	private ShellyAbstractDevice removeDevice(int ind) {
+		final ShellyAbstractDevice d = devices.remove(ind);
+		macIndex.remove(d.getMacAddress(), ind);
+		addressIndex.remove(d.getAddressAndPort(), ind);
+		removeIdIndex(d, ind);
+		for(int i = ind; i < devices.size(); i++) { // following devices shifted
+			final ShellyAbstractDevice moved = devices.get(i);
+			macIndex.put(moved.getMacAddress(), i);
+			addressIndex.put(moved.getAddressAndPort(), i);
+			putIdIndex(moved, i);
+		}
+		return d;
+	}
+	
+	private void putIdIndex(ShellyAbstractDevice d, int ind) {
+		if(d instanceof AbstractBluDevice == false && d.getHostname() != null) {
+			idIndex.put(d.getHostname().toLowerCase(), ind);
+		}
+	}
+	
+	private void removeIdIndex(ShellyAbstractDevice d, int ind) {
+		if(d.getHostname() != null) {
+			idIndex.remove(d.getHostname().toLowerCase(), ind);
+		}
+	}
+	
+	public int getIndex(ShellyAbstractDevice d) {
+		devicesLock.readLock().lock();
+		try {
+			return indexOf(d);
+		} finally {
+			devicesLock.readLock().unlock();
+		}
+	}
+	
+	public int getIndex(String mac) {
+		devicesLock.readLock().lock();
+		try {
+			Integer ind = macIndex.get(mac);
+			return ind == null ? -1 : ind;
+		} finally {
+			devicesLock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * @return the index of the device reachable at this address (BluInetAddressAndPort for BLU devices), -1 if not found
+	 */
+	public int getIndex(InetAddressAndPort addr) {
+		devicesLock.readLock().lock();
+		try {
+			Integer ind = addressIndex.get(addr);
+			return ind == null ? -1 : ind;
+		} finally {
+			devicesLock.readLock().unlock();
+		}
 	}
 
 	public ShellyAbstractDevice get(int ind) {
-		return devices.get(ind);
+		devicesLock.readLock().lock();
+		try {
+			return devices.get(ind);
+		} finally {
+			devicesLock.readLock().unlock();
+		}
 	}
 	
 	public void remove(int ind) {
-		synchronized(devices) {
-			final ScheduledFuture<?> f = refreshProcess.remove(ind);
+		devicesLock.writeLock().lock();
+		try {
+			final DeviceRefreshTask f = refreshProcess.remove(ind);
 			if(f != null) {
 				f.cancel(true);
 			}
-			devices.remove(ind);
+			statusPush.disconnect(removeDevice(ind));
 			fireEvent(EventType.DELETE, ind);
+			rescheduleShifted(ind);
+		} finally {
+			devicesLock.writeLock().unlock();
 		}
 	}
 
 	public int size() {
-		return devices.size();
+		devicesLock.readLock().lock();
+		try {
+			return devices.size();
+		} finally {
+			devicesLock.readLock().unlock();
+		}
 	}
 	
 	public void loadFromStore(Path path) throws IOException {
 		loadGhosts(ghostsStore.read(path));
 	}
 	
-	private void loadGhosts(List<GhostDevice> ghosts) {
-		synchronized(devices) {
+	/**
+	 * Parse an archive without modifying the model (see loadGhosts(...))
+	 */
+	public List<GhostDevice> readStore(Path path) throws IOException {
+		return ghostsStore.read(path);
+	}
+	
+	public void loadGhosts(List<GhostDevice> ghosts) {
+		devicesLock.writeLock().lock();
+		try {
 			ghosts.forEach(d -> {
-				if(devices.indexOf(d) < 0) {
-					final int idx = devices.size();
-					devices.add(d);
+				if(indexOf(d) < 0) {
+					final int idx = addDevice(d);
 					fireEvent(EventType.ADD, idx);
 					refreshProcess.add(null);
 				}
 			});
+		} finally {
+			devicesLock.writeLock().unlock();
 		}
 	}
 	
+	/**
+	 * Warm start: build devices from the discovery cache (no request to devices), then revalidate them in background:
+	 * /shelly info is checked (full creation if changed) and the refresh process reads actual settings and status
+	 */
+	public void loadFromCache(Path path) throws IOException {
+		final List<JsonNode> entries = discoveryCache.read(path);
+		final List<CompletableFuture<Void>> parents = new ArrayList<>();
+		final List<JsonNode> bluEntries = new ArrayList<>();
+		for(JsonNode entry: entries) {
+			if(entry.has(DiscoveryCache.PARENT)) {
+				bluEntries.add(entry);
+			} else {
+				parents.add(CompletableFuture.runAsync(() -> warmCreate(entry), executor));
+			}
+		}
+		CompletableFuture.allOf(parents.toArray(CompletableFuture[]::new)).thenRunAsync(() -> {
+			for(JsonNode entry: bluEntries) {
+				int ind = getIndex(entry.path(DiscoveryCache.PARENT).asText());
+				ShellyAbstractDevice parent;
+				if(ind >= 0 && (parent = get(ind)) instanceof AbstractG2Device && knownInfo.containsKey(parent.getAddressAndPort())) {
+					newBluDevice(parent, entry.get(DiscoveryCache.COMPONENT), entry.path(DiscoveryCache.KEY).asText(), DiscoveryCache.responses(entry));
+				}
+			}
+			LOG.debug("Discovery cache loaded: {} entries", entries.size());
+		}, executor);
+	}
+	
+	private void warmCreate(JsonNode entry) {
+		try {
+			final InetAddress address = InetAddress.getByName(entry.path(DiscoveryCache.ADDRESS).asText());
+			final int port = entry.path(DiscoveryCache.PORT).intValue();
+			final JsonNode info = entry.get(DiscoveryCache.INFO);
+			ShellyAbstractDevice d = DevicesFactory.create(httpClient, wsClient, address, port, info, entry.path(DiscoveryCache.HOSTNAME).asText(), DiscoveryCache.responses(entry));
+			if(d.getClass().getName().equals(entry.path(DiscoveryCache.CLASS).asText()) && Thread.interrupted() == false) {
+				d.setStatus(Status.READING);
+				discoveryCache.put(d, info);
+				knownInfo.put(d.getAddressAndPort(), info);
+				newDevice(d);
+				executor.schedule(() -> revalidate(d, info), warmRevalidateDelay.getAndAdd(WARM_REVALIDATE_SPACING), TimeUnit.MILLISECONDS);
+			} else {
+				LOG.debug("Discovery cache: {} is not {}", d, entry.path(DiscoveryCache.CLASS).asText());
+			}
+		} catch(IOException | RuntimeException e) {
+			LOG.debug("Discovery cache entry {}", entry.path(DiscoveryCache.MAC).asText(), e);
+		}
+	}
+	
+	private void revalidate(ShellyAbstractDevice d, JsonNode cachedInfo) {
+		final InetAddressAndPort addr = d.getAddressAndPort();
+		final RequestGovernor.Lane prevLane = RequestGovernor.enterLane(RequestGovernor.Lane.BACKGROUND);
+		try {
+			JsonNode info = isShelly(addr.getAddress(), addr.getPort(), IP_SCAN_ID_TIMEOUT);
+			if(info == null) { // off-line (the refresh process will tell) or moved; discovery will create it if found
+				knownInfo.remove(addr);
+			} else if(sameInfo(info, cachedInfo) == false) { // e.g. firmware updated
+				knownInfo.remove(addr);
+				create(addr.getAddress(), addr.getPort(), info, d.getHostname());
+			} else if(d instanceof AbstractProDevice || d instanceof AbstractG3Device) {
+				discoverBlu(d); // BLU devices added since last run
+			}
+		} catch(TimeoutException e) {
+			knownInfo.remove(addr);
+		} catch(IOException | RuntimeException e) {
+			LOG.debug("revalidate {}", d, e);
+		} finally {
+			RequestGovernor.exitLane(prevLane);
+		}
+	}
+	
+	public void saveDiscoveryCache(Path path) throws IOException {
+		discoveryCache.store(this, path);
+	}
+	
 	public GhostDevice getGhost(ShellyAbstractDevice dev, int modelIdx) {
 		return ghostsStore.getGhost(dev, modelIdx);
 	}
 	
 	public GhostDevice getGhost(int modelIdx) {
-		return ghostsStore.getGhost(devices.get(modelIdx), modelIdx);
+		return ghostsStore.getGhost(get(modelIdx), modelIdx);
 	}
 	
 	public void saveToStore(Path path) throws IOException {
 		ghostsStore.store(this, path);
 	}
 
-	private void clear() {
-		executor.shutdownNow(); // full clean instead of refreshProcess.forEach(f -> f.cancel(true));
-		executor = Executors.newScheduledThreadPool(EXECUTOR_POOL_SIZE);
-		refreshProcess.clear();
-		devices.clear();
-	}
-
 	public void close() {
 		LOG.trace("Model closing");
+		if(LOG.isDebugEnabled()) {
+			for(RequestGovernor.Lane lane: RequestGovernor.Lane.values()) {
+				LOG.debug("Requests lane {}: {}", lane, RequestGovernor.getStats(lane));
+			}
+		}
 		removeListeners();
+		batchListeners.clear();
 		executor.shutdownNow();
+		updatesFlusher.shutdownNow();
+		if(refreshTimer != null) {
+			refreshTimer.shutdownNow();
+			refreshWorkers.shutdownNow();
+		}
+		statusPush.disconnectAll();
+		coiot.stop();
+		wsServer.stop();
+		mqtt.stop();
 		bjServices.stream().forEach(dns -> {
 			try {
 				dns.close();
@@ -673,6 +1502,7 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 					bjServices.add(dns);
 					LOG.debug("Resume full scan {} {}", dns.getName(), dns.getInetAddress());
 					dns.addServiceListener(SERVICE_TYPE1, mdnsListener);
+					dns.addServiceListener(SERVICE_TYPE2, mdnsListener);
 				}
 				// Ensure we receive future interface changes after Wi-Fi switches
 				jd.addNetworkTopologyListener(new NetworkTopologyListener() {
@@ -690,6 +1520,7 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 							LOG.debug("DNS add {} {}", dns.getName(), dns.getInetAddress());
 							bjServices.add(dns);
 							dns.addServiceListener(SERVICE_TYPE1, mdnsListener);
+							dns.addServiceListener(SERVICE_TYPE2, mdnsListener);
 						} catch (IOException e) {
 							LOG.error("DNS add {}", dns.getName(), e);
 						}
@@ -700,6 +1531,7 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 				bjServices.add(dns);
 				LOG.debug("Resume local scan {} {}", dns.getName(), dns.getInetAddress());
 				dns.addServiceListener(SERVICE_TYPE1, mdnsListener);
+				dns.addServiceListener(SERVICE_TYPE2, mdnsListener);
 			}
 			LOG.debug("mDNS resumed");
 		} catch (IOException ex) {
@@ -725,7 +1557,7 @@ public class Devices extends it.usna.util.UsnaObservable<Devices.EventType, Inte
 		@Override
 		public void serviceResolved(ServiceEvent event) {
 			ServiceInfo info = event.getInfo();
-			executor.execute(() -> create(info.getInetAddresses()[0], info.getPort(), info.getName(), true));
+			executor.execute(() -> mdnsCreate(info));
 		}
 	}
 } // 197 - 307 - 326 - 418 - 510 - 544 - 574 - 629
\ No newline at end of file
@@ -2,6 +2,7 @@ package it.usna.shellyscan.model;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
@@ -123,25 +124,43 @@ public class DevicesFactory {
 	private static char[] lastP;
 	
 	public static ShellyAbstractDevice create(HttpClient httpClient, WebSocketClient wsClient, final InetAddress address, int port, JsonNode info, String name) {
+		return create(httpClient, wsClient, address, port, info, name, null);
+	}
+	
+	/**
+	 * @param cached GET responses (discovery cache) used on device init instead of querying the device; null to query the device
+	 */
+	public static ShellyAbstractDevice create(HttpClient httpClient, WebSocketClient wsClient, final InetAddress address, int port, JsonNode info, String name, Map<String, JsonNode> cached) {
 		final int gen = info.path("gen").intValue();
 		if(gen == 0) { // gen1 (info.get("gen") == null)
-			return createG1(httpClient, address, port, info, name);
+			return createG1(httpClient, address, port, info, name, cached);
 		} else if(gen == 2) {
-			return createG2(httpClient, wsClient, address, port, info, name);
+			return createG2(httpClient, wsClient, address, port, info, name, cached);
 		} else if(gen == 3) {
-			return createG3(httpClient, wsClient, address, port, info, name);
+			return createG3(httpClient, wsClient, address, port, info, name, cached);
 		} else if(gen == 4) {
-			return createG4(httpClient, wsClient, address, port, info, name);
+			return createG4(httpClient, wsClient, address, port, info, name, cached);
 		} else { // unknown gen
 			return new ShellyGenericUnmanagedImpl(address, port, name, httpClient);
 		}
 	}
 
+	/**
+	 * @param app gen2+ "app" (mDNS TXT record)
+	 * @return false if the device class or its init need /shelly fields not advertised in mDNS TXT records ("model", "profile", "svc0")
+	 */
+	public static boolean canCreateFromTXT(String app) {
+		return switch(app) {
+			case ShellyPro4PM.ID, ShellyProDimmer1.ID, XT1.ID, ShellyPro3EM.ID, Shelly3EM63.ID -> false;
+			default -> true;
+		};
+	}
+
 	public static ShellyAbstractDevice createWithError(HttpClient httpClient, final InetAddress address, int port, String name, Throwable e) {
 		return new ShellyGenericUnmanagedImpl(address, port, name, httpClient, e);
 	}
 
-	private static AbstractG1Device createG1(HttpClient httpClient, final InetAddress address, int port, JsonNode info, String name) {
+	private static AbstractG1Device createG1(HttpClient httpClient, final InetAddress address, int port, JsonNode info, String name, Map<String, JsonNode> cached) {
 		AbstractG1Device d;
 		try {
 			final boolean auth = info.get("auth").asBoolean();
@@ -203,6 +222,7 @@ public class DevicesFactory {
 			d = new ShellyG1Unmanaged(address, port, name, e);
 		}
 		try {
+			d.beginInit(cached);
 			d.init(httpClient, info);
 		} catch(IOException e) {
 			if("Status-401".equals(e.getMessage()) == false) {
@@ -210,11 +230,13 @@ public class DevicesFactory {
 			}
 		} catch(RuntimeException e) {
 			LOG.error("create - init {}:{}", address, port, e);
+		} finally {
+			d.endInit();
 		}
 		return d;
 	}
 
-	private static AbstractG2Device createG2(HttpClient httpClient, WebSocketClient wsClient, final InetAddress address, int port, JsonNode info, String name) {
+	private static AbstractG2Device createG2(HttpClient httpClient, WebSocketClient wsClient, final InetAddress address, int port, JsonNode info, String name, Map<String, JsonNode> cached) {
 		AbstractG2Device d;
 		try {
 			if(info.get("auth_en").booleanValue()) {
@@ -260,6 +282,7 @@ public class DevicesFactory {
 			d = new ShellyG2Unmanaged(address, port, name, e);
 		}
 		try {
+			d.beginInit(cached);
 			d.init(httpClient, wsClient, info);
 		} catch(IOException e) {
 			if("Status-401".equals(e.getMessage()) == false) {
@@ -267,11 +290,13 @@ public class DevicesFactory {
 			}
 		} catch(RuntimeException e) {
 			LOG.error("create - init {}:{}", address, port, e);
+		} finally {
+			d.endInit();
 		}
 		return d;
 	}
 	
-	private static AbstractG3Device createG3(HttpClient httpClient, WebSocketClient wsClient, final InetAddress address, int port, JsonNode info, String name) {
+	private static AbstractG3Device createG3(HttpClient httpClient, WebSocketClient wsClient, final InetAddress address, int port, JsonNode info, String name, Map<String, JsonNode> cached) {
 		AbstractG3Device d;
 		try {
 			if(info.get("auth_en").booleanValue()) {
@@ -315,6 +340,7 @@ public class DevicesFactory {
 			d = new ShellyG3Unmanaged(address, port, name, e);
 		}
 		try {
+			d.beginInit(cached);
 			d.init(httpClient, wsClient, info);
 		} catch(IOException e) {
 			if("Status-401".equals(e.getMessage()) == false) {
@@ -322,11 +348,13 @@ public class DevicesFactory {
 			}
 		} catch(RuntimeException e) {
 			LOG.error("create - init {}:{}", address, port, e);
+		} finally {
+			d.endInit();
 		}
 		return d;
 	}
 
-	private static AbstractG4Device createG4(HttpClient httpClient, WebSocketClient wsClient, final InetAddress address, int port, JsonNode info, String name) {
+	private static AbstractG4Device createG4(HttpClient httpClient, WebSocketClient wsClient, final InetAddress address, int port, JsonNode info, String name, Map<String, JsonNode> cached) {
 		AbstractG4Device d;
 		try {
 			if(info.get("auth_en").booleanValue()) {
@@ -345,6 +373,7 @@ public class DevicesFactory {
 			d = new ShellyG4Unmanaged(address, port, name, e);
 		}
 		try {
+			d.beginInit(cached);
 			d.init(httpClient, wsClient, info);
 		} catch(IOException e) {
 			if("Status-401".equals(e.getMessage()) == false) {
@@ -352,6 +381,8 @@ public class DevicesFactory {
 			}
 		} catch(RuntimeException e) {
 			LOG.error("create - init {}:{}", address, port, e);
+		} finally {
+			d.endInit();
 		}
 		return d;
 	}
@@ -383,6 +414,10 @@ public class DevicesFactory {
 	}
 	
 	public static AbstractBluDevice createBlu(AbstractG2Device parent, HttpClient httpClient, /*WebSocketClient wsClient,*/ JsonNode info, String key) {
+		return createBlu(parent, httpClient, info, key, null);
+	}
+	
+	public static AbstractBluDevice createBlu(AbstractG2Device parent, HttpClient httpClient, /*WebSocketClient wsClient,*/ JsonNode info, String key, Map<String, JsonNode> cached) {
 		AbstractBluDevice blu;
 		try {
 			if(key.startsWith(AbstractBluDevice.DEVICE_KEY_PREFIX)) {
@@ -398,11 +433,14 @@ public class DevicesFactory {
 			blu = new ShellyBluUnmanaged(parent, info, index, e);
 		}
 		try {
+			blu.beginInit(cached);
 			blu.init(httpClient/*, wsClient*/);
 		} catch (IOException e) {
 			LOG.error("createBlu {} - init", key, e);
 		} catch(RuntimeException e) {
 			LOG.error("createBlu {} - init {}", key, parent.getAddressAndPort(), e);
+		} finally {
+			blu.endInit();
 		}
 		return blu;
 	}
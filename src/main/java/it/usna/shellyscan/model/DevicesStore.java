@@ -167,6 +167,18 @@ public class DevicesStore {
 		return list;
 	}
 	
+	/**
+	 * @return the ghost of dev (stored one for failed devices, null if not available)
+	 */
+	public synchronized GhostDevice ghostOf(ShellyAbstractDevice dev) {
+		if(dev instanceof ShellyUnmanagedDeviceInterface == false || ((ShellyUnmanagedDeviceInterface)dev).getException() == null) {
+			return toGhost(dev);
+		} else {
+			GhostDevice stored = getStoredGhost(dev);
+			return stored != null ? toGhost(stored) : null;
+		}
+	}
+	
 	private static GhostDevice toGhost(ShellyAbstractDevice dev) {
 		return new GhostDevice(
 				dev.getAddressAndPort().getAddress(), dev.getAddressAndPort().getPort(), dev.getHostname(), dev.getMacAddress(),
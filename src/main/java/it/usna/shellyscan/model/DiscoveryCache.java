@@ -0,0 +1,146 @@
+package it.usna.shellyscan.model;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import it.usna.shellyscan.model.device.ShellyAbstractDevice;
+import it.usna.shellyscan.model.device.ShellyAbstractDevice.Status;
+import it.usna.shellyscan.model.device.ShellyUnmanagedDeviceInterface;
+import it.usna.shellyscan.model.device.blu.AbstractBluDevice;
+
+/**
+ * On disk discovery information: for each device (mac) the /shelly info (or BLU component info and key),
+ * the device class and the GET responses read on init; used to build typed devices at startup
+ * without querying them (see Devices.loadFromCache(...)).<br>
+ * Devices requiring authentication are not cached.
+ * @author usna
+ */
+public class DiscoveryCache {
+	private final static Logger LOG = LoggerFactory.getLogger(DiscoveryCache.class);
+	private final static int CACHE_VERSION = 0;
+	private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+	final static String MAC = "mac";
+	final static String ADDRESS = "ip";
+	final static String PORT = "port";
+	final static String HOSTNAME = "host";
+	final static String CLASS = "class";
+	final static String INFO = "info";
+	final static String PARENT = "parent"; // BLU: parent mac
+	final static String KEY = "key"; // BLU: component key
+	final static String COMPONENT = "comp"; // BLU: component info
+	private final static String RESPONSES = "resp";
+
+	private final Map<String, ObjectNode> discovered = new ConcurrentHashMap<>(); // mac -> entry (no responses)
+	private final Map<String, JsonNode> loaded = new HashMap<>(); // mac -> entry read from file
+
+	void put(ShellyAbstractDevice d, JsonNode info) {
+		if(info.path("auth_en").booleanValue() || info.path("auth").booleanValue() || d instanceof ShellyUnmanagedDeviceInterface) {
+			discovered.remove(d.getMacAddress());
+		} else {
+			ObjectNode entry = JsonNodeFactory.instance.objectNode();
+			entry.put(MAC, d.getMacAddress());
+			entry.put(ADDRESS, d.getAddressAndPort().getIpAsText());
+			entry.put(PORT, d.getAddressAndPort().getPort());
+			entry.put(HOSTNAME, d.getHostname());
+			entry.put(CLASS, d.getClass().getName());
+			entry.set(INFO, info);
+			discovered.put(d.getMacAddress(), entry);
+		}
+	}
+
+	void putBlu(AbstractBluDevice d, JsonNode compInfo, String key) {
+		if(d instanceof ShellyUnmanagedDeviceInterface) {
+			discovered.remove(d.getMacAddress());
+		} else {
+			ObjectNode entry = JsonNodeFactory.instance.objectNode();
+			entry.put(MAC, d.getMacAddress());
+			entry.put(PARENT, d.getParent().getMacAddress());
+			entry.put(KEY, key);
+			entry.put(CLASS, d.getClass().getName());
+			entry.set(COMPONENT, compInfo);
+			discovered.put(d.getMacAddress(), entry);
+		}
+	}
+
+	/**
+	 * @return GET responses stored for the entry (see ShellyAbstractDevice.beginInit(...))
+	 */
+	static Map<String, JsonNode> responses(JsonNode entry) {
+		Map<String, JsonNode> resp = new ConcurrentHashMap<>();
+		entry.path(RESPONSES).properties().forEach(e -> resp.put(e.getKey(), e.getValue()));
+		return resp;
+	}
+
+	/**
+	 * Store devices currently on-line; for other devices still in the model the previously loaded entry (if any) is kept
+	 */
+	public synchronized void store(Devices model, Path file) throws IOException {
+		LOG.trace("storing discovery cache");
+		final ObjectNode root = JsonNodeFactory.instance.objectNode();
+		root.put("ver", CACHE_VERSION);
+		root.put("time", System.currentTimeMillis());
+		final ArrayNode entries = JsonNodeFactory.instance.arrayNode();
+		for (int i = 0; i < model.size(); i++) {
+			final ShellyAbstractDevice d = model.get(i);
+			final ObjectNode entry = discovered.get(d.getMacAddress());
+			final Map<String, JsonNode> resp = d.getInitResponses();
+			if(entry != null && resp != null && d.getStatus() == Status.ON_LINE && d.getClass().getName().equals(entry.path(CLASS).asText())) {
+				ObjectNode e = entry.deepCopy();
+				ObjectNode respNode = e.putObject(RESPONSES);
+				resp.forEach(respNode::set);
+				entries.add(e);
+			} else if(loaded.containsKey(d.getMacAddress())) {
+				entries.add(loaded.get(d.getMacAddress()));
+			}
+		}
+		root.set("dev", entries);
+		try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			JSON_MAPPER.writer().writeValue(w, root);
+		}
+	}
+
+	/**
+	 * @return cached entries; devices first, then BLU devices
+	 */
+	public synchronized List<JsonNode> read(Path file) throws IOException {
+		LOG.trace("reading discovery cache");
+		loaded.clear();
+		final List<JsonNode> devices = new ArrayList<>();
+		final List<JsonNode> blu = new ArrayList<>();
+		try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			final JsonNode root = JSON_MAPPER.readTree(r);
+			if(root.path("ver").asInt() == CACHE_VERSION) {
+				for(JsonNode entry: root.path("dev")) {
+					loaded.put(entry.path(MAC).asText(), entry);
+					(entry.has(PARENT) ? blu : devices).add(entry);
+				}
+			} else {
+				LOG.info("Discovery cache version is {}; " + CACHE_VERSION + " expected", root.path("ver").asText());
+			}
+		} catch(FileNotFoundException | NoSuchFileException e) {
+			// first run?
+		}
+		devices.addAll(blu);
+		return devices;
+	}
+}
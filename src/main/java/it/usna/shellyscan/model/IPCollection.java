@@ -11,56 +11,105 @@ public class IPCollection implements Iterable<InetAddress> {
 	private ArrayList<IPRange> collection = new ArrayList<>();
 	
 	public void add(final byte[] ip, int first, final int last) {
-		collection.add(new IPRange(ip, first, last));
+		final long base = toLong(ip) & 0xFFFFFF00L;
+		collection.add(new IPRange(base | first, base | last, (ip[0] & 0xFF) + "." + (ip[1] & 0xFF) + "." + (ip[2] & 0xFF) + "/" + first + "-" + last));
 	}
 	
 	public void add(final String ip, int first, final int last) {
 		String ipS[] = ip.split("\\.");
 		byte [] baseIP = new byte[] {(byte)Integer.parseInt(ipS[0]), (byte)Integer.parseInt(ipS[1]), (byte)Integer.parseInt(ipS[2]), 0};
-		collection.add(new IPRange(baseIP, first, last));
+		add(baseIP, first, last);
+	}
+	
+	/**
+	 * @param cidr e.g. "192.168.0.0/22"; network and broadcast addresses are excluded (prefix up to 30)
+	 */
+	public void add(final String cidr) {
+		String parts[] = cidr.trim().split("/");
+		if(parts.length != 2) {
+			throw new IllegalArgumentException(cidr);
+		}
+		String ipS[] = parts[0].split("\\.");
+		final int prefix = Integer.parseInt(parts[1]);
+		if(ipS.length != 4 || prefix < 0 || prefix > 32) {
+			throw new IllegalArgumentException(cidr);
+		}
+		byte [] ip = new byte[4];
+		for(int i = 0; i < 4; i++) {
+			int octet = Integer.parseInt(ipS[i]);
+			if(octet < 0 || octet > 255) {
+				throw new IllegalArgumentException(cidr);
+			}
+			ip[i] = (byte)octet;
+		}
+		final long mask = (0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL;
+		long first = toLong(ip) & mask;
+		long last = first | (~mask & 0xFFFFFFFFL);
+		if(prefix <= 30) {
+			first++;
+			last--;
+		}
+		collection.add(new IPRange(first, last, cidr.trim()));
+	}
+	
+	/**
+	 * @return number of addresses in the collection
+	 */
+	public long size() {
+		return collection.stream().mapToLong(IPRange::size).sum();
 	}
 
 	@Override
 	public Iterator<InetAddress> iterator() {
 		return new Iterator<InetAddress>() {
 			private int rangeIndex = 0;
-			private int currentOctet = -1;
+			private long current = collection.isEmpty() ? 0 : collection.get(0).first;
 			
 			@Override
 			public boolean hasNext() {
-				return rangeIndex < collection.size() - 1 || (rangeIndex < collection.size() && currentOctet <= collection.get(rangeIndex).last);
+				while(rangeIndex < collection.size() && current > collection.get(rangeIndex).last) {
+					if(++rangeIndex < collection.size()) {
+						current = collection.get(rangeIndex).first;
+					}
+				}
+				return rangeIndex < collection.size();
 			}
 
 			@Override
 			public InetAddress next() {
+				if(hasNext() == false) {
+					throw new NoSuchElementException();
+				}
 				try {
-					IPRange ipr = collection.get(rangeIndex);
-					if(currentOctet < 0) {
-						currentOctet = ipr.first;
-					} else if(currentOctet > ipr.last) {
-						ipr = collection.get(++rangeIndex);
-						currentOctet = ipr.first;
-					}
-					byte[] baseScanIP = ipr.ip;
-					baseScanIP[3] = (byte)currentOctet++;
-
-					return InetAddress.getByAddress(baseScanIP);
-				} catch (UnknownHostException | RuntimeException e) {
+					return toInetAddress(current++);
+				} catch (UnknownHostException e) {
 					throw new NoSuchElementException(e);
 				}
 			}
 		};
 	}
 	
+	private static long toLong(byte[] ip) {
+		return ((ip[0] & 0xFFL) << 24) | ((ip[1] & 0xFFL) << 16) | ((ip[2] & 0xFFL) << 8) | (ip[3] & 0xFFL);
+	}
+	
+	private static InetAddress toInetAddress(long ip) throws UnknownHostException {
+		return InetAddress.getByAddress(new byte[] {(byte)(ip >> 24), (byte)(ip >> 16), (byte)(ip >> 8), (byte)ip});
+	}
+	
 	@Override
 	public String toString() {
 		return collection.stream().map(IPRange::toString).collect(Collectors.joining(", "));
 	}
 	
-	private record IPRange(byte[] ip, int first, int last) {
+	private record IPRange(long first, long last, String representation) {
+		long size() {
+			return Math.max(0, last - first + 1);
+		}
+
 		@Override
 		public String toString() {
-			return (ip[0] & 0xFF) + "." + (ip[1] & 0xFF) + "." + (ip[2] & 0xFF) + "/" + first + "-" + last;
+			return representation;
 		}
 	}
 	
@@ -69,7 +118,8 @@ public class IPCollection implements Iterable<InetAddress> {
 //		c.add(new byte[] {(byte)192, (byte)168, (byte)1, (byte)0}, 10, 20);
 //		c.add(new byte[] {(byte)192, (byte)168, (byte)2, (byte)0}, 15, 18);
 //		c.add("192.168.3", 30, 31);
-//		System.out.println(c);
+//		c.add("192.168.4.0/30");
+//		System.out.println(c + " - " + c.size());
 //		for(InetAddress a: c) {
 //			System.out.println(a);
 //		}
@@ -0,0 +1,164 @@
+package it.usna.shellyscan.model;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non blocking TCP connect scan of an IPCollection: up to maxConcurrent connections are pending at the same time
+ * (single thread, one selector); hosts accepting the connection are passed to the "open" consumer
+ * (e.g. /shelly identification) as soon as found, the scan goes on.
+ * @author usna
+ */
+public class IPScanner {
+	private final static Logger LOG = LoggerFactory.getLogger(IPScanner.class);
+	private final static long SELECT_TIMEOUT = 50; // ms
+	private final static long REPORT_PERIOD = 1000; // ms
+	private final int maxConcurrent;
+	private final int connectTimeout;
+
+	/**
+	 * @param maxConcurrent maximum number of pending connections
+	 * @param connectTimeout ms
+	 */
+	public IPScanner(int maxConcurrent, int connectTimeout) {
+		this.maxConcurrent = maxConcurrent;
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * Scan (blocking) all addresses on all ports
+	 * @param open called, on the scanning thread, for each address/port accepting connections
+	 * @param progress called every REPORT_PERIOD ms; can be null
+	 * @return the final report
+	 */
+	public ScanReport scan(IPCollection addresses, BiConsumer<InetAddress, Integer> open, Consumer<ScanReport> progress, int ... ports) throws IOException {
+		final long start = System.currentTimeMillis();
+		final long total = addresses.size() * ports.length;
+		final Iterator<InetAddress> it = addresses.iterator();
+		final ArrayDeque<SelectionKey> pending = new ArrayDeque<>(); // connect order is also timeout order
+		InetAddress current = null;
+		int portIdx = ports.length;
+		int inFlight = 0;
+		long probed = 0;
+		long found = 0;
+		long lastReport = start;
+		try (Selector selector = Selector.open()) {
+			while((inFlight > 0 || portIdx < ports.length || it.hasNext()) && Thread.currentThread().isInterrupted() == false) {
+				// new connections
+				while(inFlight < maxConcurrent && (portIdx < ports.length || it.hasNext())) {
+					if(portIdx >= ports.length) {
+						current = it.next();
+						portIdx = 0;
+					}
+					final int port = ports[portIdx++];
+					SocketChannel ch = null;
+					try {
+						ch = SocketChannel.open();
+						ch.configureBlocking(false);
+						if(ch.connect(new InetSocketAddress(current, port))) {
+							ch.close();
+							probed++;
+							found++;
+							open.accept(current, port);
+						} else {
+							pending.add(ch.register(selector, SelectionKey.OP_CONNECT, new Probe(current, port, System.currentTimeMillis() + connectTimeout)));
+							inFlight++;
+						}
+					} catch(IOException e) { // e.g. network unreachable
+						close(ch);
+						probed++;
+						LOG.trace("IP scan {}:{} - {}", current, port, e.toString());
+					}
+				}
+
+				selector.select(SELECT_TIMEOUT);
+				for(SelectionKey key: selector.selectedKeys()) {
+					final SocketChannel ch = (SocketChannel)key.channel();
+					final Probe p = (Probe)key.attachment();
+					boolean connected;
+					try {
+						if(ch.finishConnect() == false) {
+							continue;
+						}
+						connected = true;
+					} catch(IOException e) { // refused, unreachable, ...
+						connected = false;
+					}
+					close(ch); // also cancel the key
+					inFlight--;
+					probed++;
+					if(connected) {
+						found++;
+						open.accept(p.address, p.port);
+					}
+				}
+				selector.selectedKeys().clear();
+
+				// timeouts
+				final long now = System.currentTimeMillis();
+				SelectionKey head;
+				while((head = pending.peek()) != null && (head.isValid() == false || ((Probe)head.attachment()).deadline <= now)) {
+					pending.poll();
+					if(head.isValid()) {
+						close((SocketChannel)head.channel());
+						inFlight--;
+						probed++;
+					}
+				}
+
+				if(progress != null && now - lastReport >= REPORT_PERIOD) {
+					lastReport = now;
+					progress.accept(new ScanReport(total, probed, found, now - start));
+				}
+			}
+		} finally {
+			pending.forEach(key -> close((SocketChannel)key.channel()));
+		}
+		final ScanReport report = new ScanReport(total, probed, found, System.currentTimeMillis() - start);
+		if(progress != null) {
+			progress.accept(report);
+		}
+		return report;
+	}
+
+	private static void close(SocketChannel ch) {
+		if(ch != null) {
+			try {
+				ch.close();
+			} catch (IOException e) {}
+		}
+	}
+
+	private record Probe(InetAddress address, int port, long deadline) {}
+
+	/**
+	 * @param total addresses * ports to probe
+	 * @param probed connections completed, refused or timed out
+	 * @param open connections accepted
+	 * @param elapsed ms
+	 */
+	public record ScanReport(long total, long probed, long open, long elapsed) {
+		/**
+		 * @return probes per second
+		 */
+		public double rate() {
+			return elapsed > 0 ? probed * 1000d / elapsed : 0d;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d/%d probed, %d open, %.0f probes/s, %d ms", probed, total, open, rate(), elapsed);
+		}
+	}
+}
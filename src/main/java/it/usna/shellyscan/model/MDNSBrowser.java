@@ -0,0 +1,160 @@
+package it.usna.shellyscan.model;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.jmdns.JmDNS;
+import javax.jmdns.JmmDNS;
+import javax.jmdns.NetworkTopologyEvent;
+import javax.jmdns.NetworkTopologyListener;
+import javax.jmdns.ServiceEvent;
+import javax.jmdns.ServiceInfo;
+import javax.jmdns.ServiceListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streaming mDNS browse: each service is passed to the consumer as soon as it is resolved (instead of
+ * waiting for JmDNS.list(...) timeout on each interface); all interfaces are browsed at the same time.<br>
+ * The browse ends when no new service is found for quietPeriod ms, or after maxTime ms; with JmmDNS the quiet period
+ * starts when the first interface (or service) appears, since interfaces are enumerated asynchronously.
+ * @author usna
+ */
+public class MDNSBrowser {
+	private final static Logger LOG = LoggerFactory.getLogger(MDNSBrowser.class);
+	public final static long DEF_QUIET_PERIOD = 2000; // ms
+	public final static long DEF_MAX_TIME = 30_000; // ms
+
+	private final long quietPeriod;
+	private final long maxTime;
+
+	public MDNSBrowser() {
+		this(DEF_QUIET_PERIOD, DEF_MAX_TIME);
+	}
+
+	/**
+	 * @param quietPeriod the browse ends when no new service is found for this time (ms)
+	 * @param maxTime maximum browse time (ms)
+	 */
+	public MDNSBrowser(long quietPeriod, long maxTime) {
+		this.quietPeriod = quietPeriod;
+		this.maxTime = maxTime;
+	}
+
+	/**
+	 * Browse on each JmDNS (one for each interface)
+	 * @param found called, on JmDNS threads, once for each service (name and address); must not block
+	 * @return a future completed when the browse ends
+	 */
+	public CompletableFuture<Void> browse(Collection<JmDNS> dnsList, Consumer<ServiceInfo> found, String ... types) {
+		final Browse browse = new Browse(found);
+		browse.interfaceFound();
+		for(JmDNS dns: dnsList) {
+			for(String type: types) {
+				dns.addServiceListener(type, browse);
+				browse.onEnd(() -> dns.removeServiceListener(type, browse));
+			}
+		}
+		return browse.start();
+	}
+
+	/**
+	 * Browse on all interfaces managed by jmmDNS (also interfaces added while browsing)
+	 * @param found called, on JmDNS threads, once for each service (name and address); must not block
+	 * @return a future completed when the browse ends
+	 */
+	public CompletableFuture<Void> browse(JmmDNS jmmDNS, Consumer<ServiceInfo> found, String ... types) {
+		final Browse browse = new Browse(found);
+		final NetworkTopologyListener topologyListener = new NetworkTopologyListener() {
+			@Override
+			public void inetAddressAdded(NetworkTopologyEvent event) {
+				browse.interfaceFound();
+			}
+
+			@Override
+			public void inetAddressRemoved(NetworkTopologyEvent event) {}
+		};
+		jmmDNS.addNetworkTopologyListener(topologyListener);
+		browse.onEnd(() -> jmmDNS.removeNetworkTopologyListener(topologyListener));
+		if(jmmDNS.getDNS().length > 0) {
+			browse.interfaceFound();
+		}
+		for(String type: types) {
+			jmmDNS.addServiceListener(type, browse);
+			browse.onEnd(() -> jmmDNS.removeServiceListener(type, browse));
+		}
+		return browse.start();
+	}
+
+	private class Browse implements ServiceListener {
+		private final Consumer<ServiceInfo> found;
+		private final Set<String> emitted = ConcurrentHashMap.newKeySet(); // name@address
+		private final List<Runnable> endActions = new ArrayList<>();
+		private final CompletableFuture<Void> end = new CompletableFuture<>();
+		private final long start = System.currentTimeMillis();
+		private volatile long lastFound = -1; // -1: no interface yet, the quiet period has not started
+
+		private Browse(Consumer<ServiceInfo> found) {
+			this.found = found;
+		}
+
+		private void onEnd(Runnable action) {
+			endActions.add(action);
+		}
+
+		private void interfaceFound() {
+			if(lastFound < 0) {
+				lastFound = System.currentTimeMillis();
+			}
+		}
+
+		private CompletableFuture<Void> start() {
+			check();
+			return end;
+		}
+
+		private void check() {
+			final long now = System.currentTimeMillis();
+			final long last = lastFound;
+			final long quiet = (last < 0) ? 0 : now - last;
+			if((last >= 0 && quiet >= quietPeriod) || now - start >= maxTime) {
+				endActions.forEach(Runnable::run);
+				LOG.debug("mDNS browse end: {} services, {} ms", emitted.size(), now - start);
+				end.complete(null);
+			} else {
+				CompletableFuture.delayedExecutor(Math.min(quietPeriod - quiet, maxTime - (now - start)), TimeUnit.MILLISECONDS).execute(this::check);
+			}
+		}
+
+		@Override
+		public void serviceAdded(ServiceEvent event) {
+			lastFound = System.currentTimeMillis();
+			event.getDNS().requestServiceInfo(event.getType(), event.getName(), 1); // non blocking; resolved -> serviceResolved(...)
+		}
+
+		@Override
+		public void serviceRemoved(ServiceEvent event) {}
+
+		@Override
+		public void serviceResolved(ServiceEvent event) {
+			final ServiceInfo info = event.getInfo();
+			final InetAddress[] addresses = info.getInetAddresses();
+			if(end.isDone() == false && addresses.length > 0 && emitted.add(info.getName().toLowerCase() + "@" + addresses[0].getHostAddress())) {
+				lastFound = System.currentTimeMillis();
+				try {
+					found.accept(info);
+				} catch(RuntimeException e) {
+					LOG.error("mDNS browse {}", info.getName(), e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package it.usna.shellyscan.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import it.usna.shellyscan.model.device.ShellyAbstractDevice;
+import it.usna.shellyscan.model.device.g1.AbstractG1Device;
+import it.usna.shellyscan.model.device.g2.AbstractG2Device;
+import it.usna.shellyscan.model.device.g2.WebSocketDeviceListener;
+
+/**
+ * Device status read from an MQTT broker devices already publish to; one broker connection for all devices:<br>
+ * - gen1: "shellies/&lt;id&gt;/..." topics, mapped as CoIoT sensors (see AbstractG1Device.fillCoIoT(...));<br>
+ * - gen2+: "&lt;prefix&gt;/events/rpc" (NotifyStatus / NotifyFullStatus) and "&lt;prefix&gt;/status/&lt;component&gt;".<br>
+ * Default device ids / topic prefixes (the device id, e.g. shelly1pm-A4CF12) are assumed; a gen2+ custom prefix is
+ * learned from the "src" of its events/rpc messages. Liveness comes from the (retained, last will) "online" topics.
+ * @author usna
+ */
+public class MqttIngest {
+	private final static Logger LOG = LoggerFactory.getLogger(MqttIngest.class);
+	private final static long ACTIVE_TIME = 90_000; // ms; gen1 publish every 30 s by default ("update_period")
+	private final static String G1_ROOT = "shellies/";
+	private final static String[] TOPICS = {G1_ROOT + "#", "+/events/rpc", "+/status/+", "+/online"};
+	private final static Pattern G1_CHANNEL = Pattern.compile("(relay|light|input|roller|emeter)/(\\d)(?:/(\\w+))?");
+	private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+	private final Function<String, ShellyAbstractDevice> lookup;
+	private final Consumer<ShellyAbstractDevice> onUpdate;
+	private final Map<ShellyAbstractDevice, Long> received = Collections.synchronizedMap(new WeakHashMap<>()); // last message applied to the device status
+	private final Map<ShellyAbstractDevice, Boolean> online = Collections.synchronizedMap(new WeakHashMap<>());
+	private final Map<String, String> prefixes = new ConcurrentHashMap<>(); // gen2+ topic prefix -> device id
+	private MqttClient client;
+
+	/**
+	 * @param lookup device id (hostname) -> device (null if not in the model)
+	 * @param onUpdate called (on the MQTT client thread) whenever a message changed the device status
+	 */
+	public MqttIngest(Function<String, ShellyAbstractDevice> lookup, Consumer<ShellyAbstractDevice> onUpdate) {
+		this.lookup = lookup;
+		this.onUpdate = onUpdate;
+	}
+
+	/**
+	 * Connect (blocking) and subscribe; the connection is then automatically restored
+	 * @param broker e.g. tcp://192.168.1.10:1883
+	 * @param user null or empty if the broker does not require authentication
+	 */
+	public synchronized void start(String broker, String user, char[] pwd) throws MqttException {
+		stop();
+		final MqttClient c = new MqttClient(broker, "S_Scanner-" + UUID.randomUUID().toString().substring(0, 8), new MemoryPersistence());
+		final MqttConnectOptions opt = new MqttConnectOptions();
+		opt.setAutomaticReconnect(true);
+		opt.setCleanSession(true);
+		opt.setConnectionTimeout(10);
+		if(user != null && user.isEmpty() == false) {
+			opt.setUserName(user);
+			opt.setPassword(pwd);
+		}
+		c.setCallback(new MqttCallbackExtended() {
+			@Override
+			public void connectComplete(boolean reconnect, String serverURI) {
+				try {
+					c.subscribe(TOPICS);
+					LOG.debug("MQTT connected to {}", serverURI);
+				} catch (MqttException e) {
+					LOG.error("MQTT subscribe", e);
+				}
+			}
+
+			@Override
+			public void connectionLost(Throwable cause) {
+				LOG.debug("MQTT connection lost", cause);
+				online.clear(); // devices are polled while disconnected
+			}
+
+			@Override
+			public void messageArrived(String topic, MqttMessage message) {
+				try {
+					message(topic, new String(message.getPayload(), StandardCharsets.UTF_8));
+				} catch (IOException | RuntimeException e) {
+					LOG.debug("MQTT message {}", topic, e);
+				}
+			}
+
+			@Override
+			public void deliveryComplete(IMqttDeliveryToken token) {}
+		});
+		c.connect(opt);
+		client = c;
+	}
+
+	public synchronized void stop() {
+		if(client != null) {
+			try {
+				client.disconnect();
+				client.close();
+			} catch (MqttException e) {
+				LOG.debug("MQTT disconnect", e);
+			}
+			client = null;
+			received.clear();
+			online.clear();
+		}
+	}
+
+	/**
+	 * @return true if the device status has been updated by a message recently, or if it has ever been updated
+	 * and the device is on line on the broker
+	 */
+	public boolean isActive(Object d) {
+		final Long last = received.get(d);
+		return last != null && (Boolean.TRUE.equals(online.get(d)) || System.currentTimeMillis() - last < ACTIVE_TIME);
+	}
+
+	void message(String topic, String payload) throws IOException {
+		if(topic.startsWith(G1_ROOT)) {
+			final int sep = topic.indexOf('/', G1_ROOT.length());
+			if(sep > 0 && lookup.apply(topic.substring(G1_ROOT.length(), sep)) instanceof AbstractG1Device d) {
+				g1Message(d, topic.substring(sep + 1), payload);
+			}
+		} else {
+			final int sep = topic.indexOf('/');
+			final String prefix = topic.substring(0, sep);
+			final String sub = topic.substring(sep + 1);
+			if(sub.equals("events/rpc")) {
+				final JsonNode msg = JSON_MAPPER.readTree(payload);
+				final String src = msg.path("src").asText("");
+				prefixes.put(prefix, src);
+				if(lookup.apply(src) instanceof AbstractG2Device d && d.applyStatusNotification(msg)) {
+					received.put(d, System.currentTimeMillis());
+					onUpdate.accept(d);
+				}
+			} else if(lookup.apply(prefixes.getOrDefault(prefix, prefix)) instanceof AbstractG2Device d) {
+				if(sub.equals("online")) {
+					online.put(d, Boolean.parseBoolean(payload));
+				} else { // status/<component>
+					final ObjectNode msg = JsonNodeFactory.instance.objectNode();
+					msg.put("method", WebSocketDeviceListener.NOTIFY_STATUS);
+					msg.putObject("params").set(sub.substring(sub.indexOf('/') + 1), JSON_MAPPER.readTree(payload));
+					if(d.applyStatusNotification(msg)) { // merged on the last full status
+						received.put(d, System.currentTimeMillis());
+						onUpdate.accept(d);
+					}
+				}
+			}
+		}
+	}
+
+	private void g1Message(AbstractG1Device d, String sub, String payload) throws IOException {
+		if(sub.equals("online")) {
+			online.put(d, Boolean.parseBoolean(payload));
+			return;
+		}
+		final int sensor = d.mqttSensorId(sub, g1Sensor(sub));
+		if(sensor > 0) {
+			final ArrayNode g = JsonNodeFactory.instance.arrayNode();
+			final ArrayNode s = g.addArray().add(0).add(sensor);
+			if(payload.equals("on") || payload.equals("off")) {
+				s.add(payload.equals("on") ? 1 : 0);
+			} else if(payload.matches("-?\\d+(\\.\\d+)?")) {
+				s.add(JSON_MAPPER.readTree(payload));
+			} else { // e.g. "overpower"
+				return;
+			}
+			if(d.fillCoIoT(g)) { // only mapped values make the device active: other topics do not replace polling
+				received.put(d, System.currentTimeMillis());
+				onUpdate.accept(d);
+			}
+		}
+	}
+
+	// gen1 topic (after "shellies/<id>/") -> CoIoT v2 sensor id; -1 if not mapped
+	static int g1Sensor(String sub) {
+		switch(sub) {
+		case "temperature": return 3104;
+		case "sensor/temperature": return 3101;
+		case "sensor/humidity": return 3103;
+		case "sensor/battery": return 3111;
+		}
+		final Matcher m = G1_CHANNEL.matcher(sub);
+		if(m.matches()) {
+			final int ch = Integer.parseInt(m.group(2)) * 100;
+			return switch(m.group(1) + (m.group(3) == null ? "" : "/" + m.group(3))) {
+			case "relay", "light" -> 1101 + ch;
+			case "input" -> 2101 + ch;
+			case "relay/power", "light/power" -> 4101 + ch;
+			case "roller/power" -> 4102 + ch;
+			case "emeter/power" -> 4105 + ch;
+			case "emeter/voltage" -> 4108 + ch;
+			default -> -1;
+			};
+		}
+		return -1;
+	}
+}
@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -76,12 +77,8 @@ public class NonInteractiveDevices implements Closeable {
 
 	public void scannerInit(boolean fullScan) throws IOException {
 		if(fullScan) {
-			jd = JmmDNS.Factory.getInstance();
-			try { Thread.sleep(2000); } catch (InterruptedException e) { } // hoping this time is enough to fill list 
-			for(JmDNS dns: jd.getDNS()) {
-				bjServices.add(dns);
-				LOG.debug("Full scan {} {}", dns.getName(), dns.getInetAddress());
-			}
+			jd = JmmDNS.Factory.getInstance(); // interfaces are added asynchronously; see execute(...)
+			LOG.debug("Full scan");
 		} else {
 			final JmDNS dns = JmDNS.create(null, null);
 			bjServices.add(dns);
@@ -97,28 +94,20 @@ public class NonInteractiveDevices implements Closeable {
 	private void scanByIP(Consumer<ShellyAbstractDevice> c) throws IOException {
 		ScheduledExecutorService executor = Executors.newScheduledThreadPool(EXECUTOR_POOL_SIZE);
 		try {
-			int dalay = 0;
-			for(InetAddress addr: ipCollection) {
-				executor.schedule(() -> {
+			IPScanner.ScanReport report = new IPScanner(Devices.IP_SCAN_CONCURRENCY, Devices.IP_SCAN_CONNECT_TIMEOUT).scan(ipCollection, (addr, port) -> {
+				executor.execute(() -> {
 					try {
-						if(addr.isReachable(5_000)) {
+						JsonNode info = isShelly(addr, port, Devices.IP_SCAN_ID_TIMEOUT);
+						if(info != null) {
 							Thread.sleep(Devices.MULTI_QUERY_DELAY);
-							JsonNode info = isShelly(addr, 80);
-							if(info != null) {
-								Thread.sleep(Devices.MULTI_QUERY_DELAY);
-								create(addr, 80, info, addr.getHostAddress(), c);
-							}
-						} else {
-							LOG.trace("no ping {}", addr);
+							create(addr, port, info, addr.getHostAddress(), c);
 						}
 					} catch (TimeoutException e) {
 						LOG.trace("timeout {}", addr);
-					} catch (IOException | InterruptedException e) {
-						LOG.error("ip scan error {} {}", addr, e.toString());
-					}
-				}, dalay, TimeUnit.MILLISECONDS);
-				dalay += 4;
-			}
+					} catch (InterruptedException e) {}
+				});
+			}, r -> LOG.debug("IP scan: {}", r), 80);
+			LOG.info("IP scan {}: {}", ipCollection, report);
 			executor.shutdown();
 			executor.awaitTermination(60, TimeUnit.MINUTES);
 		} catch (Exception e) {
@@ -127,9 +116,13 @@ public class NonInteractiveDevices implements Closeable {
 	}
 
 	private JsonNode isShelly(final InetAddress address, int port) throws TimeoutException {
+		return isShelly(address, port, 80);
+	}
+
+	private JsonNode isShelly(final InetAddress address, int port, int timeout) throws TimeoutException {
 		// if(name.startsWith("shelly") || name.startsWith("Shelly")) { // Shelly X devices can have different names
 		try {
-			ContentResponse response = httpClient.newRequest("http://" + address.getHostAddress() + ":" + port + "/shelly").timeout(80, TimeUnit.SECONDS).method(HttpMethod.GET).send();
+			ContentResponse response = httpClient.newRequest("http://" + address.getHostAddress() + ":" + port + "/shelly").timeout(timeout, TimeUnit.SECONDS).method(HttpMethod.GET).send();
 			JsonNode shellyNode = null;// = JSON_MAPPER.readTree(response.getContent());
 			int resp = response.getStatus();
 			if(resp == HttpStatus.OK_200 && (shellyNode = JSON_MAPPER.readTree(response.getContent())).has("mac")) { // "mac" is common to all shelly devices
@@ -144,23 +137,37 @@ public class NonInteractiveDevices implements Closeable {
 		}
 	}
 
+	/**
+	 * mDNS: devices are passed to c as soon as found (see MDNSBrowser); returns when the browse and all creations end
+	 */
 	public void execute(Consumer<ShellyAbstractDevice> c) throws IOException {
 		LOG.trace("scan");
 		if(this.ipCollection == null) {
-			for(JmDNS bonjourService: bjServices) {
-				LOG.debug("scanning: {} {}", bonjourService.getName(), bonjourService.getInetAddress());
-				final ServiceInfo[] serviceInfos = bonjourService.list(SERVICE_TYPE1);
-				for (ServiceInfo dnsInfo: serviceInfos) {
-					final String name = dnsInfo.getName();
-					try {
-						JsonNode info = isShelly(dnsInfo.getInetAddresses()[0], 80);
-						if(info != null) {
-							create(dnsInfo.getInetAddresses()[0], 80, info, name, c);
-						}
-					} catch (TimeoutException e) {
-						LOG.error("scan", e);
+			ExecutorService executor = Executors.newFixedThreadPool(EXECUTOR_POOL_SIZE);
+			final Consumer<ServiceInfo> found = dnsInfo -> executor.execute(() -> {
+				try {
+					JsonNode info = isShelly(dnsInfo.getInetAddresses()[0], dnsInfo.getPort());
+					if(info != null) {
+						create(dnsInfo.getInetAddresses()[0], dnsInfo.getPort(), info, dnsInfo.getName(), c);
 					}
+				} catch (TimeoutException e) {
+					LOG.error("scan", e);
 				}
+			});
+			final MDNSBrowser browser = new MDNSBrowser();
+			try {
+				if(jd != null) {
+					browser.browse(jd, found, SERVICE_TYPE1).get();
+				} else {
+					browser.browse(bjServices, found, SERVICE_TYPE1).get();
+				}
+				executor.shutdown();
+				executor.awaitTermination(60, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				executor.shutdownNow();
+			} catch (ExecutionException e) {
+				executor.shutdownNow();
+				LOG.error("scan", e);
 			}
 		} else {
 			scanByIP(c);
@@ -172,8 +179,13 @@ public class NonInteractiveDevices implements Closeable {
 		LOG.trace("Creating {}:{} - {}", address, port, hostName);
 		try {
 			ShellyAbstractDevice d = DevicesFactory.create(httpClient, /*wsClient*/null, address, port, info, hostName);
-			if(devices.contains(d) == false) {
-				devices.add(d);
+			final boolean added;
+			synchronized(devices) { // create(...) runs on scan threads
+				if(added = devices.contains(d) == false) {
+					devices.add(d);
+				}
+			}
+			if(added) {
 				consumer.accept(d);
 				LOG.debug("Create {}:{} - {}", address, port, d);
 
@@ -0,0 +1,185 @@
+package it.usna.shellyscan.model;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.websocket.api.Callback;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.server.WebSocketUpgradeHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import it.usna.shellyscan.model.device.g2.AbstractG2Device;
+import it.usna.shellyscan.model.device.g2.WebSocketDeviceListener;
+
+/**
+ * Web socket server gen2+ devices connect to when their "outbound websocket" (Ws.SetConfig) points to the scanner.
+ * Frames are routed to the device by "src" (device id); the connection is opened by the device, so no client
+ * session or polling is needed and it also works when devices are not directly reachable (NAT, VLANs).
+ * @author usna
+ */
+public class OutboundWsServer {
+	private final static Logger LOG = LoggerFactory.getLogger(OutboundWsServer.class);
+	public final static String PATH = "/shelly";
+	public final static int DEF_PORT = 8765;
+	private final static int GET_STATUS_ID = 3;
+	private final static String GET_STATUS_REQ = "{\"id\":" + GET_STATUS_ID + ", \"src\":\"S_Scanner\", \"method\":\"Shelly.GetStatus\"}";
+	private final Function<String, AbstractG2Device> lookup;
+	private final Consumer<AbstractG2Device> onUpdate;
+	private final Map<AbstractG2Device, Session> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+	private Server server;
+
+	/**
+	 * @param lookup device id -> device (null if not in the model)
+	 * @param onUpdate called (on a server thread) whenever a notification changed the device status
+	 */
+	public OutboundWsServer(Function<String, AbstractG2Device> lookup, Consumer<AbstractG2Device> onUpdate) {
+		this.lookup = lookup;
+		this.onUpdate = onUpdate;
+	}
+
+	/**
+	 * Start listening on port (restart if already running on a different port)
+	 */
+	public synchronized void start(int port) throws Exception {
+		if(server != null) {
+			if(getPort() == port) {
+				return;
+			}
+			stop();
+		}
+		final Server srv = new Server();
+		final ServerConnector connector = new ServerConnector(srv);
+		connector.setPort(port);
+		srv.addConnector(connector);
+		srv.setHandler(WebSocketUpgradeHandler.from(srv, container -> {
+			container.setIdleTimeout(Duration.ofMinutes(10)); // kept alive by ping(...)
+			container.addMapping(PATH, (request, response, callback) -> new DeviceEndpoint());
+		}));
+		srv.start();
+		server = srv;
+		LOG.info("Outbound web socket server on port {}", port);
+	}
+
+	public synchronized void stop() {
+		if(server != null) {
+			try {
+				server.stop();
+			} catch (Exception e) {
+				LOG.error("Outbound web socket server stop", e);
+			}
+			server = null;
+			sessions.clear();
+		}
+	}
+
+	/**
+	 * @return the listening port; -1 if not running
+	 */
+	public synchronized int getPort() {
+		return server == null ? -1 : ((ServerConnector)server.getConnectors()[0]).getLocalPort();
+	}
+
+	/**
+	 * @return the url a device should connect to (address of the local interface used to reach the device)
+	 */
+	public static String serverURL(InetAddress device, int port) throws IOException {
+		try (DatagramSocket s = new DatagramSocket()) {
+			s.connect(new InetSocketAddress(device, 9)); // no packet is sent; selects the local address
+			return "ws://" + s.getLocalAddress().getHostAddress() + ":" + port + PATH;
+		}
+	}
+
+	/**
+	 * @return true if the device is currently connected
+	 */
+	public boolean isActive(Object d) {
+		final Session s = sessions.get(d);
+		return s != null && s.isOpen();
+	}
+
+	/**
+	 * Keep the session alive (device only sends notifications on status change)
+	 */
+	public void ping(Object d) {
+		final Session s = sessions.get(d);
+		if(s != null && s.isOpen()) {
+			s.sendPing(ByteBuffer.allocate(0), Callback.NOOP);
+		}
+	}
+
+	private class DeviceEndpoint extends WebSocketDeviceListener {
+		private Session session;
+		private AbstractG2Device device; // bound on the first frame from a known device
+
+		@Override
+		public void onWebSocketOpen(Session session) {
+			super.onWebSocketOpen(session);
+			this.session = session;
+		}
+
+		@Override
+		public void onMessage(JsonNode msg) {
+			try {
+				if(device == null) {
+					final String src = msg.path("src").asText("");
+					if((device = lookup.apply(src)) == null) { // not (yet) discovered
+						LOG.trace("ws-server unknown device: {}", src);
+						return;
+					}
+					sessions.put(device, session);
+					session.sendText(GET_STATUS_REQ, Callback.NOOP); // NotifyStatus frames are deltas: read the complete status
+					LOG.debug("ws-server connected: {} from {}", device, session.getRemoteSocketAddress());
+				}
+				if(msg.has("method") == false) { // response
+					JsonNode result;
+					if(msg.path("id").asInt() != GET_STATUS_ID || (result = msg.get("result")) == null) {
+						return;
+					}
+					ObjectNode full = JsonNodeFactory.instance.objectNode();
+					full.put("method", NOTIFY_FULL_STATUS);
+					full.set("params", result);
+					msg = full;
+				}
+				if(device.applyStatusNotification(msg)) {
+					onUpdate.accept(device);
+				}
+			} catch (IOException | RuntimeException e) {
+				LOG.debug("ws-server message: {}", device, e);
+			}
+		}
+
+		@Override
+		public void onWebSocketClose(int statusCode, String reason) {
+			super.onWebSocketClose(statusCode, reason);
+			sessionEnded();
+		}
+
+		@Override
+		public void onWebSocketError(Throwable cause) {
+			super.onWebSocketError(cause);
+			sessionEnded();
+		}
+
+		private void sessionEnded() {
+			if(device != null) {
+				sessions.remove(device, session); // back to polling
+			}
+		}
+	}
+}
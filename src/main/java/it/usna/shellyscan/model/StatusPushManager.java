@@ -0,0 +1,178 @@
+package it.usna.shellyscan.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import it.usna.shellyscan.model.device.g2.AbstractG2Device;
+import it.usna.shellyscan.model.device.g2.WebSocketDeviceListener;
+import it.usna.shellyscan.model.device.g2.WebSocketHub;
+
+/**
+ * Keep one "/rpc" web socket subscription (session shared with other views - see WebSocketHub) for each (gen2+)
+ * device in order to receive NotifyStatus / NotifyFullStatus notifications instead of polling Shelly.GetStatus.
+ * When a session is closed the device returns to standard (http) polling.
+ * @author usna
+ */
+public class StatusPushManager {
+	private final static Logger LOG = LoggerFactory.getLogger(StatusPushManager.class);
+	private final static int GET_STATUS_ID = 3;
+	private final static String GET_STATUS_REQ = "{\"id\":" + GET_STATUS_ID + ", \"src\":\"S_Scanner\", \"method\":\"Shelly.GetStatus\"}";
+	private final Map<AbstractG2Device, WebSocketHub.Subscription> sessions = Collections.synchronizedMap(new IdentityHashMap<>());
+	private final Set<AbstractG2Device> connecting = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+	private final Consumer<AbstractG2Device> onUpdate;
+
+	/**
+	 * @param onUpdate called (on the web socket thread) whenever a notification changed the device status
+	 */
+	public StatusPushManager(Consumer<AbstractG2Device> onUpdate) {
+		this.onUpdate = onUpdate;
+	}
+
+	/**
+	 * Open the web socket session if not already active; a Shelly.GetStatus request is sent on the new
+	 * session so that subsequent NotifyStatus deltas can be merged on a complete status
+	 */
+	public void connect(AbstractG2Device d) {
+		if(sessions.containsKey(d)) {
+			return;
+		}
+		final StatusListener listener = new StatusListener(d);
+		try {
+			WebSocketHub.Subscription subscription = d.subscribeWebSocket(listener);
+			listener.subscription = subscription;
+			sessions.put(d, subscription);
+			subscription.sendText(GET_STATUS_REQ);
+			LOG.trace("ws-push connected: {}", d);
+		} catch (IOException | ExecutionException | RuntimeException e) {
+			LOG.debug("ws-push connect: {}", d, e);
+			disconnect(d);
+		} catch (InterruptedException e) {
+			disconnect(d);
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Non blocking connect(d): the session is opened on executor; nothing is done if a connection is already in progress
+	 */
+	public void connect(AbstractG2Device d, Executor executor) {
+		if(sessions.containsKey(d) || connecting.add(d) == false) {
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					connect(d);
+				} finally {
+					connecting.remove(d);
+				}
+			});
+		} catch(RejectedExecutionException e) {
+			connecting.remove(d);
+		}
+	}
+
+	/**
+	 * @return true if status notifications are currently received for this device
+	 */
+	public boolean isActive(Object d) {
+		WebSocketHub.Subscription subscription = sessions.get(d);
+		return subscription != null && subscription.isOpen();
+	}
+
+	/**
+	 * Keep the session alive (device only sends notifications on status change)
+	 */
+	public void ping(Object d) {
+		WebSocketHub.Subscription subscription = sessions.get(d);
+		if(subscription != null) {
+			subscription.ping();
+		}
+	}
+
+	public void disconnect(Object d) {
+		WebSocketHub.Subscription subscription = sessions.remove(d);
+		if(subscription != null) {
+			subscription.close();
+		}
+	}
+
+	public void disconnectAll() {
+		final List<WebSocketHub.Subscription> list;
+		synchronized(sessions) {
+			list = new ArrayList<>(sessions.values());
+			sessions.clear();
+		}
+		list.forEach(WebSocketHub.Subscription::close);
+	}
+
+	private class StatusListener extends WebSocketDeviceListener {
+		private final AbstractG2Device device;
+		private WebSocketHub.Subscription subscription;
+
+		private StatusListener(AbstractG2Device device) {
+			super(msg -> {
+				String method = msg.path("method").asText();
+				return method.equals(NOTIFY_STATUS) || method.equals(NOTIFY_FULL_STATUS) || msg.path("id").asInt() == GET_STATUS_ID;
+			});
+			this.device = device;
+		}
+
+		@Override
+		public void onMessage(JsonNode msg) {
+			try {
+				if(msg.has("method") == false) { // Shelly.GetStatus response
+					JsonNode result = msg.get("result");
+					if(result == null) { // e.g. 401 on protected devices -> polling
+						LOG.debug("ws-push GetStatus {}: {}", device, msg.path("error"));
+						disconnect(device);
+						return;
+					}
+					ObjectNode full = JsonNodeFactory.instance.objectNode();
+					full.put("method", NOTIFY_FULL_STATUS);
+					full.set("params", result);
+					msg = full;
+				}
+				if(device.applyStatusNotification(msg)) {
+					onUpdate.accept(device);
+				}
+			} catch (IOException | RuntimeException e) {
+				LOG.debug("ws-push message: {}", device, e);
+			}
+		}
+
+		@Override
+		public void onWebSocketClose(int statusCode, String reason) {
+			super.onWebSocketClose(statusCode, reason);
+			sessionEnded();
+		}
+
+		@Override
+		public void onWebSocketError(Throwable cause) {
+			super.onWebSocketError(cause);
+			sessionEnded();
+		}
+
+		private void sessionEnded() {
+			if(subscription != null) {
+				sessions.remove(device, subscription); // back to polling
+			}
+		}
+	}
+}
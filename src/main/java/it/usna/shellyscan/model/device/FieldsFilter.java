@@ -0,0 +1,75 @@
+package it.usna.shellyscan.model.device;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+/**
+ * Streaming filter selecting the fields a device actually reads (e.g. in fillStatus);
+ * any other value is skipped by the parser and no node is created for it.<br>
+ * Paths are "/" separated (e.g. "temperature:0/tC"); a path includes the whole value.
+ * A "type:*" key matches any gen2+ component of that type (e.g. key "switch:*", sub path "output" -> "switch:0/output", "switch:1/output");
+ * an exact key (e.g. "switch:0") takes precedence. Array elements are filtered by the filter of the array (e.g. "meters/power").
+ * @author usna
+ */
+public class FieldsFilter extends TokenFilter {
+	private final Map<String, FieldsFilter> fields = new HashMap<>(); // null value -> whole value included
+
+	private FieldsFilter() {}
+
+	public static FieldsFilter of(String ...paths) {
+		return new FieldsFilter().add(paths);
+	}
+
+	/**
+	 * @return a new filter including this filter fields and paths
+	 */
+	public FieldsFilter with(String ...paths) {
+		return copy().add(paths);
+	}
+
+	private FieldsFilter add(String ...paths) {
+		for(String path: paths) {
+			FieldsFilter node = this;
+			final String[] keys = path.split("/");
+			for(int i = 0; i < keys.length - 1 && node != null; i++) {
+				if(node.fields.containsKey(keys[i])) {
+					node = node.fields.get(keys[i]); // null: already fully included
+				} else {
+					FieldsFilter sub = new FieldsFilter();
+					node.fields.put(keys[i], sub);
+					node = sub;
+				}
+			}
+			if(node != null) {
+				node.fields.put(keys[keys.length - 1], null);
+			}
+		}
+		return this;
+	}
+
+	private FieldsFilter copy() {
+		FieldsFilter c = new FieldsFilter();
+		fields.forEach((k, v) -> c.fields.put(k, v == null ? null : v.copy()));
+		return c;
+	}
+
+	@Override
+	public TokenFilter includeProperty(String name) {
+		String key = name;
+		if(fields.containsKey(key) == false) {
+			final int typeEnd = name.indexOf(':');
+			if(typeEnd < 0 || fields.containsKey(key = name.substring(0, typeEnd + 1) + "*") == false) {
+				return null;
+			}
+		}
+		final FieldsFilter sub = fields.get(key);
+		return sub == null ? TokenFilter.INCLUDE_ALL : sub;
+	}
+
+	@Override
+	public String toString() {
+		return fields.toString();
+	}
+}
@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,6 +95,11 @@ public class GhostDevice extends ShellyAbstractDevice {
 	public JsonNode getJSON(final String command) throws DeviceOfflineException {
 		throw new DeviceOfflineException("Status-GHOST");
 	}
+	
+	@Override
+	public CompletableFuture<JsonNode> getJSONAsync(final String command) {
+		return CompletableFuture.failedFuture(new DeviceOfflineException("Status-GHOST"));
+	}
 
 	@Override
 	public String[] getInfoRequests() {
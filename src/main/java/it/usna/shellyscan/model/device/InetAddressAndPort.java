@@ -52,6 +52,11 @@ public class InetAddressAndPort implements Comparable<InetAddressAndPort> {
 		return o2 != null && getClass() == o2.getClass() && address.equals(((InetAddressAndPort)o2).address) && port == ((InetAddressAndPort)o2).port;
 	}
 	
+	@Override
+	public int hashCode() {
+		return 31 * address.hashCode() + port;
+	}
+	
 	// valid for subclasses
 	public boolean equivalent(InetAddressAndPort o2) {
 		return address.equals(o2.address) && port == o2.port;
@@ -0,0 +1,283 @@
+package it.usna.shellyscan.model.device;
+
+import java.awt.EventQueue;
+import java.net.InetAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per host limit of HTTP requests: at most maxInFlight requests at the same time and at least spacing ms between
+ * two request starts. One governor for each IP address, so that range extender ports and BLU devices
+ * (requests go to the gateway) share the limits of the physical device.<br>
+ * Waiting requests do not hold any thread: permits are granted as futures.<br>
+ * Requests are queued by lane (see Lane); a waiting request of a lane is always granted before any request of lower priority lanes.<br>
+ * Devices sharing an address could ask for different limits (e.g. a gen1 device behind a gen2+ range extender): the strictest apply.
+ * @author usna
+ */
+public class RequestGovernor {
+	private final static Logger LOG = LoggerFactory.getLogger(RequestGovernor.class);
+	private final static Map<InetAddress, RequestGovernor> GOVERNORS = new ConcurrentHashMap<>();
+	private final static ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "request-governor");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final static ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<>();
+	private final static EnumMap<Lane, LaneCounters> COUNTERS = new EnumMap<>(Lane.class);
+	static {
+		for(Lane lane: Lane.values()) {
+			COUNTERS.put(lane, new LaneCounters());
+		}
+	}
+
+	private Limits limits;
+	@SuppressWarnings("unchecked")
+	private final ArrayDeque<Waiter>[] waiting = new ArrayDeque[Lane.values().length]; // index: Lane.ordinal()
+	private int inFlight = 0;
+	private long nextStart = 0;
+	private boolean timerSet = false;
+
+	/**
+	 * @param maxInFlight maximum number of concurrent requests
+	 * @param spacing minimum time (ms) between two request starts
+	 */
+	public record Limits(int maxInFlight, long spacing) {
+		/**
+		 * @return limits satisfying both this and other
+		 */
+		public Limits strictest(Limits other) {
+			return new Limits(Math.min(maxInFlight, other.maxInFlight), Math.max(spacing, other.spacing));
+		}
+	}
+
+	/**
+	 * Request priority, highest first
+	 */
+	public enum Lane {
+		/** user commands (e.g. relay toggle); default for requests started on the event dispatch thread */
+		INTERACTIVE,
+		/** user opened dialogs; default for any other thread */
+		DIALOG,
+		/** multi device jobs (e.g. backup) */
+		BULK,
+		/** periodic refresh and discovery */
+		BACKGROUND
+	}
+
+	/**
+	 * @param depth requests currently waiting (all hosts)
+	 * @param granted requests granted since start
+	 * @param avgWait average wait (ms) before grant
+	 * @param maxWait maximum wait (ms) before grant
+	 */
+	public record LaneStats(int depth, long granted, double avgWait, long maxWait) {}
+
+	private record Waiter(CompletableFuture<Void> permit, Lane lane, long enqueued) {}
+
+	private static class LaneCounters {
+		private final AtomicInteger depth = new AtomicInteger();
+		private final AtomicLong granted = new AtomicLong();
+		private final AtomicLong totalWait = new AtomicLong();
+		private final AtomicLong maxWait = new AtomicLong();
+	}
+
+	private RequestGovernor(Limits limits) {
+		this.limits = limits;
+		for(int i = 0; i < waiting.length; i++) {
+			waiting[i] = new ArrayDeque<>();
+		}
+	}
+
+	/**
+	 * Set the lane of requests started by the current thread
+	 * @return the previous lane (null: default) to be restored with exitLane(...)
+	 */
+	public static Lane enterLane(Lane lane) {
+		final Lane prev = CURRENT_LANE.get();
+		CURRENT_LANE.set(lane);
+		return prev;
+	}
+
+	public static void exitLane(Lane previous) {
+		if(previous == null) {
+			CURRENT_LANE.remove();
+		} else {
+			CURRENT_LANE.set(previous);
+		}
+	}
+
+	/**
+	 * Start requests in lane whatever the thread (e.g. a continuation running on an http client thread);
+	 * the lane of the current thread is restored when start returns
+	 */
+	public static <T> T inLane(Lane lane, Supplier<T> start) {
+		final Lane prev = enterLane(lane);
+		try {
+			return start.get();
+		} finally {
+			exitLane(prev);
+		}
+	}
+
+	public static Lane currentLane() {
+		final Lane lane = CURRENT_LANE.get();
+		if(lane != null) {
+			return lane;
+		}
+		return EventQueue.isDispatchThread() ? Lane.INTERACTIVE : Lane.DIALOG;
+	}
+
+	public static LaneStats getStats(Lane lane) {
+		final LaneCounters c = COUNTERS.get(lane);
+		final long granted = c.granted.get();
+		return new LaneStats(c.depth.get(), granted, granted > 0 ? c.totalWait.get() / (double)granted : 0d, c.maxWait.get());
+	}
+
+	/**
+	 * @return requests of lane currently waiting for this host
+	 */
+	public synchronized int getQueueDepth(Lane lane) {
+		return waiting[lane.ordinal()].size();
+	}
+
+	/**
+	 * @return the governor of host; if the governor already exists with different limits the strictest are used from now on
+	 */
+	public static RequestGovernor of(InetAddress host, Limits limits) {
+		final RequestGovernor gov = GOVERNORS.computeIfAbsent(host, h -> new RequestGovernor(limits));
+		gov.restrict(host, limits);
+		return gov;
+	}
+
+	private synchronized void restrict(InetAddress host, Limits other) {
+		final Limits strictest = limits.strictest(other);
+		if(strictest.equals(limits) == false) {
+			LOG.debug("Request limits for {}: {} and {} -> {}", host, limits, other, strictest);
+			limits = strictest;
+		}
+	}
+
+	/**
+	 * acquire(currentLane())
+	 */
+	public CompletableFuture<Void> acquire() {
+		return acquire(currentLane());
+	}
+
+	/**
+	 * @return a future completed when the request can start; the caller must call release() when the request ends.
+	 * Cancelling a not yet completed permit removes it from the queue
+	 */
+	public CompletableFuture<Void> acquire(Lane lane) {
+		final CompletableFuture<Void> permit = new CompletableFuture<>();
+		final Waiter waiter = new Waiter(permit, lane, System.currentTimeMillis());
+		synchronized(this) {
+			waiting[lane.ordinal()].add(waiter);
+			COUNTERS.get(lane).depth.incrementAndGet();
+		}
+		permit.whenComplete((v, e) -> {
+			if(e instanceof CancellationException) {
+				cancelled(waiter);
+			}
+		});
+		dispatch();
+		return permit;
+	}
+
+	// a cancelled waiter leaves the queue at once: it must not count in queue depth
+	private synchronized void cancelled(Waiter waiter) {
+		if(waiting[waiter.lane.ordinal()].remove(waiter)) {
+			COUNTERS.get(waiter.lane).depth.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Blocking version of acquire()
+	 */
+	public void acquireBlocking() throws InterruptedException {
+		final CompletableFuture<Void> permit = acquire();
+		try {
+			permit.get();
+		} catch(InterruptedException e) {
+			if(permit.cancel(true) == false) { // granted meanwhile
+				release();
+			}
+			throw e;
+		} catch(ExecutionException e) {} // never
+	}
+
+	public void release() {
+		synchronized(this) {
+			inFlight--;
+		}
+		dispatch();
+	}
+
+	private void dispatch() {
+		final List<CompletableFuture<Void>> granted = new ArrayList<>();
+		synchronized(this) {
+			Waiter next;
+			while(inFlight < limits.maxInFlight && (next = peek()) != null) {
+				final LaneCounters c = COUNTERS.get(next.lane);
+				if(next.permit.isDone()) { // cancelled
+					waiting[next.lane.ordinal()].poll();
+					c.depth.decrementAndGet();
+					continue;
+				}
+				final long now = System.currentTimeMillis();
+				if(now < nextStart) {
+					if(timerSet == false) {
+						timerSet = true;
+						TIMER.schedule(() -> {
+							synchronized(RequestGovernor.this) {
+								timerSet = false;
+							}
+							dispatch();
+						}, nextStart - now, TimeUnit.MILLISECONDS);
+					}
+					break;
+				}
+				waiting[next.lane.ordinal()].poll();
+				c.depth.decrementAndGet();
+				inFlight++;
+				nextStart = now + limits.spacing;
+				granted.add(next.permit);
+				final long wait = now - next.enqueued;
+				c.granted.incrementAndGet();
+				c.totalWait.addAndGet(wait);
+				c.maxWait.accumulateAndGet(wait, Math::max);
+			}
+		}
+		for(CompletableFuture<Void> permit: granted) { // complete outside the lock: dependent stages can start new requests
+			if(permit.complete(null) == false) { // cancelled meanwhile
+				release();
+			}
+		}
+	}
+
+	private Waiter peek() {
+		for(ArrayDeque<Waiter> queue: waiting) {
+			if(queue.isEmpty() == false) {
+				return queue.peek();
+			}
+		}
+		return null;
+	}
+}
@@ -4,22 +4,35 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.net.Inet6Address;
 import java.net.InetAddress;
-import java.net.SocketTimeoutException;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+import org.eclipse.jetty.client.CompletableResponseListener;
 import org.eclipse.jetty.client.ContentResponse;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter.Inclusion;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -54,10 +67,27 @@ public abstract class ShellyAbstractDevice {
 	protected Status status;
 	protected boolean rebootRequired = false;
 	protected long lastConnection = 0;
+	private Map<String, JsonNode> initResponses; // GET responses read on init (discovery cache)
+	private volatile boolean initRecording;
+	private volatile boolean initReplay;
+	private volatile RequestGovernor governor;
+	private final Map<RequestKey, SharedRequest> sharedRequests = new HashMap<>();
+	private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>(); // command -> last full response (see isSnapshotCommand(...))
+	private final static Set<String> SNAPSHOT_COMMANDS = Set.of("/shelly", "/status", "/settings");
+	/** a snapshot older than this (ms) is never used, whatever isSnapshotValid(...) says */
+	private final static long SNAPSHOT_MAX_AGE = 10 * 60_000;
+	private static Executor fillExecutor = ForkJoinPool.commonPool();
+	/** suggested maxAge (ms) for dialogs reading data the refresh process could have just read */
+	public final static long RECENT_RESPONSE_AGE = 3000;
+	/** suggested maxAge (ms) for configuration reads (configuration is also refreshed by the refresh process) */
+	public final static long SETTINGS_SNAPSHOT_AGE = 30_000;
 
 	protected final String uriPrefix;
 	protected final ObjectMapper jsonMapper = new ObjectMapper();
 	
+	private final static RequestGovernor.Limits DEFAULT_LIMITS = new RequestGovernor.Limits(2, Devices.MULTI_QUERY_DELAY / 2);
+	private final static RequestGovernor.Limits BATTERY_LIMITS = new RequestGovernor.Limits(1, Devices.MULTI_QUERY_DELAY / 2);
+	
 	public enum Status {ON_LINE, OFF_LINE, NOT_LOOGGED, READING, ERROR, GHOST}; // GHOST not yet detected (in store)
 	public enum LogMode {NONE, FILE, MQTT, SOCKET, UDP, UNDEFINED};
 
@@ -94,25 +124,226 @@ public abstract class ShellyAbstractDevice {
 	}
 	
 	public JsonNode getJSON(final String command) throws IOException { //JsonProcessingException extends IOException
-		ContentResponse response;
-		int statusCode;
-		try {
-			response = httpClient.GET(uriPrefix + command);
-			statusCode = response.getStatus();
-			if(statusCode == HttpStatus.OK_200) {
-				status = Status.ON_LINE;
-				return jsonMapper.readTree(response.getContent());
+		return waitFor(getJSONAsync(command));
+	}
+	
+	/**
+	 * @param maxAge ms; a response to the same command received less than maxAge ms ago is returned without querying the device
+	 */
+	public JsonNode getJSON(final String command, long maxAge) throws IOException {
+		return waitFor(getJSONAsync(command, null, maxAge));
+	}
+	
+	/**
+	 * Non blocking version of getJSON(command); the returned future completes exceptionally with the
+	 * same exceptions getJSON(command) would throw. Cancelling the future aborts the request.
+	 */
+	public CompletableFuture<JsonNode> getJSONAsync(final String command) {
+		return getJSONAsync(command, null);
+	}
+	
+	/**
+	 * @param fieldsFilter if not null only selected fields are parsed (streaming) into the returned tree
+	 */
+	public CompletableFuture<JsonNode> getJSONAsync(final String command, final FieldsFilter fieldsFilter) {
+		return getJSONAsync(command, fieldsFilter, 0);
+	}
+	
+	/**
+	 * Concurrent identical read-only requests (same command and filter - see isReadOnly(...)) share one request to the device;
+	 * each caller gets its own tree.
+	 * @param fieldsFilter if not null only selected fields are parsed (streaming) into the returned tree
+	 * @param maxAge ms; if &gt; 0 and fieldsFilter == null a valid snapshot (see isSnapshotCommand(...), isSnapshotValid(...))
+	 * of the same command is returned without querying the device
+	 */
+	public CompletableFuture<JsonNode> getJSONAsync(final String command, final FieldsFilter fieldsFilter, long maxAge) {
+		return getJSONAsync(command, fieldsFilter, maxAge, RequestGovernor.currentLane());
+	}
+	
+	/**
+	 * @param lane priority of the request (see RequestGovernor); a request shared with a previous caller keeps the lane of the first caller
+	 * @see #getJSONAsync(String, FieldsFilter, long)
+	 */
+	public CompletableFuture<JsonNode> getJSONAsync(final String command, final FieldsFilter fieldsFilter, long maxAge, RequestGovernor.Lane lane) {
+		JsonNode cached;
+		if(initReplay && (cached = initResponses.get(command)) != null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		if(isReadOnly(command) == false) { // commands are never shared
+			invalidateRecentResponses();
+			return requestJSON(command, fieldsFilter, lane);
+		} else if(maxAge > 0 && fieldsFilter == null) {
+			final Snapshot snap = snapshots.get(command);
+			if(snap != null && System.currentTimeMillis() - snap.time <= SNAPSHOT_MAX_AGE && isSnapshotValid(command, snap, maxAge)) {
+				return CompletableFuture.completedFuture(snap.node.deepCopy());
 			}
-		} catch(InterruptedException | ExecutionException | TimeoutException | SocketTimeoutException e) {
-			status = Status.OFF_LINE;
-			throw new DeviceOfflineException(e);
-		} catch (IOException | RuntimeException e) {
-//			if(status == Status.ON_LINE || status == Status.READING) {
-				status = Status.ERROR;
-//			}
-			throw e;
 		}
-		if(statusCode == HttpStatus.UNAUTHORIZED_401) {
+		final RequestKey key = new RequestKey(command, fieldsFilter);
+		synchronized(sharedRequests) {
+			SharedRequest shared = sharedRequests.get(key);
+			if(shared == null) {
+				shared = new SharedRequest(key, requestJSON(command, fieldsFilter, lane));
+				sharedRequests.put(key, shared);
+				shared.start();
+			}
+			return shared.consumer();
+		}
+	}
+	
+	private CompletableFuture<JsonNode> requestJSON(final String command, final FieldsFilter fieldsFilter, RequestGovernor.Lane lane) {
+		final int revision = snapshotRevision(); // before the request: a change while reading must invalidate the snapshot
+		final CompletableFuture<ContentResponse> response = governed(lane, () -> new CompletableResponseListener(httpClient.newRequest(uriPrefix + command)).send());
+		final CompletableFuture<JsonNode> result = response.handle((resp, failure) -> {
+			if(failure != null) {
+				status = Status.OFF_LINE;
+				throw new CompletionException(new DeviceOfflineException(failure));
+			}
+			try {
+				final JsonNode node = toJSON(resp, fieldsFilter);
+				if(initRecording) {
+					initResponses.put(command, node);
+				}
+				if(fieldsFilter == null && isSnapshotCommand(command)) {
+					snapshots.put(command, new Snapshot(node.deepCopy(), System.currentTimeMillis(), revision)); // callers could alter node
+				}
+				return node;
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+		propagateCancel(result, response);
+		return result;
+	}
+	
+	/**
+	 * @return true if command only reads data (its response can be reused, see getJSONAsync(command, fieldsFilter, maxAge));
+	 * default: no query string
+	 */
+	protected boolean isReadOnly(String command) {
+		return command.indexOf('?') < 0;
+	}
+	
+	/**
+	 * @return true if the full response to command (a read-only command) is kept as snapshot; default: /shelly, /status, /settings.
+	 * Responses read with a fields filter are partial and never kept: the status of devices refreshed with a filter
+	 * (see getStatusFilter()) is only available as snapshot when read without filter (e.g. by a dialog)
+	 */
+	protected boolean isSnapshotCommand(String command) {
+		return SNAPSHOT_COMMANDS.contains(command);
+	}
+	
+	/**
+	 * To be called by any command altering the device configuration or status
+	 */
+	protected void invalidateRecentResponses() {
+		snapshots.clear();
+	}
+	
+	/**
+	 * @return the last full response to command (a copy) or null; the snapshot could be out of date, see isSnapshotValid(...)
+	 */
+	public Snapshot getSnapshot(String command) {
+		final Snapshot snap = snapshots.get(command);
+		return snap == null ? null : new Snapshot(snap.node.deepCopy(), snap.time, snap.revision);
+	}
+	
+	/**
+	 * @return true if the snapshot can be used in place of a new request; default: snapshot not older than maxAge ms
+	 */
+	protected boolean isSnapshotValid(String command, Snapshot snapshot, long maxAge) {
+		return System.currentTimeMillis() - snapshot.time <= maxAge;
+	}
+	
+	/**
+	 * @return the device configuration revision a snapshot is taken at; -1 if not known (default)
+	 */
+	protected int snapshotRevision() {
+		return -1;
+	}
+	
+	private record RequestKey(String command, FieldsFilter filter) {}
+	
+	/**
+	 * Last full response to a read-only command
+	 * @param node response
+	 * @param time when the response has been received
+	 * @param revision device configuration revision when the request has been sent (see snapshotRevision()); -1 if unknown
+	 */
+	public record Snapshot(JsonNode node, long time, int revision) {}
+	
+	/**
+	 * One in-flight request and its callers; the request is aborted only when all callers cancelled.<br>
+	 * On completion the request is unregistered (no more callers can join) and the copies are made
+	 * before any caller gets its tree: a caller can alter its tree while the others are still reading theirs
+	 */
+	private class SharedRequest {
+		private final RequestKey key;
+		private final CompletableFuture<JsonNode> request;
+		private CompletableFuture<List<JsonNode>> trees; // one tree for each consumer
+		private int consumers = 0;
+		private int cancelled = 0;
+	
+		private SharedRequest(RequestKey key, CompletableFuture<JsonNode> request) {
+			this.key = key;
+			this.request = request;
+		}
+	
+		// called after the registration in sharedRequests (the request could be already completed)
+		private void start() {
+			trees = request.handle((n, e) -> {
+				synchronized(sharedRequests) {
+					sharedRequests.remove(key, this);
+				}
+				if(e != null) {
+					throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+				}
+				final List<JsonNode> list = new ArrayList<>();
+				list.add(n);
+				for(int i = consumerCount(); i > 1; i--) {
+					list.add(n.deepCopy());
+				}
+				return list;
+			});
+		}
+	
+		private synchronized CompletableFuture<JsonNode> consumer() {
+			final int index = consumers++;
+			final CompletableFuture<JsonNode> c = trees.thenApply(l -> l.get(index));
+			c.whenComplete((n, e) -> {
+				if(e instanceof CancellationException && allCancelled()) {
+					request.cancel(true); // outside the lock
+				}
+			});
+			return c;
+		}
+	
+		private synchronized int consumerCount() {
+			return consumers;
+		}
+	
+		private synchronized boolean allCancelled() {
+			return ++cancelled == consumers;
+		}
+	}
+	
+	private JsonNode toJSON(ContentResponse response, FieldsFilter fieldsFilter) throws IOException {
+		final int statusCode = response.getStatus();
+		if(statusCode == HttpStatus.OK_200) {
+			status = Status.ON_LINE;
+			try {
+				if(fieldsFilter == null) {
+					return jsonMapper.readTree(response.getContent());
+				}
+				// content is already buffered by the response listener: the filter only saves the nodes of skipped values
+				try(JsonParser parser = new FilteringParserDelegate(jsonMapper.createParser(response.getContent()), fieldsFilter, Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+					JsonNode node = jsonMapper.readTree(parser);
+					return node != null ? node : jsonMapper.createObjectNode();
+				}
+			} catch (IOException | RuntimeException e) {
+				status = Status.ERROR;
+				throw e;
+			}
+		} else if(statusCode == HttpStatus.UNAUTHORIZED_401) {
 			status = Status.NOT_LOOGGED;
 			throw new IOException("Status-" + HttpStatus.UNAUTHORIZED_401);
 		} else if(statusCode == HttpStatus.INTERNAL_SERVER_ERROR_500) {
@@ -133,7 +364,156 @@ public abstract class ShellyAbstractDevice {
 		}
 	}
 	
+	/**
+	 * Wait for an asynchronous request; exceptions are unwrapped so that blocking wrappers
+	 * keep the semantics of the original (blocking) calls
+	 */
+	protected <T> T waitFor(CompletableFuture<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			status = Status.OFF_LINE;
+			throw new DeviceOfflineException(e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if(cause instanceof IOException ioe) {
+				throw ioe;
+			} else if(cause instanceof RuntimeException re) {
+				throw re;
+			} else if(cause instanceof Error err) {
+				throw err;
+			} else {
+				throw new IOException(cause);
+			}
+		}
+	}
+	
+	/**
+	 * @return HTTP requests limits for this device type (see RequestGovernor)
+	 */
+	protected RequestGovernor.Limits requestLimits() {
+		return this instanceof BatteryDeviceInterface ? BATTERY_LIMITS : DEFAULT_LIMITS;
+	}
+	
+	protected RequestGovernor getGovernor() {
+		if(governor == null) {
+			governor = RequestGovernor.of(addressAndPort.getAddress(), requestLimits());
+		}
+		return governor;
+	}
+	
+	/**
+	 * governed(RequestGovernor.currentLane(), request)
+	 */
+	protected <T> CompletableFuture<T> governed(Supplier<CompletableFuture<T>> request) {
+		return governed(RequestGovernor.currentLane(), request);
+	}
+	
+	/**
+	 * Start the request when allowed by the device governor
+	 * @param lane request priority
+	 * @param request supplier of the (asynchronous) request; called once the permit is granted
+	 * @return a future completed as the request future; cancelling it removes the request from the queue or aborts it
+	 */
+	protected <T> CompletableFuture<T> governed(RequestGovernor.Lane lane, Supplier<CompletableFuture<T>> request) {
+		final RequestGovernor gov = getGovernor();
+		final CompletableFuture<Void> permit = gov.acquire(lane);
+		final CompletableFuture<T> result = new CompletableFuture<>();
+		permit.whenComplete((v, e) -> {
+			if(e != null) { // cancelled
+				result.completeExceptionally(e);
+				return;
+			}
+			if(result.isDone()) { // cancelled while waiting
+				gov.release();
+				return;
+			}
+			final CompletableFuture<T> req;
+			try {
+				req = request.get();
+			} catch(RuntimeException ex) {
+				gov.release();
+				result.completeExceptionally(ex);
+				return;
+			}
+			req.whenComplete((r, ex) -> {
+				gov.release();
+				if(ex != null) {
+					result.completeExceptionally(ex);
+				} else {
+					result.complete(r);
+				}
+			});
+			propagateCancel(result, req);
+		});
+		propagateCancel(result, permit);
+		return result;
+	}
+	
+	/**
+	 * Cancelling "dependent" also cancels (aborts) "source"
+	 */
+	protected static void propagateCancel(CompletableFuture<?> dependent, Future<?> source) {
+		dependent.whenComplete((v, e) -> {
+			if(e instanceof CancellationException) {
+				source.cancel(true);
+			}
+		});
+	}
+	
+	/**
+	 * @return fields read by fillStatus(...) or null (default) if the whole status is needed.
+	 * Gen2+ devices merge NotifyStatus deltas on the last polled status: with a filter the merged tree is partial too,
+	 * so the filter must cover every field fillStatus(...) reads
+	 */
+	protected FieldsFilter getStatusFilter() {
+		return null;
+	}
+	
+	@FunctionalInterface
+	protected interface JsonConsumer {
+		void accept(JsonNode node) throws IOException;
+	}
+	
+	/**
+	 * Executor for fills of asynchronous refreshes (see thenFill(...)); fills could make blocking requests
+	 * so it must not be the http client executor
+	 */
+	public static void setFillExecutor(Executor executor) {
+		fillExecutor = executor;
+	}
+	
+	/**
+	 * @param request asynchronous request (e.g. getJSONAsync("/status"))
+	 * @param fill consumer of the response (e.g. fillStatus); executed by the fill executor (see setFillExecutor(...));
+	 * requests started by fill keep the lane of the thread calling thenFill(...)
+	 */
+	protected CompletableFuture<Void> thenFill(CompletableFuture<JsonNode> request, JsonConsumer fill) {
+		final RequestGovernor.Lane lane = RequestGovernor.currentLane();
+		final CompletableFuture<Void> result = request.thenApplyAsync(node -> {
+			final RequestGovernor.Lane prevLane = RequestGovernor.enterLane(lane);
+			try {
+				fill.accept(node);
+				return null;
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			} finally {
+				RequestGovernor.exitLane(prevLane);
+			}
+		}, fillExecutor);
+		propagateCancel(result, request);
+		return result;
+	}
+	
 	public String httpGetAsString(final String command) throws IOException {
+		final RequestGovernor gov = getGovernor();
+		try {
+			gov.acquireBlocking();
+		} catch(InterruptedException e) {
+			status = Status.OFF_LINE;
+			throw new DeviceOfflineException(e);
+		}
 		try {
 			return httpClient.GET(uriPrefix + command).getContentAsString();
 		} catch(InterruptedException | ExecutionException | TimeoutException e) {
@@ -144,6 +524,8 @@ public abstract class ShellyAbstractDevice {
 				status = Status.ERROR;
 			}
 			throw e;
+		} finally {
+			gov.release();
 		}
 	}
 
@@ -221,6 +603,28 @@ public abstract class ShellyAbstractDevice {
 		status = s;
 	}
 	
+	/**
+	 * Discovery cache: from now on until endInit() GET responses are recorded or, if "cached" is not null,
+	 * requests found in "cached" are answered without querying the device
+	 */
+	public void beginInit(Map<String, JsonNode> cached) {
+		initReplay = cached != null;
+		initRecording = cached == null;
+		initResponses = (cached != null) ? cached : new ConcurrentHashMap<>();
+	}
+	
+	public void endInit() {
+		initRecording = false;
+		initReplay = false;
+	}
+	
+	/**
+	 * @return GET responses read on init (see beginInit(...)); null if not recorded
+	 */
+	public Map<String, JsonNode> getInitResponses() {
+		return initResponses;
+	}
+	
 	public Meters[] getMeters() {
 		return null;
 	}
@@ -241,6 +645,48 @@ public abstract class ShellyAbstractDevice {
 	
 	public abstract void refreshStatus() throws IOException;
 	
+	/**
+	 * @return false only if the device reports a configuration revision not changed since settings were last read;
+	 * devices not able to detect configuration changes always return true
+	 */
+	public boolean settingsChanged() {
+		return true;
+	}
+	
+	/**
+	 * Default implementation executes refreshSettings() on the fill executor
+	 */
+	public CompletableFuture<Void> refreshSettingsAsync() {
+		return runBlocking(this::refreshSettings);
+	}
+	
+	/**
+	 * Default implementation executes refreshStatus() on the fill executor
+	 */
+	public CompletableFuture<Void> refreshStatusAsync() {
+		return runBlocking(this::refreshStatus);
+	}
+	
+	@FunctionalInterface
+	protected interface BlockingCall {
+		void run() throws IOException;
+	}
+	
+	// requests started by call keep the lane of the calling thread
+	private static CompletableFuture<Void> runBlocking(BlockingCall call) {
+		final RequestGovernor.Lane lane = RequestGovernor.currentLane();
+		return CompletableFuture.runAsync(() -> {
+			final RequestGovernor.Lane prevLane = RequestGovernor.enterLane(lane);
+			try {
+				call.run();
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			} finally {
+				RequestGovernor.exitLane(prevLane);
+			}
+		}, fillExecutor);
+	}
+	
 	public abstract FirmwareManager getFWManager();
 	
 	public abstract WIFIManager getWIFIManager(WIFIManager.Network net) throws IOException;
@@ -295,7 +741,6 @@ public abstract class ShellyAbstractDevice {
 			JsonNode arrayNode = resp.path(arrayKey);
 			do {
 				if(offset > 0) {
-					TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 					JsonNode fragment = getJSON(req);
 					ArrayNode fragmentArrayNode = (ArrayNode)fragment.path(arrayKey);
 					((ArrayNode)arrayNode).addAll(fragmentArrayNode);
@@ -308,9 +753,6 @@ public abstract class ShellyAbstractDevice {
 			} while(tot > offset);
 			jsonMapper.writer().writeValue(writer, resp);
 			return resp;
-		} catch (InterruptedException e) {
-			LOG.debug("sectionToStream {}-{}", section, arrayKey, e);
-			throw new DeviceOfflineException(e);
 		}
 	}
 
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
@@ -20,6 +21,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import it.usna.shellyscan.model.device.DeviceAPIException;
 import it.usna.shellyscan.model.device.DeviceOfflineException;
+import it.usna.shellyscan.model.device.RequestGovernor;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice;
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 import it.usna.shellyscan.model.device.g2.PageIterator;
@@ -117,6 +119,35 @@ public abstract class AbstractBluDevice extends ShellyAbstractDevice {
 		return new PageIterator(this, method, arrayKey);
 	}
 	
+	/**
+	 * @return all dynamic components of the gateway, shared with the other BLU devices of the same gateway for the current refresh cycle
+	 */
+	protected List<JsonNode> gatewayComponents() throws IOException {
+		try {
+			final List<JsonNode> components = BluGateway.components(parent);
+			status = parent.getStatus();
+			return components;
+		} catch(DeviceOfflineException e) {
+			status = Status.OFF_LINE;
+			throw e;
+		}
+	}
+	
+	/**
+	 * Same rule as AbstractG2Device RPC methods: "Get..." and "List..." methods (e.g. "BTHomeDevice.GetStatus?id=200")
+	 */
+	@Override
+	protected boolean isReadOnly(String command) {
+		final int dot = command.indexOf('.');
+		return dot > 0 && (command.startsWith("Get", dot + 1) || command.startsWith("List", dot + 1));
+	}
+	
+	@Override
+	protected void invalidateRecentResponses() {
+		super.invalidateRecentResponses();
+		BluGateway.invalidate(parent);
+	}
+	
 	/**
 	 * return null if ok or error description in case of error; cannot use parent.postCommand becouse of the status
 	 */
@@ -146,6 +177,16 @@ public abstract class AbstractBluDevice extends ShellyAbstractDevice {
 	}
 
 	private JsonNode executeRPC(final String method, String payload) throws IOException, StreamReadException { // StreamReadException extends ... IOException
+		if(isReadOnly(method) == false) { // do not discard the gateway components listing shared with other BLU devices
+			invalidateRecentResponses();
+		}
+		final RequestGovernor gov = getGovernor();
+		try {
+			gov.acquireBlocking();
+		} catch(InterruptedException e) {
+			status = Status.OFF_LINE;
+			throw new DeviceOfflineException(e);
+		}
 		try {
 			ContentResponse response = httpClient.POST(uriPrefix + "/rpc")
 					.body(new StringRequestContent("application/json", "{\"id\":1,\"method\":\"" + method + "\",\"params\":" + payload + "}", StandardCharsets.UTF_8))
@@ -163,6 +204,8 @@ public abstract class AbstractBluDevice extends ShellyAbstractDevice {
 		} catch(InterruptedException | ExecutionException | TimeoutException | SocketTimeoutException e) {
 			status = Status.OFF_LINE;
 			throw new DeviceOfflineException(e);
+		} finally {
+			gov.release();
 		}
 	}
 
@@ -12,7 +12,6 @@ import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -89,7 +88,6 @@ public class BTHomeDevice extends AbstractBluDevice implements ModulesHolder {
 		hostname = "B" + sensors.getFullID() + "-" + mac;
 //		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 //		refreshStatus();
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		refreshSettings();
 	}
 	
@@ -97,14 +95,11 @@ public class BTHomeDevice extends AbstractBluDevice implements ModulesHolder {
 		this.sensors = new SensorsCollection(this);
 		this.meters = sensors.getTypes().length > 0 ? new Meters[] {sensors} : null;
 		
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		refreshStatus(); // init status for this.sensors
 		
 		ArrayList<DeviceModule> tmpModules = sensors.getModuleSensors();
 		List<InputActionInterface> tmpInputs = tmpModules.stream().filter(m -> m instanceof InputActionInterface).map(InputActionInterface.class::cast).collect(Collectors.toList());
 		
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
-		
 		// device inputs
 		webhooks.fillBTHomesensorSettings();
 		List<Webhook> devActions = webhooks.getHooksList(DynamicComponents.BTHOME_DEVICE + componentIndex);
@@ -150,13 +145,14 @@ public class BTHomeDevice extends AbstractBluDevice implements ModulesHolder {
 		return modules;
 	}
 	
+	/**
+	 * Gateway components are read once per refresh cycle for all BLU devices (see BluGateway)
+	 */
 	@Override
 	public void refreshStatus() throws IOException {
-		Iterator<JsonNode> componentsIt = getJSONIterator("/rpc/Shelly.GetComponents?dynamic_only=true", "components");
 		String compKey;
 		boolean devExists = false;
-		while(componentsIt.hasNext()) {
-			JsonNode comp = componentsIt.next();
+		for(JsonNode comp: gatewayComponents()) {
 			if(devExists == false && comp.path("key").textValue().equals(DEVICE_KEY_PREFIX + componentIndex)) { // devExists == false for efficiency
 				fillSettings(comp.path("config"));
 				fillStatus(comp.path("status"));
@@ -227,10 +223,7 @@ public class BTHomeDevice extends AbstractBluDevice implements ModulesHolder {
 			jsonMapper.writer().writeValue(writer, usnaData);
 
 			sectionToStream("/rpc/Shelly.GetComponents?dynamic_only=true", "components", "Shelly.GetComponents.json", fs); // "status" is used for groups
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/rpc/Webhook.List", "Webhook.List.json", fs);
-		} catch(InterruptedException e) {
-			LOG.error("backup", e);
 		}
 		return true;
 	}
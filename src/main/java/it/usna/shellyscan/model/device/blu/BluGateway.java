@@ -0,0 +1,79 @@
+package it.usna.shellyscan.model.device.blu;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import it.usna.shellyscan.model.device.g2.AbstractG2Device;
+import it.usna.shellyscan.model.device.g2.PageIterator;
+
+/**
+ * Dynamic components (config and status) of a gateway, read once per refresh cycle and shared by all its BLU devices:
+ * the first BLU device refreshing reads all "/rpc/Shelly.GetComponents?dynamic_only=true" pages, the others
+ * (same gateway, same cycle) use the same listing. A failed reading is also shared for the cycle.
+ * @author usna
+ */
+public class BluGateway {
+	private final static Map<AbstractG2Device, BluGateway> GATEWAYS = Collections.synchronizedMap(new WeakHashMap<>());
+	private static volatile long cycle = 1000; // ms
+	private List<JsonNode> components;
+	private IOException error;
+	private long time;
+
+	private BluGateway() {}
+
+	/**
+	 * @param refreshInterval device refresh interval (ms); a listing is reused for half this time
+	 */
+	public static void setRefreshInterval(int refreshInterval) {
+		cycle = refreshInterval / 2;
+	}
+
+	/**
+	 * @return all dynamic components of parent (do not modify)
+	 */
+	static List<JsonNode> components(AbstractG2Device parent) throws IOException {
+		return GATEWAYS.computeIfAbsent(parent, p -> new BluGateway()).read(parent);
+	}
+
+	/**
+	 * To be called after any command changing the gateway components
+	 */
+	static void invalidate(AbstractG2Device parent) {
+		final BluGateway gw = GATEWAYS.get(parent);
+		if(gw != null) {
+			synchronized(gw) {
+				gw.time = 0;
+			}
+		}
+	}
+
+	// synchronized: BLU devices of this gateway refreshing meanwhile wait for this reading
+	private synchronized List<JsonNode> read(AbstractG2Device parent) throws IOException {
+		if(System.currentTimeMillis() - time > cycle) {
+			try {
+				final List<JsonNode> list = new ArrayList<>();
+				final Iterator<JsonNode> it = new PageIterator(parent, "/rpc/Shelly.GetComponents?dynamic_only=true", "components");
+				while(it.hasNext()) {
+					list.add(it.next());
+				}
+				components = Collections.unmodifiableList(list);
+				error = null;
+			} catch(IOException e) {
+				components = null;
+				error = e;
+			}
+			time = System.currentTimeMillis();
+		}
+		if(error != null) {
+			throw error;
+		}
+		return components;
+	}
+}
@@ -52,6 +52,11 @@ public class BluInetAddressAndPort extends InetAddressAndPort {
 		return o2 != null && getClass() == o2.getClass() && address.equals(((BluInetAddressAndPort)o2).address) && port == ((BluInetAddressAndPort)o2).port && index == ((BluInetAddressAndPort)o2).index;
 	}
 	
+	@Override
+	public int hashCode() {
+		return 31 * super.hashCode() + index;
+	}
+	
 	@Override
 	public String toString() {
 		if(port == 80) {
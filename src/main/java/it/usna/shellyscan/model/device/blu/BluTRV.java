@@ -47,6 +47,9 @@ public class BluTRV extends AbstractBluDevice implements ThermostatInterface, Mo
 	private Meters[] meters;
 	private ThermostatInterface[] thermostats = new ThermostatInterface[] {this};
 	private boolean tempChanged = false;
+	private long remoteStatusTime = 0; // last remote status reading (ms)
+	private long remoteStatusUpdated = -1; // last_updated_ts at last remote status reading
+	private final static long REMOTE_STATUS_MAX_AGE = 60_000;
 	
 	public BluTRV(AbstractG2Device parent, JsonNode compInfo, String index) {
 		super(parent, compInfo, index);
@@ -72,7 +75,6 @@ public class BluTRV extends AbstractBluDevice implements ThermostatInterface, Mo
 	@Override
 	public void init(HttpClient httpClient/*, WebSocketClient wsClient*/) throws IOException {
 		super.init(httpClient);
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		this.hostname = getJSON("/rpc/BluTrv.GetRemoteDeviceInfo?id=" + componentIndex).get("device_info").get("id").asText();
 	}
 
@@ -96,20 +98,39 @@ public class BluTRV extends AbstractBluDevice implements ThermostatInterface, Mo
 		JsonNode settings = getJSON("/rpc/BluTrv.GetConfig?id=" + componentIndex);
 		this.name = settings.get("name").asText("");
 		
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) { }
 		JsonNode remoteConfig = getJSON("/rpc/BluTrv.GetRemoteConfig?id=" + componentIndex).get("config");
 		this.enabled = remoteConfig.get("trv:0").get("enable").asBoolean();
 	}
 
+	/**
+	 * Local status comes from the gateway components listing shared with the other BLU devices (see BluGateway);
+	 * remote status is read only if the gateway received new data from the TRV (or every REMOTE_STATUS_MAX_AGE ms)
+	 */
 	@Override
 	public void refreshStatus() throws IOException {
-		JsonNode status = getJSON("/rpc/BluTrv.GetStatus?id=" + componentIndex);
+		JsonNode status = null;
+		final String key = DEVICE_KEY_PREFIX + componentIndex;
+		for(JsonNode comp: gatewayComponents()) {
+			if(key.equals(comp.path("key").textValue())) {
+				status = comp.get("status");
+				break;
+			}
+		}
+		if(status == null) {
+			status = getJSON("/rpc/BluTrv.GetStatus?id=" + componentIndex);
+		}
 		this.rssi = status.path("rssi").intValue();
-		this.lastConnection = status.path("last_updated_ts").intValue() * 1000L;
+		final long updated = status.path("last_updated_ts").longValue();
+		this.lastConnection = updated * 1000L;
 		this.battery = status.path("battery").intValue();
 		
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) { }
+		final long now = System.currentTimeMillis();
+		if(updated == remoteStatusUpdated && tempChanged == false && now - remoteStatusTime < REMOTE_STATUS_MAX_AGE) {
+			return;
+		}
 		JsonNode remoteStatus = getJSON("/rpc/BluTrv.GetRemoteStatus?id=" + componentIndex).get("status");
+		remoteStatusUpdated = updated;
+		remoteStatusTime = now;
 		this.uptime = remoteStatus.get("sys").get("uptime").asInt();
 		JsonNode trv = remoteStatus.get("trv:0");
 		this.externalTemp = trv.get("current_C").floatValue();
@@ -122,6 +143,12 @@ public class BluTRV extends AbstractBluDevice implements ThermostatInterface, Mo
 		//http://192.168.1.29/rpc/BluTrv.Call?id=200&method="TRV.ListScheduleRules"&params={"id":0}
 	}
 	
+	@Override
+	protected void invalidateRecentResponses() {
+		super.invalidateRecentResponses();
+		remoteStatusTime = 0; // next refresh reads remote status
+	}
+	
 	// todo test
 	public String postTRVCommand(final String method, JsonNode payload) {	
 		ObjectNode out = JsonNodeFactory.instance.objectNode();
@@ -187,20 +214,13 @@ public class BluTRV extends AbstractBluDevice implements ThermostatInterface, Mo
 		Files.deleteIfExists(file);
 		try(FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + file.toUri()), Map.of("create", "true"))) {
 			sectionToStream("/rpc/BluTrv.GetRemoteDeviceInfo?id=" + componentIndex, "Shelly.GetRemoteDeviceInfo.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/rpc/BluTrv.GetRemoteConfig?id=" + componentIndex, "Shelly.GetRemoteConfig.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			JsonNode config = sectionToStream("/rpc/BluTrv.GetConfig?id=" + componentIndex, "Shelly.GetConfig.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/rpc/BluTrv.Call?id=" + componentIndex + "&method=%22TRV.ListScheduleRules%22&params=%7B%22id%22:0%7D", "TRV.ListScheduleRules.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/rpc/Webhook.List", "Webhook.List.json", fs);
 			String bthome = config.path("trv").asText();
 			String bhtIndex = bthome.substring(bthome.indexOf(':') + 1);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/rpc/BTHomeDevice.GetKnownObjects?id=" + bhtIndex, "BTHomeDevice.GetKnownObjects.json", fs);
-		} catch(InterruptedException e) {
-			LOG.error("backup", e);
 		}
 		return true;
 	}
@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import it.usna.shellyscan.model.device.BatteryDeviceInterface;
+import it.usna.shellyscan.model.device.FieldsFilter;
 
 public abstract class AbstractBatteryG1Device extends AbstractG1Device implements BatteryDeviceInterface {
 	private final static Logger LOG = LoggerFactory.getLogger(AbstractBatteryG1Device.class);
@@ -43,6 +44,14 @@ public abstract class AbstractBatteryG1Device extends AbstractG1Device implement
 		return bat;
 	}
 	
+	/**
+	 * null: the whole status is read; devices keep it as stored status (see getStoredJSON(...))
+	 */
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return null;
+	}
+	
 	@Override
 	public JsonNode getStoredJSON(final String command) {
 		if(command.equals("/shelly")) {
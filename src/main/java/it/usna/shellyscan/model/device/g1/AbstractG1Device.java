@@ -17,12 +17,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.eclipse.jetty.client.Authentication;
 import org.eclipse.jetty.client.AuthenticationStore;
+import org.eclipse.jetty.client.CompletableResponseListener;
 import org.eclipse.jetty.client.ContentResponse;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.http.HttpStatus;
@@ -34,6 +37,8 @@ import com.fasterxml.jackson.databind.node.NullNode;
 
 import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.BatteryDeviceInterface;
+import it.usna.shellyscan.model.device.FieldsFilter;
+import it.usna.shellyscan.model.device.RequestGovernor;
 import it.usna.shellyscan.model.device.RestoreMsg;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice;
 import it.usna.shellyscan.model.device.g1.modules.Actions;
@@ -57,6 +62,20 @@ import it.usna.shellyscan.model.device.modules.WIFIManager.Network;
 public abstract class AbstractG1Device extends ShellyAbstractDevice {
 	private final static Logger LOG = LoggerFactory.getLogger(AbstractG1Device.class);
 
+	/** fields read by AbstractG1Device.fillStatus(...); base for the filter of subclasses overriding getStatusFilter() */
+	protected final static FieldsFilter STATUS_FILTER = FieldsFilter.of("cloud", "wifi_sta", "uptime", "mqtt");
+	/** default filter: STATUS_FILTER plus the fields read by devices fillStatus(...); "meters"/"emeters" counters, "update", "ram_..."/"fs_..."
+	 * and other values are skipped */
+	protected final static FieldsFilter DEVICE_STATUS_FILTER = STATUS_FILTER.with(
+			"relays", "rollers", "lights", "inputs", "thermostats", "tmp", "temperature", "voltage", "ext_temperature", "ext_humidity", "ext_switch", "adcs",
+			"sensor", "bat", "lux", "hum", "flood",
+			"meters/power", "emeters/power", "emeters/reactive", "emeters/pf", "emeters/voltage", "emeters/current");
+	/** too many concurrent requests are dangerous (device reboot) */
+	private final static RequestGovernor.Limits G1_LIMITS = new RequestGovernor.Limits(1, Devices.MULTI_QUERY_DELAY);
+	private final static RequestGovernor.Limits G1_BATTERY_LIMITS = new RequestGovernor.Limits(1, Devices.MULTI_QUERY_DELAY / 2);
+	/** commands only reading data; any other command (e.g. /reboot, /ota) could change the device */
+	private final static Set<String> READ_ONLY_COMMANDS = Set.of("/shelly", "/status", "/settings", "/cit/d", "/cit/s");
+	
 	protected AbstractG1Device(InetAddress address, int port, String hostname) {
 		super(address, port, hostname);
 	}
@@ -71,9 +90,21 @@ public abstract class AbstractG1Device extends ShellyAbstractDevice {
 		JsonNode settings = getJSON("/settings");
 		this.hostname = settings.get("device").get("hostname").asText("");
 		fillSettings(settings);
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		fillStatus(getJSON("/status"));
 	}
+	
+	@Override
+	protected RequestGovernor.Limits requestLimits() {
+		return this instanceof BatteryDeviceInterface ? G1_BATTERY_LIMITS : G1_LIMITS;
+	}
+	
+	/**
+	 * Read-only: READ_ONLY_COMMANDS and "/settings/..." without query string
+	 */
+	@Override
+	protected boolean isReadOnly(String command) {
+		return command.indexOf('?') < 0 && (READ_ONLY_COMMANDS.contains(command) || command.startsWith("/settings/"));
+	}
 
 	public void setAuthenticationResult(Authentication.Result auth) {
 		AuthenticationStore store = httpClient.getAuthenticationStore();
@@ -110,41 +141,113 @@ public abstract class AbstractG1Device extends ShellyAbstractDevice {
 		lastConnection = System.currentTimeMillis();
 	}
 	
+	/**
+	 * Apply a CoIoT status message (see CoIoTListener); values not carried by CoIoT (e.g. wifi, cloud) are read by the next /status poll
+	 * @param sensors "G" array of [channel, sensor id, value] entries
+	 * @return true if any value has been mapped on this device
+	 */
+	public boolean fillCoIoT(JsonNode sensors) {
+		boolean mapped = false;
+		for(JsonNode s: sensors) {
+			mapped |= fillCoIoT(s.path(1).intValue(), s.path(2));
+		}
+		if(mapped) {
+			lastConnection = System.currentTimeMillis();
+		}
+		return mapped;
+	}
+	
+	/**
+	 * @param sensorId CoIoT v2 sensor id (e.g. 1101: relay 0 output; 2101: input 0; 4101: relay 0 power; 3104: device temperature)
+	 * @return true if the value has been mapped
+	 */
+	protected boolean fillCoIoT(int sensorId, JsonNode value) {
+		return false;
+	}
+	
+	/**
+	 * @param topic MQTT topic after "shellies/&lt;id&gt;/" (e.g. "relay/0/power")
+	 * @param sensorId CoIoT v2 sensor id usually published for the topic value (see MqttIngest)
+	 * @return the sensor id this device maps (see fillCoIoT(...)) for the topic value; default sensorId
+	 */
+	public int mqttSensorId(String topic, int sensorId) {
+		return sensorId;
+	}
+	
 	public String sendCommand(final String command) {
+		CompletableFuture<String> result = sendCommandAsync(command);
 		try {
-			ContentResponse response = httpClient.GET(uriPrefix + command);
-			int statusCode = response.getStatus();
-			if(statusCode == HttpStatus.OK_200) {
-				status = Status.ON_LINE;
-			} else if(statusCode == HttpStatus.UNAUTHORIZED_401) {
-				status = Status.NOT_LOOGGED;
-			} else /*if(statusCode == HttpStatus.INTERNAL_SERVER_ERROR_500)*/ {
-				status = Status.ERROR;
-			}
-			String ret = response.getContentAsString();
-			return (ret == null || ret.isEmpty() || ret/*.trim()*/.startsWith("{")) ? null : ret;
-		} catch(InterruptedException | TimeoutException e) {
+			return result.get();
+		} catch(InterruptedException e) {
+			result.cancel(true);
 			status = Status.OFF_LINE;
 			return "Status-OFFLINE";
-		} catch(ExecutionException | RuntimeException e) {
-			if(e.getCause() instanceof SocketTimeoutException || e.getCause() instanceof TimeoutException) {
-				status = Status.OFF_LINE;
-				return "Status-OFFLINE";
-			} else {
+		} catch(ExecutionException e) {
+			LOG.warn("EX", e);
+			return e.getMessage();
+		}
+	}
+
+	/**
+	 * Non blocking version of sendCommand(command)
+	 * @return a future returning null if ok or error description in case of error
+	 */
+	public CompletableFuture<String> sendCommandAsync(final String command) {
+		invalidateRecentResponses();
+		final CompletableFuture<ContentResponse> response = governed(() -> new CompletableResponseListener(httpClient.newRequest(uriPrefix + command)).send());
+		final CompletableFuture<String> result = response.handle((resp, failure) -> {
+			if(failure != null) {
+				if(failure instanceof SocketTimeoutException || failure instanceof TimeoutException || failure instanceof CancellationException) {
+					status = Status.OFF_LINE;
+					return "Status-OFFLINE";
+				} else {
+					LOG.warn("EX", failure);
+					return failure.toString();
+				}
+			}
+			try {
+				int statusCode = resp.getStatus();
+				if(statusCode == HttpStatus.OK_200) {
+					status = Status.ON_LINE;
+				} else if(statusCode == HttpStatus.UNAUTHORIZED_401) {
+					status = Status.NOT_LOOGGED;
+				} else /*if(statusCode == HttpStatus.INTERNAL_SERVER_ERROR_500)*/ {
+					status = Status.ERROR;
+				}
+				String ret = resp.getContentAsString();
+				return (ret == null || ret.isEmpty() || ret/*.trim()*/.startsWith("{")) ? null : ret;
+			} catch(RuntimeException e) {
 				LOG.warn("EX", e);
 				return e.getMessage();
 			}
-		}
+		});
+		propagateCancel(result, response);
+		return result;
 	}
 
 	@Override
 	public void refreshSettings() throws IOException {
-		fillSettings(getJSON("/settings"));
+		waitFor(refreshSettingsAsync());
 	}
 	
 	@Override
 	public void refreshStatus() throws IOException {
-		fillStatus(getJSON("/status"));
+		waitFor(refreshStatusAsync());
+	}
+
+	@Override
+	public CompletableFuture<Void> refreshSettingsAsync() {
+		return thenFill(getJSONAsync("/settings"), this::fillSettings);
+	}
+
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return DEVICE_STATUS_FILTER;
+	}
+
+	@Override
+	public CompletableFuture<Void> refreshStatusAsync() {
+		return thenFill(getJSONAsync("/status", getStatusFilter()), this::fillStatus);
 	}
 	
 	@Override
@@ -232,10 +335,7 @@ public abstract class AbstractG1Device extends ShellyAbstractDevice {
 		Files.deleteIfExists(file);
 		try(FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + file.toUri()), Map.of("create", "true"))) {
 			sectionToStream("/settings", "settings.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/settings/actions", "actions.json", fs);
-		} catch(InterruptedException e) {
-			LOG.error("backup", e);
 		}
 		return true;
 	}
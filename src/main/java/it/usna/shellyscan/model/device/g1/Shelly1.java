@@ -38,7 +38,6 @@ public class Shelly1 extends AbstractG1Device implements ModulesHolder {
 		JsonNode settings = getJSON("/settings");
 		this.hostname = settings.get("device").get("hostname").asText("");
 		fillSettings(settings);
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		JsonNode status = getJSON("/status");
 		fillStatus(status);
 
@@ -167,6 +166,18 @@ public class Shelly1 extends AbstractG1Device implements ModulesHolder {
 		return sendCommand("/settings/power/0?power=" + power);
 	}
 
+	@Override
+	protected boolean fillCoIoT(int sensorId, JsonNode value) {
+		switch(sensorId) {
+		case 1101 -> relay.fillCoIoTOutput(value);
+		case 2101 -> relay.fillCoIoTInput(value);
+		default -> {
+			return false;
+		}
+		}
+		return true;
+	}
+
 	@Override
 	protected void restore(JsonNode settings, List<String> errors) throws IOException, InterruptedException {
 		errors.add(sendCommand("/settings?" + jsonNodeToURLPar(settings, "longpush_time", "factory_reset_from_switch",
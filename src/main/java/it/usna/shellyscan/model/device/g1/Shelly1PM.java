@@ -39,7 +39,6 @@ public class Shelly1PM extends AbstractG1Device implements ModulesHolder, Intern
 		this.hostname = settings.get("device").get("hostname").asText("");
 //		fillOnce(settings);
 		fillSettings(settings);
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		JsonNode status = getJSON("/status");
 		fillStatus(status);
 
@@ -180,6 +179,20 @@ public class Shelly1PM extends AbstractG1Device implements ModulesHolder, Intern
 		}
 	}
 
+	@Override
+	protected boolean fillCoIoT(int sensorId, JsonNode value) {
+		switch(sensorId) {
+		case 1101 -> relay.fillCoIoTOutput(value);
+		case 2101 -> relay.fillCoIoTInput(value);
+		case 4101 -> power = value.floatValue();
+		case 3104 -> internalTmp = value.floatValue();
+		default -> {
+			return false;
+		}
+		}
+		return true;
+	}
+
 	@Override
 	protected void restore(JsonNode settings, List<String> errors) throws IOException, InterruptedException {
 		errors.add(sendCommand("/settings?" + jsonNodeToURLPar(settings, "longpush_time", "factory_reset_from_switch",
@@ -134,6 +134,24 @@ public class Shelly25 extends AbstractG1Device implements ModulesHolder, Interna
 		}
 	}
 
+	@Override
+	protected boolean fillCoIoT(int sensorId, JsonNode value) {
+		if(modeRelay && (sensorId == 1101 || sensorId == 1201)) {
+			(sensorId == 1101 ? relay0 : relay1).fillCoIoTOutput(value);
+		} else if(modeRelay && (sensorId == 2101 || sensorId == 2201)) {
+			(sensorId == 2101 ? relay0 : relay1).fillCoIoTInput(value);
+		} else if(sensorId == 4101 || sensorId == 4102) { // 4102: roller power
+			power0 = value.floatValue();
+		} else if(sensorId == 4201) {
+			power1 = value.floatValue();
+		} else if(sensorId == 3104) {
+			internalTmp = value.floatValue();
+		} else {
+			return false;
+		}
+		return true;
+	}
+
 	@Override
 	protected void restore(JsonNode settings, List<String> errors) throws IOException, InterruptedException {
 		errors.add(sendCommand("/settings?" + jsonNodeToURLPar(settings, "led_status_disable", "longpush_time", "factory_reset_from_switch", "mode", "wifirecovery_reboot_enabled"/*, "max_power"*/)));
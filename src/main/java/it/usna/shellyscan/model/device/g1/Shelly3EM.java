@@ -8,6 +8,7 @@ import java.util.concurrent.TimeUnit;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import it.usna.shellyscan.model.Devices;
+import it.usna.shellyscan.model.device.FieldsFilter;
 import it.usna.shellyscan.model.device.LabelHolder;
 import it.usna.shellyscan.model.device.Meters;
 import it.usna.shellyscan.model.device.ModulesHolder;
@@ -15,6 +16,7 @@ import it.usna.shellyscan.model.device.g1.modules.Relay;
 
 public class Shelly3EM extends AbstractG1Device implements ModulesHolder {
 	public final static String ID = "SHEM-3";
+	private final static FieldsFilter STATUS_FILTER_3EM = STATUS_FILTER.with("relays", "emeters");
 	private Relay relay = new Relay(this, 0);
 	private float power[] = new float[3];
 	private float current[] = new float[3];
@@ -112,6 +114,11 @@ public class Shelly3EM extends AbstractG1Device implements ModulesHolder {
 		meterName[2] = eMeters.get(2).get("name").asText("");
 	}
 	
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return STATUS_FILTER_3EM;
+	}
+
 	@Override
 	protected void fillStatus(JsonNode status) throws IOException {
 		super.fillStatus(status);
@@ -84,6 +84,21 @@ public class ShellyDimmer extends AbstractG1Device implements ModulesHolder, Int
 		return calibrated;
 	}
 
+	@Override
+	protected boolean fillCoIoT(int sensorId, JsonNode value) {
+		switch(sensorId) {
+		case 1101 -> light.fillCoIoTOutput(value);
+		case 5101 -> light.fillCoIoTBrightness(value);
+		case 2101 -> light.fillCoIoTInput(value);
+		case 4101 -> power = value.floatValue();
+		case 3104 -> internalTmp = value.floatValue();
+		default -> {
+			return false;
+		}
+		}
+		return true;
+	}
+
 	@Override
 	protected void restore(JsonNode settings, List<String> errors) throws IOException, InterruptedException {
 		errors.add(sendCommand("/settings?" + jsonNodeToURLPar(settings, "led_status_disable", "factory_reset_from_switch", "pulse_mode", "transition", "fade_rate", "min_brightness", "zcross_debounce")));
@@ -129,6 +129,26 @@ public class ShellyEM extends AbstractG1Device implements ModulesHolder {
 		voltage[1] = eMeters1.get("voltage").floatValue();
 	}
 
+	@Override
+	public int mqttSensorId(String topic, int sensorId) {
+		return topic.equals("relay/0") ? 1105 : sensorId; // the relay is published as 1105 (1101 is not used)
+	}
+
+	@Override
+	protected boolean fillCoIoT(int sensorId, JsonNode value) {
+		switch(sensorId) {
+		case 1105 -> relay.fillCoIoTOutput(value);
+		case 4105 -> power[0] = value.floatValue();
+		case 4205 -> power[1] = value.floatValue();
+		case 4108 -> voltage[0] = value.floatValue();
+		case 4208 -> voltage[1] = value.floatValue();
+		default -> {
+			return false;
+		}
+		}
+		return true;
+	}
+
 	@Override
 	protected void restore(JsonNode settings, List<String> errors) throws IOException, InterruptedException {
 		errors.add(sendCommand("/settings?" + jsonNodeToURLPar(settings, "led_status_disable", "wifirecovery_reboot_enabled")));
@@ -3,14 +3,12 @@ package it.usna.shellyscan.model.device.g1;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.ShellyUnmanagedDeviceInterface;
 
 public class ShellyG1Unmanaged extends AbstractG1Device implements ShellyUnmanagedDeviceInterface {
@@ -48,7 +46,6 @@ public class ShellyG1Unmanaged extends AbstractG1Device implements ShellyUnmanag
 			this.hostname = settings.get("device").get("hostname").asText("");
 			this.type = settings.get("device").get("type").asText();
 			fillSettings(settings);
-			try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 			fillStatus(getJSON("/status"));
 		} catch (/*IO*/Exception e) {
 			if(status != Status.NOT_LOOGGED) {
@@ -77,6 +77,19 @@ public class ShellyHT extends AbstractBatteryG1Device {
 		return meters;
 	}
 
+	@Override
+	protected boolean fillCoIoT(int sensorId, JsonNode value) {
+		switch(sensorId) {
+		case 3101 -> temp = value.floatValue();
+		case 3103 -> humidity = value.intValue();
+		case 3111 -> bat = value.intValue();
+		default -> {
+			return false;
+		}
+		}
+		return true;
+	}
+
 	@Override
 	protected void restore(JsonNode settings, List<String> errors) throws IOException {
 		JsonNode sensors = settings.get("sensors");
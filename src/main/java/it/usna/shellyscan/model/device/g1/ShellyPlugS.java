@@ -79,6 +79,19 @@ public class ShellyPlugS extends AbstractG1Device implements ModulesHolder, Inte
 		power = status.get("meters").get(0).get("power").floatValue();
 	}
 	
+	@Override
+	protected boolean fillCoIoT(int sensorId, JsonNode value) {
+		switch(sensorId) {
+		case 1101 -> relay.fillCoIoTOutput(value);
+		case 4101 -> power = value.floatValue();
+		case 3104 -> internalTmp = value.floatValue();
+		default -> {
+			return false;
+		}
+		}
+		return true;
+	}
+
 	@Override
 	protected void restore(JsonNode settings, List<String> errors) throws IOException, InterruptedException {
 		errors.add(sendCommand("/settings?" + jsonNodeToURLPar(settings, "led_status_disable", "led_power_disable", "wifirecovery_reboot_enabled")));
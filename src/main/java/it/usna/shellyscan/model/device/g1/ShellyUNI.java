@@ -31,7 +31,6 @@ public class ShellyUNI extends AbstractG1Device implements ModulesHolder {
 		final JsonNode settings = getJSON("/settings");
 		this.hostname = settings.get("device").get("hostname").asText("");
 		fillSettings(settings);
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		fillStatus(getJSON("/status"));
 		
 		meters = new Meters[] {
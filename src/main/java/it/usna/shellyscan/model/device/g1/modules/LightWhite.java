@@ -56,6 +56,21 @@ public class LightWhite implements WhiteInterface {
 		source = statusWhite.get("source").asText("-");
 		inputIsOn = statusInput.get("input").asBoolean();
 	}
+	
+	/** CoIoT "output" value */
+	public void fillCoIoTOutput(JsonNode value) {
+		isOn = value.asInt() == 1;
+	}
+	
+	/** CoIoT "brightness" value */
+	public void fillCoIoTBrightness(JsonNode value) {
+		brightness = value.asInt();
+	}
+	
+	/** CoIoT "input" value */
+	public void fillCoIoTInput(JsonNode value) {
+		inputIsOn = value.asInt() == 1;
+	}
 
 	public String getName() {
 		return name;
@@ -53,6 +53,16 @@ public class Relay implements RelayInterface {
 		inputIsOn = inputs.path("input").booleanValue();
 	}
 	
+	/** CoIoT "output" value */
+	public void fillCoIoTOutput(JsonNode value) {
+		isOn = value.asInt() == 1;
+	}
+	
+	/** CoIoT "input" value */
+	public void fillCoIoTInput(JsonNode value) {
+		inputIsOn = value.asInt() == 1;
+	}
+	
 	@Override
 	public String getName() {
 		return name;
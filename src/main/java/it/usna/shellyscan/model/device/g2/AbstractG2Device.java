@@ -3,7 +3,6 @@ package it.usna.shellyscan.model.device.g2;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
@@ -11,21 +10,27 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 import org.eclipse.jetty.client.Authentication;
 import org.eclipse.jetty.client.AuthenticationStore;
+import org.eclipse.jetty.client.CompletableResponseListener;
 import org.eclipse.jetty.client.ContentResponse;
 import org.eclipse.jetty.client.DigestAuthentication;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.Request;
 import org.eclipse.jetty.client.StringRequestContent;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.websocket.api.Callback;
@@ -44,6 +49,8 @@ import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.BatteryDeviceInterface;
 import it.usna.shellyscan.model.device.DeviceAPIException;
 import it.usna.shellyscan.model.device.DeviceOfflineException;
+import it.usna.shellyscan.model.device.FieldsFilter;
+import it.usna.shellyscan.model.device.RequestGovernor;
 import it.usna.shellyscan.model.device.RestoreMsg;
 import it.usna.shellyscan.model.device.RestoreUtil;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice;
@@ -75,8 +82,35 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 //	public final static int LOG_WARN = 1;
 
 	private final static Logger LOG = LoggerFactory.getLogger(AbstractG2Device.class);
+	private final static WebSocketHub WS_HUB = new WebSocketHub();
+	/** ms; maximum wait for a web socket session to open */
+	public final static long WS_CONNECT_TIMEOUT = 5000;
+	private final static int RPC_PIPELINE_DEPTH = 4; // requests in flight on WebSocketRPC
 	protected WebSocketClient wsClient;
 	private boolean rangeExtender;
+	private JsonNode lastStatus; // last status (pruned if getStatusFilter() != null); NotifyStatus deltas are merged here
+	private volatile int cfgRev = -1; // sys.cfg_rev from last status; -1: unknown
+	private volatile int settingsRev = -1; // cfg_rev current settings refer to; -1: settings read before any status
+	/** fields read by AbstractG2Device.fillStatus(...) ("code" and "message" are needed to detect API errors); base for the filter
+	 * of subclasses overriding getStatusFilter() */
+	protected final static FieldsFilter STATUS_FILTER = FieldsFilter.of("cloud/connected", "wifi/rssi", "wifi/ssid", "sys/uptime", "sys/restart_required", "sys/cfg_rev", "mqtt/connected", "code", "message");
+	private final static String[] METER_FIELDS = {"apower", "voltage", "current", "pf", "freq", "temperature/tC"};
+	private final static String[] EM_FIELDS = {"act_power", "aprt_power", "voltage", "current", "pf", "freq"};
+	/** default filter: STATUS_FILTER plus the components fields read by devices and add-ons fillStatus(...); energy counters ("aenergy"...)
+	 * and other components (e.g. "script:N", "ble", "bthome...", "emdata:N", virtual components) are skipped */
+	protected final static FieldsFilter COMPONENTS_STATUS_FILTER = STATUS_FILTER
+			.with("input:*", "temperature:*", "humidity:*", "illuminance:*", "voltmeter:*", "devicepower:*", "smoke:*", "thermostat:*")
+			.with(componentFields("switch", METER_FIELDS, "output", "source"))
+			.with(componentFields("cover", METER_FIELDS, "pos_control", "current_pos", "source"))
+			.with(componentFields("light", METER_FIELDS, "output", "brightness", "source"))
+			.with(componentFields("rgb", METER_FIELDS, "output", "rgb", "brightness", "source"))
+			.with(componentFields("rgbw", METER_FIELDS, "output", "rgb", "white", "brightness", "source"))
+			.with(componentFields("cct", METER_FIELDS, "output", "brightness", "ct", "source"))
+			.with(componentFields("pm1", METER_FIELDS))
+			.with(componentFields("em1", EM_FIELDS))
+			.with(componentFields("em", Stream.of("a_", "b_", "c_").flatMap(phase -> Stream.of(EM_FIELDS).map(phase::concat)).toArray(String[]::new),
+					"total_act_power", "total_aprt_power", "total_current"));
+	private final static Set<String> SNAPSHOT_COMMANDS = Set.of("/rpc/Shelly.GetStatus", "/rpc/Shelly.GetConfig", "/rpc/Shelly.GetDeviceInfo");
 
 	protected AbstractG2Device(InetAddress address, int port, String hostname) {
 		super(address, port, hostname);
@@ -138,18 +172,101 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 		this.uptime = sysNode.get("uptime").intValue();
 		this.rebootRequired = sysNode.path("restart_required").booleanValue();
 		this.mqttConnected = status.path("mqtt").path("connected").booleanValue();
+		this.cfgRev = sysNode.path("cfg_rev").asInt(-1);
+		if(settingsRev < 0) {
+			settingsRev = cfgRev;
+		}
 
 		lastConnection = System.currentTimeMillis();
 	}
 
 	@Override
 	public void refreshSettings() throws IOException {
-		fillSettings(getJSON("/rpc/Shelly.GetConfig"));
+		waitFor(refreshSettingsAsync());
 	}
 
 	@Override
 	public void refreshStatus() throws IOException {
-		fillStatus(getJSON("/rpc/Shelly.GetStatus"));
+		waitFor(refreshStatusAsync());
+	}
+
+	@Override
+	public CompletableFuture<Void> refreshSettingsAsync() {
+		final int rev = cfgRev; // a change while reading will be detected on next status
+		return thenFill(getJSONAsync("/rpc/Shelly.GetConfig"), config -> {
+			fillSettings(config);
+			settingsRev = rev;
+		});
+	}
+
+	@Override
+	public boolean settingsChanged() {
+		return cfgRev < 0 || cfgRev != settingsRev;
+	}
+
+	/**
+	 * @return sys.cfg_rev as reported by last status; -1 if unknown (older firmware)
+	 */
+	public int getConfigRevision() {
+		return cfgRev;
+	}
+
+	/**
+	 * @return paths of fields and meterFields under the "type:*" key (any component of type)
+	 */
+	private static String[] componentFields(String type, String[] meterFields, String ...fields) {
+		return Stream.concat(Stream.of(fields), Stream.of(meterFields)).map(f -> type + ":*/" + f).toArray(String[]::new);
+	}
+
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return COMPONENTS_STATUS_FILTER;
+	}
+
+	@Override
+	public CompletableFuture<Void> refreshStatusAsync() {
+		return thenFill(getJSONAsync("/rpc/Shelly.GetStatus", getStatusFilter()), statusNode -> {
+			synchronized(this) { // same lock as applyStatusNotification(...): a poll must not interleave with a push
+				fillStatus(statusNode);
+				lastStatus = statusNode;
+			}
+		});
+	}
+
+	/**
+	 * Apply a status notification received on the "/rpc" web socket
+	 * @param notification NotifyFullStatus or NotifyStatus message (params of NotifyStatus contain only changed values)
+	 * @return true if the device status has been updated
+	 */
+	public synchronized boolean applyStatusNotification(JsonNode notification) throws IOException {
+		final JsonNode params = notification.get("params");
+		if(params == null || params.isObject() == false) {
+			return false;
+		}
+		final String method = notification.path("method").asText();
+		if(WebSocketDeviceListener.NOTIFY_FULL_STATUS.equals(method)) {
+			fillStatus(params);
+			lastStatus = params;
+			return true;
+		} else if(WebSocketDeviceListener.NOTIFY_STATUS.equals(method) && lastStatus != null) {
+			ObjectNode merged = lastStatus.deepCopy();
+			mergeStatus(merged, params);
+			fillStatus(merged);
+			lastStatus = merged;
+			return true;
+		}
+		return false;
+	}
+
+	private static void mergeStatus(ObjectNode target, JsonNode delta) {
+		for(Map.Entry<String, JsonNode> e: delta.properties()) {
+			JsonNode current = target.get(e.getKey());
+			if(current instanceof ObjectNode currentObj && e.getValue().isObject()) {
+				mergeStatus(currentObj, e.getValue());
+			} else {
+				target.set(e.getKey(), e.getValue());
+			}
+		}
 	}
 
 	@Override
@@ -251,22 +368,15 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 	public String postCommand(final String method, String payload) {
 		try {
 			final JsonNode resp = executeRPC(method, payload);
-			JsonNode error;
-			if((error = resp.get("error")) == null) { // {"id":1,"src":"shellyplusi4-xxx","result":{"restart_required":true}}
-//				System.out.println(resp.toPrettyString());
-				if(resp.path("result").path("restart_required").asBoolean(false)) {
-					rebootRequired = true;
-				}
-				if(status == Status.NOT_LOOGGED) {
-					return "Status-PROTECTED";
-				} else if(status == Status.ERROR) {
-					return "Status-ERROR";
-				} else {
-					return null;
-				}
+			final String error = commandError(method, payload, resp);
+			if(error != null) {
+				return error;
+			} else if(status == Status.NOT_LOOGGED) {
+				return "Status-PROTECTED";
+			} else if(status == Status.ERROR) {
+				return "Status-ERROR";
 			} else {
-				LOG.debug("API error: {}.{} - {}", method, payload, error);
-				return error.path("message").asText("Generic error");
+				return null;
 			}
 		} catch(IOException e) {
 			return "Status-OFFLINE";
@@ -274,14 +384,108 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 			return e.getMessage();
 		}
 	}
+
+	/**
+	 * Execute the same method for each params element; requests are pipelined on the device web socket (see WebSocketRPC)
+	 * instead of one http call after the other. On protected devices the 401 challenge is answered with the stored credentials
+	 * and the refused requests are sent again; requests still refused or all requests, if the web socket cannot be used
+	 * (e.g. battery devices), are executed by postCommand(...) waiting delay ms between calls
+	 * @return for each params element: null if ok or error description in case of error (see postCommand(...))
+	 */
+	public List<String> postCommands(final String method, List<? extends JsonNode> params, long delay) throws InterruptedException {
+		final String[] res = new String[params.size()];
+		final boolean[] done = new boolean[params.size()];
+		if(params.size() > 1 && wsClient != null && this instanceof BatteryDeviceInterface == false) { // wsClient == null: non interactive (command line) use
+			try(WebSocketRPC rpc = new WebSocketRPC(this)) {
+				final JsonNode challenge = pipeline(rpc, method, params, res, done, null);
+				final JsonNode auth;
+				if(challenge != null && (auth = rpcAuth(challenge)) != null) {
+					pipeline(rpc, method, params, res, done, auth);
+				}
+			} catch(IOException | ExecutionException | RuntimeException e) {
+				LOG.debug("postCommands - web socket: {}", this, e);
+			}
+		}
+		for(int i = 0; i < params.size(); i++) {
+			if(done[i] == false) {
+				if(i > 0) {
+					TimeUnit.MILLISECONDS.sleep(delay);
+				}
+				res[i] = postCommand(method, params.get(i));
+			}
+		}
+		return Arrays.asList(res); // List.of(...) does not allow null elements
+	}
+
+	// send params elements not yet done; return the (last) 401 challenge if any request has been refused
+	private JsonNode pipeline(WebSocketRPC rpc, final String method, List<? extends JsonNode> params, String[] res, boolean[] done, JsonNode auth) throws InterruptedException, JsonProcessingException {
+		final List<Integer> sent = new ArrayList<>();
+		final List<CompletableFuture<JsonNode>> responses = new ArrayList<>();
+		for(int i = 0; i < params.size(); i++) {
+			if(done[i] == false) {
+				if(responses.size() >= RPC_PIPELINE_DEPTH) {
+					waitResponse(responses.get(responses.size() - RPC_PIPELINE_DEPTH));
+				}
+				sent.add(i);
+				responses.add(rpc.call(method, params.get(i).toString(), auth));
+			}
+		}
+		JsonNode challenge = null;
+		for(int j = 0; j < sent.size(); j++) {
+			final int i = sent.get(j);
+			final JsonNode resp = waitResponse(responses.get(j));
+			if(resp == null) {
+				res[i] = "Status-OFFLINE";
+				done[i] = true;
+			} else if(resp.path("error").path("code").intValue() == HttpStatus.UNAUTHORIZED_401) { // not executed
+				challenge = jsonMapper.readTree(resp.path("error").path("message").asText("{}"));
+			} else {
+				res[i] = commandError(method, params.get(i), resp);
+				done[i] = true;
+			}
+		}
+		return challenge;
+	}
+
+	// answer the web socket challenge with the credentials used for http calls; null if not possible
+	private JsonNode rpcAuth(JsonNode challenge) {
+		return httpClient.getAuthenticationStore().findAuthentication("Digest", URI.create(uriPrefix), DigestAuthentication.ANY_REALM) instanceof LoginManagerG2.RpcDigestAuthentication credentials ? credentials.rpcAuth(challenge) : null;
+	}
+
+	// null if the request failed (offline, timeout)
+	private static JsonNode waitResponse(CompletableFuture<JsonNode> response) throws InterruptedException {
+		try {
+			return response.get();
+		} catch(ExecutionException e) {
+			return null;
+		}
+	}
+
+	// null if ok (no "error" element); also records "restart_required"
+	private String commandError(final String method, Object payload, JsonNode resp) {
+		JsonNode error;
+		if((error = resp.get("error")) == null) { // {"id":1,"src":"shellyplusi4-xxx","result":{"restart_required":true}}
+			if(resp.path("result").path("restart_required").asBoolean(false)) {
+				rebootRequired = true;
+			}
+			return null;
+		} else {
+			LOG.debug("API error: {}.{} - {}", method, payload, error);
+			return error.path("message").asText("Generic error");
+		}
+	}
 	
 	@Override
-	public JsonNode getJSON(final String command) throws IOException {
-		JsonNode resp = super.getJSON(command);
-		if(resp.has("code") && resp.has("message")) { // e.g.: {"code":-114,"message":"Method KVS.GetMany failed: No such component"}
-			throw new DeviceAPIException(resp.get("code").intValue(), resp.get("message").asText("Generic error"));
-		}
-		return resp;
+	public CompletableFuture<JsonNode> getJSONAsync(final String command, final FieldsFilter fieldsFilter, long maxAge, RequestGovernor.Lane lane) {
+		final CompletableFuture<JsonNode> request = super.getJSONAsync(command, fieldsFilter, maxAge, lane);
+		final CompletableFuture<JsonNode> result = request.thenApply(resp -> {
+			if(resp.has("code") && resp.has("message")) { // e.g.: {"code":-114,"message":"Method KVS.GetMany failed: No such component"}
+				throw new CompletionException(new DeviceAPIException(resp.get("code").intValue(), resp.get("message").asText("Generic error")));
+			}
+			return resp;
+		});
+		propagateCancel(result, request);
+		return result;
 	}
 
 	public JsonNode getJSON(final String method, JsonNode payload) throws IOException {
@@ -289,14 +493,25 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 	}
 
 	public JsonNode getJSON(final String method, String payload) throws IOException {
-		final JsonNode resp = executeRPC(method, payload);
-		JsonNode result;
-		if((result = resp.get("result")) != null) {
-			return result;
-		} else {
-			JsonNode error = resp.get("error");
-			throw new DeviceAPIException(error.get("code").intValue(), error.get("message").asText("Generic error"));
-		}
+		return waitFor(getJSONAsync(method, payload));
+	}
+
+	/**
+	 * Non blocking version of getJSON(method, payload)
+	 */
+	public CompletableFuture<JsonNode> getJSONAsync(final String method, String payload) {
+		final CompletableFuture<JsonNode> request = executeRPCAsync(method, payload);
+		final CompletableFuture<JsonNode> response = request.thenApply(resp -> {
+			JsonNode result;
+			if((result = resp.get("result")) != null) {
+				return result;
+			} else {
+				JsonNode error = resp.get("error");
+				throw new CompletionException(new DeviceAPIException(error.get("code").intValue(), error.get("message").asText("Generic error")));
+			}
+		});
+		propagateCancel(response, request);
+		return response;
 	}
 	
 	/**
@@ -314,11 +529,55 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 	}
 
 	private JsonNode executeRPC(final String method, String payload) throws IOException, StreamReadException { // StreamReadException extends ... IOException
-		try {
-			ContentResponse response = httpClient.POST(uriPrefix + "/rpc")
-					.body(new StringRequestContent("application/json", "{\"id\":1,\"method\":\"" + method + "\",\"params\":" + payload + "}", StandardCharsets.UTF_8))
-					.send();
-			int statusCode = response.getStatus(); //response.getContentAsString()
+		return waitFor(executeRPCAsync(method, payload));
+	}
+
+	/**
+	 * "/rpc/&lt;Component&gt;.Get...", "/rpc/&lt;Component&gt;.List..."; other http GETs (e.g. "/shelly") are read-only if without query string
+	 */
+	@Override
+	protected boolean isReadOnly(String command) {
+		if(command.startsWith("/") && command.startsWith("/rpc/") == false) {
+			return super.isReadOnly(command);
+		}
+		final int dot = command.indexOf('.');
+		return dot > 0 && (command.startsWith("Get", dot + 1) || command.startsWith("List", dot + 1));
+	}
+
+	@Override
+	protected boolean isSnapshotCommand(String command) {
+		return SNAPSHOT_COMMANDS.contains(command);
+	}
+
+	/**
+	 * A configuration snapshot is valid, whatever its age (up to 10 minutes), while sys.cfg_rev is unchanged
+	 */
+	@Override
+	protected boolean isSnapshotValid(String command, Snapshot snapshot, long maxAge) {
+		if(snapshot.revision() >= 0 && command.equals("/rpc/Shelly.GetConfig")) {
+			return snapshot.revision() == cfgRev;
+		}
+		return super.isSnapshotValid(command, snapshot, maxAge);
+	}
+
+	@Override
+	protected int snapshotRevision() {
+		return cfgRev;
+	}
+
+	private CompletableFuture<JsonNode> executeRPCAsync(final String method, String payload) {
+		if(isReadOnly(method) == false) {
+			invalidateRecentResponses();
+		}
+		final Request request = httpClient.POST(uriPrefix + "/rpc")
+				.body(new StringRequestContent("application/json", "{\"id\":1,\"method\":\"" + method + "\",\"params\":" + payload + "}", StandardCharsets.UTF_8));
+		final CompletableFuture<ContentResponse> response = governed(() -> new CompletableResponseListener(request).send());
+		final CompletableFuture<JsonNode> result = response.handle((resp, failure) -> {
+			if(failure != null) {
+				status = Status.OFF_LINE;
+				throw new CompletionException(new DeviceOfflineException(failure));
+			}
+			int statusCode = resp.getStatus(); //response.getContentAsString()
 			if(statusCode == HttpStatus.OK_200) {
 				status = Status.ON_LINE;
 			} else if(statusCode == HttpStatus.UNAUTHORIZED_401) {
@@ -327,18 +586,25 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 				status = Status.ERROR;
 				LOG.debug("executeRPC - reponse code: {}", statusCode);
 			}
-			return jsonMapper.readTree(response.getContent());
-		} catch(InterruptedException | ExecutionException | TimeoutException | SocketTimeoutException e) {
-			status = Status.OFF_LINE;
-			throw new DeviceOfflineException(e);
-		}
+			try {
+				return jsonMapper.readTree(resp.getContent());
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		});
+		propagateCancel(result, response);
+		return result;
 	}
 
 	public CompletableFuture<Session> connectWebSocketClient(WebSocketDeviceListener listener/*, boolean activate*/) throws IOException, InterruptedException, ExecutionException {
+		CompletableFuture<Session> s = null;
 		try {
-			CompletableFuture<Session> s = wsClient.connect(listener, URI.create("ws://" + addressAndPort.getRepresentation() + "/rpc")); // this also do upgrade
-			s.get().sendText("{\"id\":2, \"src\":\"S_Scanner\", \"method\":\"Shelly.GetDeviceInfo\"}", Callback.NOOP);
+			s = wsClient.connect(listener, URI.create("ws://" + addressAndPort.getRepresentation() + "/rpc")); // this also do upgrade
+			s.get(WS_CONNECT_TIMEOUT, TimeUnit.MILLISECONDS).sendText("{\"id\":2, \"src\":\"S_Scanner\", \"method\":\"Shelly.GetDeviceInfo\"}", Callback.NOOP);
 			return s;
+		} catch(TimeoutException e) { // unreachable device: do not block the caller (e.g. the refresh process)
+			s.cancel(true);
+			throw new DeviceOfflineException(e);
 		} catch(RuntimeException e) {
 			LOG.warn("connectWebSocketClient", e);
 			throw e;
@@ -353,6 +619,20 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 	public Future<Session> connectWebSocketLogs(WebSocketDeviceListener listener) throws IOException, InterruptedException, ExecutionException {
 		return wsClient.connect(listener, URI.create("ws://" + addressAndPort.getRepresentation() + "/debug/log"));
 	}
+	
+	/**
+	 * Listen to the "/rpc" endpoint on the session shared by all subscribers of this device (see WebSocketHub)
+	 */
+	public WebSocketHub.Subscription subscribeWebSocket(WebSocketDeviceListener listener) throws IOException, InterruptedException, ExecutionException {
+		return WS_HUB.subscribe(this, false, listener);
+	}
+	
+	/**
+	 * Listen to the "/debug/log" endpoint on the session shared by all subscribers of this device (see WebSocketHub)
+	 */
+	public WebSocketHub.Subscription subscribeWebSocketLogs(WebSocketDeviceListener listener) throws IOException, InterruptedException, ExecutionException {
+		return WS_HUB.subscribe(this, true, listener);
+	}
 
 	@Override
 	public boolean backup(final Path file) throws IOException {
@@ -362,32 +642,24 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 //				try { Files.delete(p); } catch (IOException e) { }
 //			});
 			sectionToStream("/rpc/Shelly.GetDeviceInfo", "Shelly.GetDeviceInfo.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			JsonNode config = sectionToStream("/rpc/Shelly.GetConfig", "Shelly.GetConfig.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			try { // unmanaged battery device
 				sectionToStream("/rpc/Schedule.List", "Schedule.List.json", fs);
 			} catch(Exception e) {}
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/rpc/Webhook.List", "Webhook.List.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			try {
 				sectionToStream("/rpc/KVS.GetMany", "items", "KVS.GetMany.json", fs);
 			} catch(Exception e) {}
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			JsonNode scripts = null;
 			try {
 				scripts = sectionToStream("/rpc/Script.List", "Script.List.json", fs);
 			} catch(Exception e) {}
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			try { // Virtual components (PRO & gen3+)
 				sectionToStream("/rpc/Shelly.GetComponents?dynamic_only=true", "components", "Shelly.GetComponents.json", fs);
 			} catch(Exception e) {}
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			String addon = config.get("sys").get("device").path("addon_type").asText();
 			if(SensorAddOn.ADDON_TYPE.equals(addon)) {
 				sectionToStream("/rpc/SensorAddon.GetPeripherals", SensorAddOn.BACKUP_SECTION, fs);
-				TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			}
 			// Scripts
 			if(scripts != null) {
@@ -397,7 +669,6 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 					} catch(IOException e) {
 						LOG.error("backup script {}", script.getName(), e);
 					}
-					TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 				}
 			}
 			try { // Device specific
@@ -405,8 +676,6 @@ public abstract class AbstractG2Device extends ShellyAbstractDevice {
 			} catch(Exception e) {
 				LOG.error("backup specific", e);
 			}
-		} catch(InterruptedException e) {
-			LOG.error("backup", e);
 		}
 		return true;
 	}
@@ -7,6 +7,8 @@ import java.util.Map;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import it.usna.shellyscan.model.device.FieldsFilter;
+
 /**
  * Shelly BLU gateway model
  * @author usna
@@ -28,6 +30,11 @@ public class ShellyGateway extends AbstractG2Device {
 		fillStatus(getJSON("/rpc/Shelly.GetStatus"));
 	}
 	
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return STATUS_FILTER; // skip "bthome..." components
+	}
+	
 	@Override
 	public String getTypeName() {
 		return "Shelly BLU Gateway";
@@ -113,7 +113,6 @@ public class ShellyPlusUNI extends AbstractG2Device implements ModulesHolder {
 	// integrated addon
 	protected void backup(FileSystem out) throws IOException, InterruptedException {
 		sectionToStream("/rpc/SensorAddon.GetPeripherals", SensorAddOn.BACKUP_SECTION, out);
-		TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 	}
 
 	@Override
@@ -79,7 +79,6 @@ public class ShellyPlusi4 extends AbstractG2Device implements ModulesHolder {
 		inputs[1].fillSettings(configuration.get("input:1"));
 		inputs[2].fillSettings(configuration.get("input:2"));
 		inputs[3].fillSettings(configuration.get("input:3"));
-		try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		webhooks.fillSettings(/*"input"*/);
 		inputs[0].associateWH(webhooks.getHooksList("input0"));
 		inputs[1].associateWH(webhooks.getHooksList("input1"));
@@ -9,6 +9,7 @@ import java.util.concurrent.TimeUnit;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import it.usna.shellyscan.model.Devices;
+import it.usna.shellyscan.model.device.FieldsFilter;
 import it.usna.shellyscan.model.device.InternalTmpHolder;
 import it.usna.shellyscan.model.device.LabelHolder;
 import it.usna.shellyscan.model.device.Meters;
@@ -28,6 +29,7 @@ public class ShellyPro3EM extends AbstractProDevice implements InternalTmpHolder
 	private boolean triphase;
 	
 	private final static String MODE_TRIPHASE = "triphase";
+	private final static FieldsFilter STATUS_FILTER_3EM = STATUS_FILTER.with("em:0", "em1:0", "em1:1", "em1:2", "temperature:0/tC");
 
 	public ShellyPro3EM(InetAddress address, int port, String hostname) {
 		super(address, port, hostname);
@@ -84,6 +86,11 @@ public class ShellyPro3EM extends AbstractProDevice implements InternalTmpHolder
 		}
 	}
 
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return STATUS_FILTER_3EM; // skip "emdata..." and other components
+	}
+
 	@Override
 	protected void fillStatus(JsonNode status) throws IOException {
 		super.fillStatus(status);
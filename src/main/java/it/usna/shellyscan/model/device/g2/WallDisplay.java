@@ -14,6 +14,7 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import it.usna.shellyscan.model.Devices;
+import it.usna.shellyscan.model.device.FieldsFilter;
 import it.usna.shellyscan.model.device.Meters;
 import it.usna.shellyscan.model.device.ModulesHolder;
 import it.usna.shellyscan.model.device.RestoreMsg;
@@ -29,6 +30,7 @@ import it.usna.shellyscan.model.device.modules.DeviceModule;
 public class WallDisplay extends AbstractG2Device implements ModulesHolder {
 	public final static String ID = "WallDisplay";
 	private final static Meters.Type[] SUPPORTED_MEASURES = new Meters.Type[] {Meters.Type.T, Meters.Type.H, Meters.Type.L};
+	private final static FieldsFilter STATUS_FILTER_WD = STATUS_FILTER.with("temperature:0/tC", "humidity:0/rh", "illuminance:0/lux", "switch:0", "input:0", "thermostat:0");
 	private float temp;
 	private float humidity;
 	private int lux;
@@ -100,6 +102,11 @@ public class WallDisplay extends AbstractG2Device implements ModulesHolder {
 		}
 	}
 	
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return STATUS_FILTER_WD;
+	}
+
 	@Override
 	protected void fillStatus(JsonNode status) throws IOException {
 		super.fillStatus(status);
@@ -153,11 +160,9 @@ public class WallDisplay extends AbstractG2Device implements ModulesHolder {
 	protected void backup(FileSystem out) throws IOException, InterruptedException {
 		if(thermostat != null) {
 			JsonNode profiles = sectionToStream("/rpc/Thermostat.Schedule.ListProfiles?id=0", "Thermostat.Schedule.ListProfiles.json", out);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			for(JsonNode p: profiles.get("profiles")) {
 				final String id = p.get("id").asText();
 				sectionToStream("/rpc/Thermostat.Schedule.ListRules?id=0&profile_id=" + id, "Thermostat.Schedule.ListRules_profile_id-" + id + ".json", out);
-				TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			}
 		}
 	}
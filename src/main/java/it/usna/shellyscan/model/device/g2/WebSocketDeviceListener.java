@@ -46,14 +46,18 @@ public class WebSocketDeviceListener implements Session.Listener.AutoDemanding {
 	@Override
 	public void onWebSocketText(String message) {
 		try {
-			JsonNode msg = JSON_MAPPER.readTree(message);
-			if(notifyCondition == null || notifyCondition.test(msg)) {
-				onMessage(msg);
-			}
+			dispatch(JSON_MAPPER.readTree(message));
 		} catch (JsonProcessingException e) {
 			LOG.warn("ws-message-error: {}", message, e);
 		}
 	}
+	
+	// also used by WebSocketHub to pass an already parsed frame to each subscriber
+	void dispatch(JsonNode msg) {
+		if(notifyCondition == null || notifyCondition.test(msg)) {
+			onMessage(msg);
+		}
+	}
 		
 	@Override
 	public void onWebSocketFrame(org.eclipse.jetty.websocket.api.Frame frame, org.eclipse.jetty.websocket.api.Callback callback) {
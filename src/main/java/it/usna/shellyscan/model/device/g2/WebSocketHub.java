@@ -0,0 +1,188 @@
+package it.usna.shellyscan.model.device.g2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jetty.websocket.api.Callback;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import it.usna.shellyscan.model.device.DeviceOfflineException;
+
+/**
+ * Share web socket sessions: at most one session for each device endpoint ("/rpc", "/debug/log") whatever
+ * the number of views listening to it (devices only accept few concurrent sockets).<br>
+ * Incoming frames are parsed once and passed to each subscriber whose notify condition is satisfied;
+ * subscribers are reference counted and a session without subscribers is closed after IDLE_TIME ms
+ * (a view reopened in the meantime reuses it).
+ * @author usna
+ */
+public class WebSocketHub {
+	private final static Logger LOG = LoggerFactory.getLogger(WebSocketHub.class);
+	private final static long IDLE_TIME = 30_000; // ms
+	private final static Duration LOG_IDLE_TIMEOUT = Duration.ofMinutes(30); // logs could be quiet for a long time
+	private final Map<String, DeviceEndpoint> endpoints = new HashMap<>();
+
+	WebSocketHub() {}
+
+	/**
+	 * Subscribe to the "/rpc" (logs == false) or "/debug/log" (logs == true) endpoint of the device; the session is opened if needed.
+	 * listener.onWebSocketOpen(...) is called on subscription, listener.onWebSocketClose(...) when the subscription or the session is closed
+	 */
+	Subscription subscribe(AbstractG2Device d, boolean logs, WebSocketDeviceListener listener) throws IOException, InterruptedException, ExecutionException {
+		final String key = d.getAddressAndPort().getRepresentation() + (logs ? "/debug/log" : "/rpc");
+		DeviceEndpoint endpoint;
+		boolean create = false;
+		synchronized(endpoints) {
+			endpoint = endpoints.get(key);
+			if(endpoint == null || endpoint.ended) {
+				endpoint = new DeviceEndpoint(key);
+				endpoints.put(key, endpoint);
+				create = true;
+			}
+			endpoint.subscribers.add(listener);
+		}
+		try {
+			if(create) {
+				LOG.trace("ws-hub connect: {}", key);
+				final Session session = (logs ? d.connectWebSocketLogs(endpoint) : d.connectWebSocketClient(endpoint)).get(AbstractG2Device.WS_CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
+				if(logs) {
+					session.setIdleTimeout(LOG_IDLE_TIMEOUT);
+				}
+				endpoint.session.complete(session);
+			}
+			final Session session = endpoint.session.get(AbstractG2Device.WS_CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
+			listener.onWebSocketOpen(session);
+			return new Subscription(endpoint, listener);
+		} catch(TimeoutException e) {
+			endpoint.subscribers.remove(listener);
+			if(create) {
+				endpoint.session.completeExceptionally(e);
+				endpoint.end();
+			}
+			throw new DeviceOfflineException(e);
+		} catch(IOException | InterruptedException | ExecutionException | RuntimeException e) {
+			endpoint.subscribers.remove(listener);
+			if(create) {
+				endpoint.session.completeExceptionally(e);
+				endpoint.end();
+			}
+			throw e;
+		}
+	}
+
+	private void release(DeviceEndpoint endpoint) {
+		if(endpoint.subscribers.isEmpty()) {
+			endpoint.idleSince = System.currentTimeMillis();
+			CompletableFuture.delayedExecutor(IDLE_TIME, TimeUnit.MILLISECONDS).execute(() -> evict(endpoint));
+		}
+	}
+
+	private void evict(DeviceEndpoint endpoint) {
+		synchronized(endpoints) {
+			if(endpoint.subscribers.isEmpty() == false || System.currentTimeMillis() - endpoint.idleSince < IDLE_TIME || endpoints.remove(endpoint.key, endpoint) == false) {
+				return;
+			}
+		}
+		LOG.trace("ws-hub evict: {}", endpoint.key);
+		endpoint.ended = true;
+		endpoint.session.thenAccept(s -> s.close(StatusCode.NORMAL, "idle", Callback.NOOP));
+	}
+
+	/**
+	 * A listener attached to a shared session
+	 */
+	public class Subscription {
+		private final DeviceEndpoint endpoint;
+		private final WebSocketDeviceListener listener;
+
+		Subscription(DeviceEndpoint endpoint, WebSocketDeviceListener listener) {
+			this.endpoint = endpoint;
+			this.listener = listener;
+		}
+
+		/**
+		 * @return true if the shared session is open and this subscription has not been closed
+		 */
+		public boolean isOpen() {
+			return endpoint.ended == false && endpoint.subscribers.contains(listener) && endpoint.session.join().isOpen();
+		}
+
+		public void sendText(String text) {
+			endpoint.session.join().sendText(text, Callback.NOOP);
+		}
+
+		public void ping() {
+			endpoint.session.join().sendPing(ByteBuffer.allocate(0), Callback.NOOP);
+		}
+
+		/**
+		 * Stop receiving frames; the session is closed later if no other subscriber is left
+		 */
+		public void close() {
+			if(endpoint.subscribers.remove(listener) && endpoint.ended == false) { // if ended the listener has already been notified
+				listener.onWebSocketClose(StatusCode.NORMAL, "unsubscribed");
+				release(endpoint);
+			}
+		}
+	}
+
+	// "Jetty uses MethodHandles to instantiate WebSocket endpoints and invoke WebSocket event methods, so WebSocket endpoint classes and WebSocket event methods must be public"
+	public class DeviceEndpoint extends WebSocketDeviceListener {
+		private final String key;
+		private final CompletableFuture<Session> session = new CompletableFuture<>();
+		private final List<WebSocketDeviceListener> subscribers = new CopyOnWriteArrayList<>();
+		private volatile boolean ended;
+		private volatile long idleSince;
+
+		private DeviceEndpoint(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public void onMessage(JsonNode msg) {
+			for(WebSocketDeviceListener l: subscribers) {
+				try {
+					l.dispatch(msg);
+				} catch(RuntimeException e) {
+					LOG.debug("ws-hub subscriber: {}", key, e);
+				}
+			}
+		}
+
+		@Override
+		public void onWebSocketClose(int statusCode, String reason) {
+			super.onWebSocketClose(statusCode, reason);
+			end();
+			subscribers.forEach(l -> l.onWebSocketClose(statusCode, reason));
+		}
+
+		@Override
+		public void onWebSocketError(Throwable cause) {
+			super.onWebSocketError(cause);
+			end();
+			subscribers.forEach(l -> l.onWebSocketError(cause));
+		}
+
+		// no more usable; next subscribe(...) opens a new session
+		private void end() {
+			ended = true;
+			synchronized(endpoints) {
+				endpoints.remove(key, this);
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package it.usna.shellyscan.model.device.g2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import it.usna.shellyscan.model.device.DeviceOfflineException;
+
+/**
+ * RPC channel over the device "/rpc" web socket (session shared by WebSocketHub): each request gets a unique id,
+ * many requests can be in flight and each future is completed when the response with the same id arrives.
+ * Responses are the complete frames ({"id":..., "result":{...}} or {"id":..., "error":{...}}) as returned by http calls.<br>
+ * On protected devices requests sent without the "auth" object fail with error code 401; the error message is the
+ * digest challenge to answer (see LoginManagerG2.RpcDigestAuthentication).
+ * @author usna
+ */
+public class WebSocketRPC implements Closeable {
+	private final static Logger LOG = LoggerFactory.getLogger(WebSocketRPC.class);
+	public final static long TIMEOUT = 10_000; // ms
+	private final static int FIRST_ID = 1000; // low ids are used by other subscribers of the shared session
+	private final static AtomicInteger CHANNEL_COUNT = new AtomicInteger();
+	private final String src = "S_Scanner-rpc" + CHANNEL_COUNT.incrementAndGet(); // responses are addressed ("dst") to this channel only
+	private final AtomicInteger nextId = new AtomicInteger(FIRST_ID);
+	private final Map<Integer, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+	private final WebSocketHub.Subscription subscription;
+
+	public WebSocketRPC(AbstractG2Device d) throws IOException, InterruptedException, ExecutionException {
+		subscription = d.subscribeWebSocket(new ResponseListener());
+	}
+
+	// subscribe: listener -> subscription to the session carrying requests and responses
+	WebSocketRPC(Function<WebSocketDeviceListener, WebSocketHub.Subscription> subscribe) {
+		subscription = subscribe.apply(new ResponseListener());
+	}
+
+	/**
+	 * Send the request without waiting for previous responses
+	 * @param params json object
+	 * @return the response; completed exceptionally (DeviceOfflineException, TimeoutException) if the session is lost or no response is received in TIMEOUT ms
+	 */
+	public CompletableFuture<JsonNode> call(final String method, String params) {
+		return call(method, params, null);
+	}
+
+	/**
+	 * Send the request without waiting for previous responses
+	 * @param params json object
+	 * @param auth the "auth" object answering a 401 challenge; null for unauthenticated requests
+	 * @return the response; completed exceptionally (DeviceOfflineException, TimeoutException) if the session is lost or no response is received in TIMEOUT ms
+	 */
+	public CompletableFuture<JsonNode> call(final String method, String params, JsonNode auth) {
+		final int id = nextId.getAndIncrement();
+		final CompletableFuture<JsonNode> response = new CompletableFuture<>();
+		if(subscription.isOpen() == false) {
+			response.completeExceptionally(new DeviceOfflineException("Status-OFFLINE"));
+			return response;
+		}
+		pending.put(id, response);
+		response.orTimeout(TIMEOUT, TimeUnit.MILLISECONDS).whenComplete((r, e) -> pending.remove(id));
+		subscription.sendText("{\"id\":" + id + ",\"src\":\"" + src + "\",\"method\":\"" + method + "\",\"params\":" + params + (auth == null ? "}" : ",\"auth\":" + auth + "}"));
+		return response;
+	}
+
+	@Override
+	public void close() {
+		subscription.close(); // -> ResponseListener.onWebSocketClose(...)
+	}
+
+	private void failAll(IOException e) {
+		new ArrayList<>(pending.values()).forEach(f -> f.completeExceptionally(e));
+	}
+
+	private class ResponseListener extends WebSocketDeviceListener {
+		private ResponseListener() {
+			super(msg -> src.equals(msg.path("dst").asText()) && msg.has("method") == false);
+		}
+
+		@Override
+		public void onWebSocketOpen(Session session) {}
+
+		@Override
+		public void onMessage(JsonNode msg) {
+			final CompletableFuture<JsonNode> response = pending.get(msg.path("id").asInt());
+			if(response != null) {
+				response.complete(msg);
+			} else {
+				LOG.trace("ws-rpc late response: {}", msg);
+			}
+		}
+
+		@Override
+		public void onWebSocketClose(int statusCode, String reason) {
+			failAll(new DeviceOfflineException("Status-OFFLINE"));
+		}
+
+		@Override
+		public void onWebSocketError(Throwable cause) {
+			failAll(new DeviceOfflineException(cause));
+		}
+	}
+}
@@ -6,7 +6,6 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +15,6 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.RestoreMsg;
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 
@@ -58,10 +56,8 @@ public class DynamicComponents {
 			JsonNode comp = compIt.next();
 			String key = comp.get("key").asText();
 			if(Arrays.stream(VIRTUAL_TYPES).anyMatch(type -> key/*.toLowerCase()*/.startsWith(type/*.toLowerCase()*/ + ":"))) { // VIRTUAL_TYPES
-				TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 				parent.postCommand("Virtual.Delete", "{\"key\":\"" + key + "\"}");
 			} else if(key.toLowerCase().startsWith("bthomesensor" + ":")) { // BTHomeSensor
-				TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 				String typeIdx[] = key.split(":");
 				parent.postCommand("BTHome.DeleteSensor", "{\"id\":" + typeIdx[1] + "}");
 			} else if(key.toLowerCase().startsWith("bthomedevice" + ":")) { // BTHomeDevice
@@ -110,24 +106,23 @@ public class DynamicComponents {
 		try {
 			final JsonNode storedComponents = backupJsons.get("Shelly.GetComponents.json");
 			if(storedComponents != null) {
-				TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 				final List<String> existingDevices = deleteAll(parent);
 				final List<String> existingKeys = new ArrayList<>();
 				final List<GroupValue> groupsValues = new ArrayList<>();
+				final List<ObjectNode> virtuals = new ArrayList<>();
 				final Iterator<JsonNode> storedIt = storedComponents.path("components").iterator();
 				while (storedIt.hasNext()) {
 					JsonNode storedComp = storedIt.next();
 					String key = storedComp.get("key").textValue();
 					String typeIdx[] = key.split(":");
 					if(typeIdx.length == 2 && Arrays.stream(VIRTUAL_TYPES).anyMatch(typeIdx[0]::equals/*IgnoreCase*/)) { // add virtual component
-						TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 						ObjectNode out = JsonNodeFactory.instance.objectNode();
 						out.put("type", typeIdx[0]);
 						out.put("id", Integer.parseInt(typeIdx[1])); // keep old id
 						ObjectNode config = (ObjectNode)storedComp.path("config")/*.deepCopy()*/;
 						config.remove("id");
 						out.set("config", config);
-						errors.add(parent.postCommand("Virtual.Add", out));
+						virtuals.add(out);
 						existingKeys.add(key);
 
 						JsonNode value; // groups values are restored later
@@ -135,7 +130,6 @@ public class DynamicComponents {
 							groupsValues.add(new GroupValue(Integer.parseInt(typeIdx[1]), (ArrayNode)value));
 						}
 					} else if(typeIdx.length == 2 && typeIdx[0].equals/*IgnoreCase*/(BTHOME_SENSOR) && existingDevices.contains(storedComp.at("/config/addr").asText())) { // add BTHome sensor
-						TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 						ObjectNode out = JsonNodeFactory.instance.objectNode();
 						out.put("id", Integer.parseInt(typeIdx[1])); // keep old id
 						ObjectNode config = (ObjectNode)storedComp.path("config")/*.deepCopy()*/;
@@ -144,7 +138,6 @@ public class DynamicComponents {
 						errors.add(parent.postCommand("BTHome.AddSensor", out));
 						existingKeys.add(key);
 					} else if(typeIdx.length == 2 && typeIdx[0].equals/*IgnoreCase*/(BTHOME_DEVICE) && existingDevices.contains(storedComp.at("/config/addr").asText())) { // add BTHome device
-						TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 						ObjectNode out = JsonNodeFactory.instance.objectNode();
 						out.put("id", Integer.parseInt(typeIdx[1])); // keep old id
 						ObjectNode config = (ObjectNode)storedComp.path("config")/*.deepCopy()*/;
@@ -155,15 +148,17 @@ public class DynamicComponents {
 						existingKeys.add(key);
 					}
 				}
+				errors.addAll(parent.postCommands("Virtual.Add", virtuals, 0)); // pipelined
 				// group values after all components have been added
+				final List<ObjectNode> grValues = new ArrayList<>();
 				for(GroupValue val: groupsValues) {
 					ObjectNode grValue = JsonNodeFactory.instance.objectNode();
 					groupRestoreValues(val.value, existingKeys); // alter val.value
 					grValue.put("id", val.groupId);
 					grValue.set("value", val.value);
-					TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
-					errors.add(parent.postCommand("Group.Set", grValue));
+					grValues.add(grValue);
 				}
+				errors.addAll(parent.postCommands("Group.Set", grValues, 0)); // pipelined
 			}
 		} catch (/*IO*/Exception e) { // beta version -> possible errors on firmware updates
 			LOG.error("DynamicComponents.restore", e);
@@ -1,10 +1,8 @@
 package it.usna.shellyscan.model.device.g2.modules;
 
-import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.BatteryDeviceInterface;
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 import it.usna.shellyscan.model.device.modules.FirmwareManager;
@@ -29,9 +27,6 @@ public class FirmwareManagerG2 implements FirmwareManager {
 			JsonNode node = d.getJSON("/rpc/Shelly.CheckForUpdate");
 			stable = node.at("/stable/build_id").textValue();
 			beta = node.at("/beta/build_id").textValue();
-			if(d instanceof BatteryDeviceInterface == false) {
-				TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
-			}
 			JsonNode nodeDevInfo = d.getJSON("/rpc/Shelly.GetDeviceInfo");
 			current = nodeDevInfo.get("fw_id").asText();
 			valid = true;
@@ -6,13 +6,11 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
-import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 
 public class KVS {
@@ -33,7 +31,6 @@ public class KVS {
 			int tot;
 			do {
 				if(offset > 0) {
-					try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) { }
 					many = device.getJSON("/rpc/KVS.GetMany?offset=" + offset);
 					kvsItems = many.path("items");
 				}
@@ -105,6 +102,7 @@ public class KVS {
 	 */
 	public void restoreKVS(JsonNode kvsMany, List<String> errors) throws InterruptedException {
 		JsonNode kvsItems = kvsMany.path("items");
+		final List<ObjectNode> outs = new ArrayList<>();
 		if(kvsItems.isArray()) { // fw >= 1.5.0
 			for(JsonNode item: kvsItems) {
 				KVItem storedItem = new KVItem(item.get("key").asText(), item.get("etag").asText(), item.get("value").asText());
@@ -112,8 +110,7 @@ public class KVS {
 					ObjectNode out = JsonNodeFactory.instance.objectNode();
 					out.put("key", storedItem.key);
 					out.put("value", storedItem.value);
-					TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
-					errors.add(device.postCommand("KVS.Set", out));
+					outs.add(out);
 				}
 			}
 		} else { // fw < 1.5.0
@@ -123,11 +120,11 @@ public class KVS {
 					ObjectNode out = JsonNodeFactory.instance.objectNode();
 					out.put("key", storedItem.key);
 					out.put("value", storedItem.value);
-					TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
-					errors.add(device.postCommand("KVS.Set", out));
+					outs.add(out);
 				} 
 			}
 		}
+		errors.addAll(device.postCommands("KVS.Set", outs, 0)); // pipelined
 	}
 	
 	public record KVItem(String key, String etag, String value) {}
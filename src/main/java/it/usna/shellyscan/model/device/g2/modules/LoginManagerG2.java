@@ -6,6 +6,7 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
@@ -15,6 +16,8 @@ import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.http.HttpStatus;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 import it.usna.shellyscan.model.device.modules.LoginManager;
@@ -91,7 +94,7 @@ public class LoginManagerG2 implements LoginManager {
 			String msg = d.postCommand("Shelly.SetAuth", "{\"user\":\"" + LOGIN_USER + "\",\"realm\":\"" + realm + "\",\"ha1\":\"" + encodedhash + "\"}");
 			if(msg == null) {
 //				d.setCredentialsProvider(credsProvider);
-				d.setAuthentication(new DigestAuthentication(URI.create("http://" + d.getAddressAndPort().getRepresentation()), DigestAuthentication.ANY_REALM, LOGIN_USER, new String(pwd)));
+				d.setAuthentication(new RpcDigestAuthentication(URI.create("http://" + d.getAddressAndPort().getRepresentation()), new String(pwd)));
 			}
 			return msg;
 		} catch (NoSuchAlgorithmException e) {
@@ -109,7 +112,7 @@ public class LoginManagerG2 implements LoginManager {
 	
 	public static int testDigestAuthentication(HttpClient httpClient, final InetAddress address, int port, /*String user,*/ char[] pwd, String testCommand) {
 		URI uri = URI.create("http://" + address.getHostAddress() + ":" + port/*+ testCommand*/);
-		DigestAuthentication da = new DigestAuthentication(uri, DigestAuthentication.ANY_REALM, LOGIN_USER, new String(pwd));
+		DigestAuthentication da = new RpcDigestAuthentication(uri, new String(pwd));
 		AuthenticationStore aStore = httpClient.getAuthenticationStore();
 		try {
 			aStore.addAuthentication(da);
@@ -124,6 +127,53 @@ public class LoginManagerG2 implements LoginManager {
 		}
 	}
 	
+	/**
+	 * Http digest authentication also able to answer the challenge of a web socket RPC request (error 401);
+	 * jetty DigestAuthentication does not expose the password
+	 */
+	public static class RpcDigestAuthentication extends DigestAuthentication {
+		private final static SecureRandom RND = new SecureRandom();
+		private final String pwd;
+
+		public RpcDigestAuthentication(URI uri, String pwd) {
+			super(uri, DigestAuthentication.ANY_REALM, LOGIN_USER, pwd);
+			this.pwd = pwd;
+		}
+
+		/**
+		 * @param challenge the 401 error message: {"auth_type":"digest","nonce":1625038762,"nc":1,"realm":"shellypro4pm-f008d1d8b8b8","algorithm":"SHA-256"}
+		 * @return the "auth" object to add to the request; null if the challenge is not a SHA-256 digest
+		 */
+		public ObjectNode rpcAuth(JsonNode challenge) {
+			if("digest".equals(challenge.path("auth_type").asText()) == false || "SHA-256".equals(challenge.path("algorithm").asText("SHA-256")) == false) {
+				return null;
+			}
+			try {
+				final String realm = challenge.path("realm").asText();
+				final String nonce = challenge.path("nonce").asText();
+				final String cnonce = Long.toHexString(RND.nextLong());
+				final String ha1 = sha256toHex(LOGIN_USER + ":" + realm + ":" + pwd);
+				final String ha2 = sha256toHex("dummy_method:dummy_uri");
+				final String response = sha256toHex(ha1 + ":" + nonce + ":" + challenge.path("nc").asInt(1) + ":" + cnonce + ":auth:" + ha2);
+				ObjectNode auth = JsonNodeFactory.instance.objectNode();
+				auth.put("realm", realm);
+				auth.put("username", LOGIN_USER);
+				auth.set("nonce", challenge.get("nonce"));
+				auth.put("cnonce", cnonce);
+				auth.put("response", response);
+				auth.put("algorithm", "SHA-256");
+				return auth;
+			} catch (NoSuchAlgorithmException e) {
+				return null;
+			}
+		}
+	}
+
+	private static String sha256toHex(String in) throws NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		return bytesToHex(digest.digest(in.getBytes(StandardCharsets.UTF_8)));
+	}
+
 	////////////////////////
 	// https://shelly-api-docs.shelly.cloud/gen2/General/Authentication
 	// (response: string, encoding of the string <ha1> + ":" + <nonce> + ":" + <nc> + ":" + <cnonce> + ":" + "auth" + ":" + <ha2>
@@ -1,6 +1,7 @@
 package it.usna.shellyscan.model.device.g2.modules;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -48,11 +49,13 @@ public class ScheduleManager {
 	// Remove all existing jobs and add stored ones
 	public static void restore(AbstractG2Device parent, JsonNode schedule, final long delay, List<String> errors) throws InterruptedException {
 		errors.add(parent.postCommand("Schedule.DeleteAll", "{}"));
+		final List<ObjectNode> jobs = new ArrayList<>();
 		for(JsonNode sc: schedule.get("jobs")) {
 			ObjectNode thisSc = sc.deepCopy();
 			thisSc.remove("id");
-			TimeUnit.MILLISECONDS.sleep(delay);
-			errors.add(parent.postCommand("Schedule.Create", thisSc));
+			jobs.add(thisSc);
 		}
+		TimeUnit.MILLISECONDS.sleep(delay);
+		errors.addAll(parent.postCommands("Schedule.Create", jobs, delay)); // pipelined
 	}
 }
\ No newline at end of file
@@ -76,16 +76,16 @@ public class Webhooks {
 	public static void restore(AbstractG2Device parent, JsonNode storedWH, long delay, ArrayList<String> errors) throws InterruptedException {
 		TimeUnit.MILLISECONDS.sleep(delay);
 		errors.add(parent.postCommand("Webhook.DeleteAll", "{}"));
+		final List<JsonNode> hooks = new ArrayList<>();
+		final List<ObjectNode> actions = new ArrayList<>();
 		for(JsonNode ac: storedWH.get("hooks")) {
 			ObjectNode thisAction = (ObjectNode)ac.deepCopy();
 			thisAction.remove("id");
-			TimeUnit.MILLISECONDS.sleep(delay);
-			String ret = parent.postCommand("Webhook.Create", thisAction);
-			if(ret != null) {
-				ret = "Action \"" + ac.path("name").asText("") + "\" - error: " + ret;
-			}
-			errors.add(ret);
+			hooks.add(ac);
+			actions.add(thisAction);
 		}
+		TimeUnit.MILLISECONDS.sleep(delay);
+		addCreateErrors(hooks, parent.postCommands("Webhook.Create", actions, delay), errors); // pipelined
 	}
 	
 	// restore all webhooks with a specific "cid" on a new "cid"
@@ -96,19 +96,31 @@ public class Webhooks {
 	}
 	
 	public static void restore(AbstractG2Device parent, String eventType, int storedCid, int newCid, JsonNode storedWH, long delay, ArrayList<String> errors) throws InterruptedException {
+		final List<JsonNode> hooks = new ArrayList<>();
+		final List<ObjectNode> actions = new ArrayList<>();
 		for(JsonNode ac: storedWH.get("hooks")) {
 			if(ac.get("cid").intValue() == storedCid && ac.get("event").textValue().startsWith(eventType + ".")) {
 				ObjectNode thisAction = (ObjectNode)ac.deepCopy();
 				thisAction.remove("id");
 				thisAction.put("cid", newCid);
-				TimeUnit.MILLISECONDS.sleep(delay);
-				String ret =  parent.postCommand("Webhook.Create", thisAction);
-				if(ret != null) {
-					ret = "Action \"" + ac.path("name").asText("") + "\" - error: " + ret;
-				}
-				errors.add(ret);
+				hooks.add(ac);
+				actions.add(thisAction);
 			}
 		}
+		if(actions.size() > 0) {
+			TimeUnit.MILLISECONDS.sleep(delay);
+			addCreateErrors(hooks, parent.postCommands("Webhook.Create", actions, delay), errors); // pipelined
+		}
+	}
+
+	private static void addCreateErrors(List<JsonNode> hooks, List<String> results, ArrayList<String> errors) {
+		for(int i = 0; i < results.size(); i++) {
+			String ret = results.get(i);
+			if(ret != null) {
+				ret = "Action \"" + hooks.get(i).path("name").asText("") + "\" - error: " + ret;
+			}
+			errors.add(ret);
+		}
 	}
 
 	public static class Webhook {
@@ -10,7 +10,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.websocket.client.WebSocketClient;
@@ -19,8 +18,8 @@ import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.BatteryDeviceInterface;
+import it.usna.shellyscan.model.device.FieldsFilter;
 
 public abstract class AbstractBatteryG3Device extends AbstractG3Device implements BatteryDeviceInterface {
 	private final static Logger LOG = LoggerFactory.getLogger(AbstractBatteryG3Device.class);
@@ -47,6 +46,14 @@ public abstract class AbstractBatteryG3Device extends AbstractG3Device implement
 		return bat;
 	}
 	
+	/**
+	 * null: the whole status is read; devices keep it as stored status (see getStoredJSON(...))
+	 */
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return null;
+	}
+	
 	@Override
 	public JsonNode getStoredJSON(final String command) {
 		if(command.equals("/shelly") || command.equals("/rpc/Shelly.GetDeviceInfo")) {
@@ -90,16 +97,11 @@ public abstract class AbstractBatteryG3Device extends AbstractG3Device implement
 		Files.deleteIfExists(file);
 		try(FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + file.toUri()), Map.of("create", "true"))) {
 			sectionToStream("/rpc/Shelly.GetDeviceInfo", "Shelly.GetDeviceInfo.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/rpc/Shelly.GetConfig", "Shelly.GetConfig.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			sectionToStream("/rpc/Webhook.List", "Webhook.List.json", fs);
-			TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 			try {
 				sectionToStream("/rpc/KVS.GetMany", "items", "KVS.GetMany.json", fs);
 			} catch(Exception e) {}
-		} catch(InterruptedException e) {
-			LOG.error("backup", e);
 		} catch(Exception e) {
 			if(getStatus() != Status.ON_LINE && getStoredJSON("/rpc/Shelly.GetDeviceInfo") != null && getStoredJSON("/rpc/Shelly.GetConfig") != null && getStoredJSON("/rpc/Webhook.List") != null && getStoredJSON("/rpc/KVS.GetMany") != null) {
 				try(FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + file.toUri()), Map.of("create", "true"))) {
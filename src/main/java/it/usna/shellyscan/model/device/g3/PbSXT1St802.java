@@ -13,7 +13,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.Meters;
 import it.usna.shellyscan.model.device.ModulesHolder;
 import it.usna.shellyscan.model.device.g3.modules.XT1Thermostat;
@@ -79,7 +78,6 @@ public class PbSXT1St802 extends XT1 implements ModulesHolder {
 	protected void fillStatus(JsonNode status) throws IOException {
 		super.fillStatus(status);
 
-		try { Thread.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 		JsonNode sensors = getJSON("/rpc/Shelly.GetComponents?keys=[%22boolean:201%22,%22number:200%22,%22number:201%22,%22number:202%22,%22number:203%22,%22enum:201%22]");
 		for(JsonNode sensor: sensors.path("components")) {
 			try {
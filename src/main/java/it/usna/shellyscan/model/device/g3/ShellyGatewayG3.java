@@ -7,6 +7,8 @@ import java.util.Map;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import it.usna.shellyscan.model.device.FieldsFilter;
+
 /**
  * Shelly gateway G3 model
  * @author usna
@@ -28,6 +30,11 @@ public class ShellyGatewayG3 extends AbstractG3Device {
 		fillStatus(getJSON("/rpc/Shelly.GetStatus"));
 	}
 	
+	@Override
+	protected FieldsFilter getStatusFilter() {
+		return STATUS_FILTER; // skip "bthome..." components
+	}
+	
 	@Override
 	public String getTypeName() {
 		return "Shelly BLU Gateway G3";
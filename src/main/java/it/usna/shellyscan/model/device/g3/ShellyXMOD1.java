@@ -147,7 +147,6 @@ public class ShellyXMOD1 extends AbstractG3Device implements ModulesHolder {
 	@Override
 	protected void backup(FileSystem out) throws IOException, InterruptedException {
 		sectionToStream("/rpc/XMOD.GetInfo", "XMOD.GetInfo.json", out);
-		TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 	}
 
 	@Override
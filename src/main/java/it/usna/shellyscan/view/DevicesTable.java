@@ -12,7 +12,9 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Locale;
+import java.util.function.IntToDoubleFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -29,6 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import it.usna.shellyscan.Main;
+import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.GhostDevice;
 import it.usna.shellyscan.model.device.InternalTmpHolder;
 import it.usna.shellyscan.model.device.LabelHolder;
@@ -95,6 +98,8 @@ public class DevicesTable extends ExTooltipTable {
 	
 	private boolean tempUnitCelsius;
 	
+	private IntToDoubleFunction refreshRate; // model index -> achieved refreshes/s (see Devices.getRefreshRate(...))
+	
 	private final static Logger LOG = LoggerFactory.getLogger(DevicesTable.class);
 
 	public DevicesTable(TableModel tm) {
@@ -226,6 +231,10 @@ public class DevicesTable extends ExTooltipTable {
 				return String.format(LABELS.getString("col_uptime_tooltip"), gg, hh, mm, s, since);
 			} else if (value instanceof ImageIcon icon) {
 				adaptTooltipLocation = false;
+				final double rate;
+				if(modelCol == COL_STATUS_IDX && refreshRate != null && (rate = refreshRate.applyAsDouble(convertRowIndexToModel(r))) > 0) {
+					return String.format(Locale.ENGLISH, LABELS.getString("col_status_rate_tooltip"), icon.getDescription(), rate);
+				}
 				return icon.getDescription();
 			} else if(value instanceof ThermostatG1 therm) { // TRV G1
 				adaptTooltipLocation = false;
@@ -396,6 +405,13 @@ public class DevicesTable extends ExTooltipTable {
 		}
 	}
 
+	/**
+	 * @param rate model index -&gt; achieved status refreshes per second; shown on the status column tooltip
+	 */
+	public void setRefreshRate(IntToDoubleFunction rate) {
+		this.refreshRate = rate;
+	}
+
 	public void resetRowsComputedHeight() {
 		for(int i = 0; i < getRowCount(); i++) {
 			setRowHeight(i, 1);
@@ -434,6 +450,27 @@ public class DevicesTable extends ExTooltipTable {
 //		lsm.setLeadSelectionIndex(i2);
 	}
 	
+	// one table event and one sort for all updated rows
+	public void updateRows(BitSet modelIndexes, Devices model) {
+		final UsnaTableModel tModel = (UsnaTableModel)dataModel;
+		final int rowCount = tModel.getRowCount();
+		int first = -1, last = -1;
+		for(int i = modelIndexes.nextSetBit(0); i >= 0 && i < rowCount; i = modelIndexes.nextSetBit(i + 1)) {
+			ShellyAbstractDevice d = model.get(i);
+			generateRow(d, model.getGhost(d, i), tModel.getRow(i));
+			if(first < 0) {
+				first = i;
+			}
+			last = i;
+		}
+		if(first >= 0) {
+			tModel.fireTableRowsUpdated(first, last);
+			final int i1 = selectionModel.getAnchorSelectionIndex();
+			getRowSorter().allRowsChanged();
+			selectionModel.setAnchorSelectionIndex(i1);
+		}
+	}
+	
 	private static Object[] generateRow(ShellyAbstractDevice d, GhostDevice g, final Object row[]) {
 		try {
 			row[DevicesTable.COL_STATUS_IDX] = getStatusIcon(d);
@@ -12,7 +12,6 @@ import java.util.Iterator;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -48,7 +47,6 @@ import it.usna.shellyscan.model.Devices.EventType;
 import it.usna.shellyscan.model.device.BatteryDeviceInterface;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice.Status;
-import it.usna.shellyscan.model.device.g2.AbstractBatteryG2Device;
 import it.usna.shellyscan.view.util.UsnaTextPane;
 import it.usna.shellyscan.view.util.UtilMiscellaneous;
 import it.usna.swing.dialog.FindReplaceDialog;
@@ -76,8 +74,8 @@ public class DialogDeviceInfo extends JDialog implements UsnaEventListener<Devic
 		this.setSize(530, 650);
 		setLocationRelativeTo(owner);
 
-		// too many concurrent requests are dangerous (device reboot - G1) or cause websocket disconnection (G2)
-		executor = Executors.newScheduledThreadPool(device instanceof AbstractBatteryG2Device ? 6 : 2);
+		// concurrent requests to the device are limited by its RequestGovernor
+		executor = Executors.newScheduledThreadPool(6);
 
 		getContentPane().add(tabbedPane, BorderLayout.CENTER);
 
@@ -180,7 +178,7 @@ public class DialogDeviceInfo extends JDialog implements UsnaEventListener<Devic
 		}
 		panel.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 
-		executor.schedule(() -> {
+		executor.execute(() -> {
 			try {
 				String req = info;
 				int offset = 0;
@@ -192,11 +190,10 @@ public class DialogDeviceInfo extends JDialog implements UsnaEventListener<Devic
 					// Retrive current data
 					JsonNode val;
 					if(offset == 0) {
-						val = device.getJSON(req);
+						val = device.getJSON(req, ShellyAbstractDevice.RECENT_RESPONSE_AGE);
 						final String json = val.isNull() ? "" : writer.writeValueAsString(val);
 						textPane.setText(json, DEF_STYLE);
 					} else {
-						TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 						val = device.getJSON(req);
 						final String json = val.isNull() ? "" : writer.writeValueAsString(val);
 						textPane.append("\n\n <paging - offset=" + offset + ">\n\n", pageStyle);
@@ -235,7 +232,7 @@ public class DialogDeviceInfo extends JDialog implements UsnaEventListener<Devic
 				}
 			}
 			panel.setCursor(Cursor.getDefaultCursor());
-		}, Devices.MULTI_QUERY_DELAY, TimeUnit.MILLISECONDS);
+		});
 
 		JScrollPane scrollPane = new JScrollPane(textPane);
 		scrollPane.getVerticalScrollBar().setUnitIncrement(16);
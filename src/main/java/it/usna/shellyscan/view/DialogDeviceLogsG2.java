@@ -14,9 +14,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.time.Duration;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -34,9 +31,7 @@ import javax.swing.text.Style;
 import javax.swing.text.StyleConstants;
 import javax.swing.text.StyledDocument;
 
-import org.eclipse.jetty.websocket.api.Callback;
 import org.eclipse.jetty.websocket.api.Session;
-import org.eclipse.jetty.websocket.api.StatusCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +42,7 @@ import it.usna.shellyscan.model.device.ShellyAbstractDevice.LogMode;
 import it.usna.shellyscan.model.device.blu.AbstractBluDevice;
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 import it.usna.shellyscan.model.device.g2.WebSocketDeviceListener;
+import it.usna.shellyscan.model.device.g2.WebSocketHub;
 import it.usna.shellyscan.view.util.Msg;
 import it.usna.shellyscan.view.util.UsnaTextPane;
 import it.usna.shellyscan.view.util.UtilMiscellaneous;
@@ -56,7 +52,7 @@ public class DialogDeviceLogsG2 extends JDialog {
 	private static final long serialVersionUID = 1L;
 	private final static Logger LOG = LoggerFactory.getLogger(DialogDeviceLogsG2.class);
 	private boolean logWasActive;
-	private Future<Session> wsSession;
+	private WebSocketHub.Subscription wsSession;
 	private UsnaTextPane textArea = new UsnaTextPane();
 	private Style bluStyle = textArea.addStyle("blue", null);
 	private JComboBox<String> comboBox = new JComboBox<>();
@@ -152,16 +148,14 @@ public class DialogDeviceLogsG2 extends JDialog {
 		
 		try {
 			WebSocketDeviceListener wsListener = new LogWebSocketDeviceListener();
-			wsSession = device.connectWebSocketLogs(wsListener);
-			wsSession.get().setIdleTimeout(Duration.ofMinutes(30));
+			wsSession = device.subscribeWebSocketLogs(wsListener); // session shared with other log views (see WebSocketHub)
 			btnActivateLog.setEnabled(false);
 
 			btnActivateLog.addActionListener(event -> {
 				try {
 					setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-					if (wsSession.get().isOpen() == false) {
-						wsSession = device.connectWebSocketLogs(wsListener);
-						wsSession.get().setIdleTimeout(Duration.ofMinutes(30));
+					if (wsSession.isOpen() == false) {
+						wsSession = device.subscribeWebSocketLogs(wsListener);
 					}
 					btnActivateLog.setEnabled(false);
 					btnStopLog.setEnabled(true);
@@ -177,15 +171,9 @@ public class DialogDeviceLogsG2 extends JDialog {
 			btnStopLog.addActionListener(event -> {
 				try {
 					setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-					try {
-						if (wsSession.get().isOpen()) {
-							wsSession.get().close(StatusCode.NORMAL, "bye", Callback.NOOP);
-						}
-						btnActivateLog.setEnabled(true);
-						btnStopLog.setEnabled(false);
-					} catch (/*IOException |*/ InterruptedException | ExecutionException e1) {
-						LOG.error("webSocketClient.close", e1);
-					}
+					wsSession.close();
+					btnActivateLog.setEnabled(true);
+					btnStopLog.setEnabled(false);
 				} finally {
 					setCursor(Cursor.getDefaultCursor());
 				}
@@ -200,12 +188,7 @@ public class DialogDeviceLogsG2 extends JDialog {
 			addWindowListener(new WindowAdapter() {
 				@Override
 				public void windowClosing(WindowEvent e) {
-					try {
-//						wsSession.get().disconnect();
-						wsSession.get().close(StatusCode.NORMAL, "bye", Callback.NOOP);
-					} catch (Exception e1) {
-						LOG.error("webSocketClient.disconnect", e1);
-					}
+					wsSession.close();
 					dispose();
 				}
 
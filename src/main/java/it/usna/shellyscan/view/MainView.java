@@ -17,6 +17,7 @@ import java.awt.event.WindowEvent;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Paths;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
@@ -87,7 +88,7 @@ import it.usna.swing.texteditor.TextDocumentListener;
 import it.usna.util.AppProperties;
 import it.usna.util.UsnaEventListener;
 
-public class MainView extends MainWindow implements UsnaEventListener<Devices.EventType, Integer>, ScannerProperties.AppPropertyListener {
+public class MainView extends MainWindow implements UsnaEventListener<Devices.EventType, Integer>, Devices.UpdateBatchListener, ScannerProperties.AppPropertyListener {
 	private static final long serialVersionUID = 1L;
 	public final static int SHORTCUT_KEY = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
 	private final static Logger LOG = LoggerFactory.getLogger(MainWindow.class);
@@ -181,7 +182,7 @@ public class MainView extends MainWindow implements UsnaEventListener<Devices.Ev
 					tabModel.setValueAt(DevicesTable.UPDATING_BULLET, i, DevicesTable.COL_STATUS_IDX);
 					model.refresh(i, false);
 				} else {
-					update(Devices.EventType.UPDATE, i); // keyword
+					updateRow(i); // keyword
 				}
 			}
 			// too many call disturb some devices especially gen1
@@ -401,6 +402,7 @@ public class MainView extends MainWindow implements UsnaEventListener<Devices.Ev
 		devicesTable.sortByColumn(DevicesTable.COL_IP_IDX, SortOrder.ASCENDING);
 		devicesTable.loadColPos(appProp);
 		devicesTable.setUptimeRenderMode(appProp.getProperty(ScannerProperties.PROP_UPTIME_MODE/*, ScannerProperties.PROP_UPTIME_MODE_DEFAULT*/));
+		devicesTable.setRefreshRate(model::getRefreshRate);
 		
 		scrollPane.setViewportView(devicesTable);
 		scrollPane.getViewport().setBackground(Main.BG_COLOR);
@@ -663,6 +665,13 @@ public class MainView extends MainWindow implements UsnaEventListener<Devices.Ev
 				Msg.errorMsg(this, "Error storing archive");
 			}
 		}
+		if(appProp.getBoolProperty(ScannerProperties.PROP_DISCOVERY_CACHE)) {
+			try {
+				model.saveDiscoveryCache(Paths.get(ScannerProperties.DISCOVERY_CACHE_FILE));
+			} catch (IOException | RuntimeException ex) {
+				LOG.error("Discovery cache store", ex);
+			}
+		}
 		if(detailedViewAction.isSelected()) { // else -> normal view values stored on detailedView(true)
 			devicesTable.saveColPos(appProp, DevicesTable.STORE_EXT_PREFIX);
 			// no position/window size stored for detailed view
@@ -680,13 +689,12 @@ public class MainView extends MainWindow implements UsnaEventListener<Devices.Ev
 
 	@Override
 	public void update(Devices.EventType mesgType, Integer mIndex) {
+		if(mesgType == Devices.EventType.UPDATE) {
+			return; // rows are updated in batch -> update(BitSet)
+		}
 		SwingUtilities.invokeLater(() -> {
 			try {
-				if(mesgType == Devices.EventType.UPDATE) {
-					int modelIndex = mIndex;
-					ShellyAbstractDevice d = model.get(modelIndex);
-					devicesTable.updateRow(d, model.getGhost(d, modelIndex), modelIndex);
-				} else if(mesgType == Devices.EventType.ADD) {
+				if(mesgType == Devices.EventType.ADD) {
 					devicesTable.addRow(model.get(mIndex), model.getGhost(mIndex));
 					displayStatus();
 				} else if(mesgType == Devices.EventType.SUBSTITUTE) {
@@ -713,6 +721,33 @@ public class MainView extends MainWindow implements UsnaEventListener<Devices.Ev
 		});
 	}
 	
+	@Override
+	public void update(BitSet modelIndexes) {
+		SwingUtilities.invokeLater(() -> {
+			try {
+				devicesTable.updateRows(modelIndexes, model);
+			} catch (IndexOutOfBoundsException ex) {
+				LOG.debug("Unexpected", ex); // rescan/shutdown
+			} catch (Throwable ex) {
+				LOG.error("Unexpected", ex);
+			}
+		});
+	}
+	
+	// immediate update of a single row (e.g. after user actions)
+	public void updateRow(int modelIndex) {
+		SwingUtilities.invokeLater(() -> {
+			try {
+				ShellyAbstractDevice d = model.get(modelIndex);
+				devicesTable.updateRow(d, model.getGhost(d, modelIndex), modelIndex);
+			} catch (IndexOutOfBoundsException ex) {
+				LOG.debug("Unexpected", ex); // rescan/shutdown
+			} catch (Throwable ex) {
+				LOG.error("Unexpected", ex);
+			}
+		});
+	}
+	
 	@Override
 	public void update(PropertyEvent e, String propKey) {
 		if(ScannerProperties.PROP_TOOLBAR_CAPTIONS.equals(propKey)) {
@@ -24,7 +24,6 @@ import javax.swing.undo.UndoManager;
 
 import it.usna.shellyscan.controller.UsnaAction;
 import it.usna.shellyscan.controller.UsnaTextAction;
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.GhostDevice;
 import it.usna.shellyscan.view.util.UtilMiscellaneous;
 import it.usna.swing.dialog.FindReplaceDialog;
@@ -122,7 +121,7 @@ public class NotesEditor extends JFrame {
 			ghost.setNote(notesEditor.getText());
 			String keyNote = textFieldKeyword.getText();
 			ghost.setKeyNote(keyNote.substring(0, Math.min(MAX_KEYWORD_SIZE, keyNote.length())));
-			mView.update(Devices.EventType.UPDATE, index);
+			mView.updateRow(index);
 			dispose();
 		});
 		buttonsPanel.add(saveButton);
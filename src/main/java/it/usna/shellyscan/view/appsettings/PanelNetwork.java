@@ -42,6 +42,15 @@ public class PanelNetwork extends JPanel {
 	private JPasswordField passwordFieldRL;
 	private IntegerTextFieldPanel refreshTextField;
 	private IntegerTextFieldPanel confRefreshtextField;
+	private JCheckBox chckbxPushRefresh;
+	private JCheckBox chckbxAdaptiveRefresh;
+	private JCheckBox chckbxLightweightRefresh;
+	private IntegerTextFieldPanel refreshMinTextField;
+	private IntegerTextFieldPanel refreshMaxTextField;
+	private JTextField refreshTypeBoundsField;
+	private JTextField mqttBrokerField;
+	private JTextField mqttUserField;
+	private JPasswordField mqttPasswordField;
 	
 	private JPanel panelIP = new JPanel();
 	private JButton btnIPEdit = new JButton(LABELS.getString("edit"));
@@ -51,7 +60,7 @@ public class PanelNetwork extends JPanel {
 		dialogIP = new DialogNetworkIPScanSelection(parent);
 		
 		GridBagLayout gridBagLayout = new GridBagLayout();
-		gridBagLayout.rowWeights = new double[]{0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0};
+		gridBagLayout.rowWeights = new double[]{0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0};
 		gridBagLayout.columnWeights = new double[]{1.0, 1.0, 0.0, 10.0};
 		gridBagLayout.columnWidths = new int[]{0, 0, 0, 10};
 		setLayout(gridBagLayout);
@@ -235,6 +244,15 @@ public class PanelNetwork extends JPanel {
 		add(refreshTextField, gbc_refreshtextField);
 		refreshTextField.setColumns(4);
 		
+		chckbxPushRefresh = new JCheckBox(LABELS.getString("dlgAppSetPushRefresh"), appProp.getBoolProperty(ScannerProperties.PROP_REFRESH_PUSH));
+		GridBagConstraints gbc_chckbxPushRefresh = new GridBagConstraints();
+		gbc_chckbxPushRefresh.anchor = GridBagConstraints.WEST;
+		gbc_chckbxPushRefresh.insets = new Insets(0, 0, 5, 5);
+		gbc_chckbxPushRefresh.gridwidth = 2;
+		gbc_chckbxPushRefresh.gridx = 2;
+		gbc_chckbxPushRefresh.gridy = 7;
+		add(chckbxPushRefresh, gbc_chckbxPushRefresh);
+		
 		JLabel lblNewLabel_4 = new JLabel(LABELS.getString("dlgAppSetConfRefreshTic"));
 		lblNewLabel_4.setFont(new Font("Tahoma", Font.BOLD, 11));
 		GridBagConstraints gbc_lblNewLabel_4 = new GridBagConstraints();
@@ -253,6 +271,128 @@ public class PanelNetwork extends JPanel {
 		add(confRefreshtextField, gbc_confRefreshtextField);
 		confRefreshtextField.setColumns(4);
 		
+		chckbxAdaptiveRefresh = new JCheckBox(LABELS.getString("dlgAppSetAdaptiveRefresh"), appProp.getBoolProperty(ScannerProperties.PROP_REFRESH_ADAPTIVE));
+		GridBagConstraints gbc_chckbxAdaptiveRefresh = new GridBagConstraints();
+		gbc_chckbxAdaptiveRefresh.anchor = GridBagConstraints.WEST;
+		gbc_chckbxAdaptiveRefresh.insets = new Insets(0, 0, 5, 5);
+		gbc_chckbxAdaptiveRefresh.gridwidth = 2;
+		gbc_chckbxAdaptiveRefresh.gridx = 2;
+		gbc_chckbxAdaptiveRefresh.gridy = 8;
+		add(chckbxAdaptiveRefresh, gbc_chckbxAdaptiveRefresh);
+		
+		chckbxLightweightRefresh = new JCheckBox(LABELS.getString("dlgAppSetLightweightRefresh"), appProp.getBoolProperty(ScannerProperties.PROP_REFRESH_LIGHTWEIGHT));
+		GridBagConstraints gbc_chckbxLightweightRefresh = new GridBagConstraints();
+		gbc_chckbxLightweightRefresh.anchor = GridBagConstraints.WEST;
+		gbc_chckbxLightweightRefresh.insets = new Insets(0, 0, 5, 5);
+		gbc_chckbxLightweightRefresh.gridwidth = 2;
+		gbc_chckbxLightweightRefresh.gridx = 2;
+		gbc_chckbxLightweightRefresh.gridy = 9;
+		add(chckbxLightweightRefresh, gbc_chckbxLightweightRefresh);
+		
+		JLabel lblAdaptiveRange = new JLabel(LABELS.getString("dlgAppSetAdaptiveRange"));
+		GridBagConstraints gbc_lblAdaptiveRange = new GridBagConstraints();
+		gbc_lblAdaptiveRange.anchor = GridBagConstraints.WEST;
+		gbc_lblAdaptiveRange.insets = new Insets(0, 0, 5, 5);
+		gbc_lblAdaptiveRange.gridx = 0;
+		gbc_lblAdaptiveRange.gridy = 9;
+		add(lblAdaptiveRange, gbc_lblAdaptiveRange);
+		
+		JPanel panelAdaptiveRange = new JPanel(new FlowLayout(FlowLayout.LEFT, 2, 0));
+		refreshMinTextField = new IntegerTextFieldPanel(appProp.getIntProperty(ScannerProperties.PROP_REFRESH_MIN), 1, 3600, false);
+		refreshMinTextField.setColumns(4);
+		panelAdaptiveRange.add(refreshMinTextField);
+		panelAdaptiveRange.add(new JLabel("-"));
+		refreshMaxTextField = new IntegerTextFieldPanel(appProp.getIntProperty(ScannerProperties.PROP_REFRESH_MAX), 1, 3600, false);
+		refreshMaxTextField.setColumns(4);
+		panelAdaptiveRange.add(refreshMaxTextField);
+		GridBagConstraints gbc_panelAdaptiveRange = new GridBagConstraints();
+		gbc_panelAdaptiveRange.anchor = GridBagConstraints.WEST;
+		gbc_panelAdaptiveRange.insets = new Insets(0, 0, 5, 5);
+		gbc_panelAdaptiveRange.gridx = 1;
+		gbc_panelAdaptiveRange.gridy = 9;
+		add(panelAdaptiveRange, gbc_panelAdaptiveRange);
+		
+		JLabel lblAdaptiveTypes = new JLabel(LABELS.getString("dlgAppSetAdaptiveTypeRange"));
+		GridBagConstraints gbc_lblAdaptiveTypes = new GridBagConstraints();
+		gbc_lblAdaptiveTypes.anchor = GridBagConstraints.WEST;
+		gbc_lblAdaptiveTypes.insets = new Insets(0, 0, 5, 5);
+		gbc_lblAdaptiveTypes.gridx = 0;
+		gbc_lblAdaptiveTypes.gridy = 10;
+		add(lblAdaptiveTypes, gbc_lblAdaptiveTypes);
+		
+		refreshTypeBoundsField = new JTextField(appProp.getProperty(ScannerProperties.PROP_REFRESH_TYPE_BOUNDS));
+		refreshTypeBoundsField.setToolTipText(LABELS.getString("dlgAppSetAdaptiveTypeRangeTooltip"));
+		GridBagConstraints gbc_refreshTypeBoundsField = new GridBagConstraints();
+		gbc_refreshTypeBoundsField.fill = GridBagConstraints.HORIZONTAL;
+		gbc_refreshTypeBoundsField.insets = new Insets(0, 0, 5, 0);
+		gbc_refreshTypeBoundsField.gridwidth = 3;
+		gbc_refreshTypeBoundsField.gridx = 1;
+		gbc_refreshTypeBoundsField.gridy = 10;
+		add(refreshTypeBoundsField, gbc_refreshTypeBoundsField);
+		
+		JLabel lblMqttBroker = new JLabel(LABELS.getString("dlgAppSetMqttBroker"));
+		GridBagConstraints gbc_lblMqttBroker = new GridBagConstraints();
+		gbc_lblMqttBroker.anchor = GridBagConstraints.WEST;
+		gbc_lblMqttBroker.insets = new Insets(0, 2, 5, 5);
+		gbc_lblMqttBroker.gridx = 1;
+		gbc_lblMqttBroker.gridy = 11;
+		add(lblMqttBroker, gbc_lblMqttBroker);
+
+		JLabel lblMqttUser = new JLabel(LABELS.getString("labelUser"));
+		GridBagConstraints gbc_lblMqttUser = new GridBagConstraints();
+		gbc_lblMqttUser.anchor = GridBagConstraints.WEST;
+		gbc_lblMqttUser.insets = new Insets(0, 2, 5, 5);
+		gbc_lblMqttUser.gridx = 2;
+		gbc_lblMqttUser.gridy = 11;
+		add(lblMqttUser, gbc_lblMqttUser);
+
+		JLabel lblMqttPassword = new JLabel(LABELS.getString("labelPassword"));
+		GridBagConstraints gbc_lblMqttPassword = new GridBagConstraints();
+		gbc_lblMqttPassword.anchor = GridBagConstraints.WEST;
+		gbc_lblMqttPassword.insets = new Insets(0, 2, 5, 0);
+		gbc_lblMqttPassword.gridx = 3;
+		gbc_lblMqttPassword.gridy = 11;
+		add(lblMqttPassword, gbc_lblMqttPassword);
+
+		JLabel lblMqtt = new JLabel(LABELS.getString("dlgAppSetMqtt"));
+		lblMqtt.setFont(new Font("Tahoma", Font.BOLD, 11));
+		GridBagConstraints gbc_lblMqtt = new GridBagConstraints();
+		gbc_lblMqtt.anchor = GridBagConstraints.WEST;
+		gbc_lblMqtt.insets = new Insets(0, 0, 5, 5);
+		gbc_lblMqtt.gridx = 0;
+		gbc_lblMqtt.gridy = 12;
+		add(lblMqtt, gbc_lblMqtt);
+
+		mqttBrokerField = new JTextField(appProp.getProperty(ScannerProperties.PROP_MQTT_BROKER));
+		GridBagConstraints gbc_mqttBrokerField = new GridBagConstraints();
+		gbc_mqttBrokerField.anchor = GridBagConstraints.WEST;
+		gbc_mqttBrokerField.insets = new Insets(0, 0, 5, 5);
+		gbc_mqttBrokerField.gridx = 1;
+		gbc_mqttBrokerField.gridy = 12;
+		add(mqttBrokerField, gbc_mqttBrokerField);
+		mqttBrokerField.setColumns(20);
+
+		mqttUserField = new JTextField(appProp.getProperty(ScannerProperties.PROP_MQTT_USER));
+		GridBagConstraints gbc_mqttUserField = new GridBagConstraints();
+		gbc_mqttUserField.anchor = GridBagConstraints.WEST;
+		gbc_mqttUserField.insets = new Insets(0, 0, 5, 5);
+		gbc_mqttUserField.gridx = 2;
+		gbc_mqttUserField.gridy = 12;
+		add(mqttUserField, gbc_mqttUserField);
+		mqttUserField.setColumns(10);
+
+		mqttPasswordField = new JPasswordField();
+		try {
+			mqttPasswordField.setText(new String(Base64.getDecoder().decode(appProp.getProperty(ScannerProperties.PROP_MQTT_PWD).substring(1))));
+		} catch(RuntimeException e) {}
+		mqttPasswordField.setColumns(10);
+		GridBagConstraints gbc_mqttPasswordField = new GridBagConstraints();
+		gbc_mqttPasswordField.anchor = GridBagConstraints.WEST;
+		gbc_mqttPasswordField.insets = new Insets(0, 0, 5, 0);
+		gbc_mqttPasswordField.gridx = 3;
+		gbc_mqttPasswordField.gridy = 12;
+		add(mqttPasswordField, gbc_mqttPasswordField);
+		
 		JLabel lblNewLabel_5 = new JLabel(LABELS.getString("dlgAppSetRefreshMsg"));
 		lblNewLabel_5.setVerticalAlignment(SwingConstants.TOP);
 		GridBagConstraints gbc_lblNewLabel_5 = new GridBagConstraints();
@@ -261,7 +401,7 @@ public class PanelNetwork extends JPanel {
 		gbc_lblNewLabel_5.anchor = GridBagConstraints.NORTHWEST;
 		gbc_lblNewLabel_5.gridwidth = 4;
 		gbc_lblNewLabel_5.gridx = 0;
-		gbc_lblNewLabel_5.gridy = 9;
+		gbc_lblNewLabel_5.gridy = 13;
 		add(lblNewLabel_5, gbc_lblNewLabel_5);
 		
 		final char pwdEchoChar = passwordFieldRL.getEchoChar();
@@ -322,12 +462,39 @@ public class PanelNetwork extends JPanel {
 		// Refresh
 		boolean r0 = appProp.changeProperty(ScannerProperties.PROP_REFRESH_ITERVAL, refreshTextField.getText());
 		boolean r1 = appProp.changeProperty(ScannerProperties.PROP_REFRESH_CONF, confRefreshtextField.getText());
-		if(r0 || r1) {
+		boolean r2 = appProp.changeProperty(ScannerProperties.PROP_REFRESH_ADAPTIVE, String.valueOf(chckbxAdaptiveRefresh.isSelected()));
+		boolean r3 = appProp.changeProperty(ScannerProperties.PROP_REFRESH_LIGHTWEIGHT, String.valueOf(chckbxLightweightRefresh.isSelected()));
+		boolean r4 = appProp.changeProperty(ScannerProperties.PROP_REFRESH_MIN, refreshMinTextField.getText());
+		boolean r5 = appProp.changeProperty(ScannerProperties.PROP_REFRESH_MAX, refreshMaxTextField.getText());
+		boolean r6 = appProp.changeProperty(ScannerProperties.PROP_REFRESH_TYPE_BOUNDS, refreshTypeBoundsField.getText().trim());
+		if(r0 || r1 || r2 || r3 || r4 || r5 || r6) {
 			model.setRefreshTime(appProp.getIntProperty(ScannerProperties.PROP_REFRESH_ITERVAL) * 1000, appProp.getIntProperty(ScannerProperties.PROP_REFRESH_CONF));
+			model.setLightweightRefresh(chckbxLightweightRefresh.isSelected());
+			model.setAdaptiveRefresh(chckbxAdaptiveRefresh.isSelected(), appProp.getIntProperty(ScannerProperties.PROP_REFRESH_MIN) * 1000, appProp.getIntProperty(ScannerProperties.PROP_REFRESH_MAX) * 1000,
+					Devices.RefreshBounds.parse(appProp.getProperty(ScannerProperties.PROP_REFRESH_TYPE_BOUNDS)));
 			for(int i = 0; i < model.size(); i++) {
 				model.refresh(i, true);
 			}
 		}
+		if(appProp.changeProperty(ScannerProperties.PROP_REFRESH_PUSH, String.valueOf(chckbxPushRefresh.isSelected()))) {
+			model.setPushRefresh(chckbxPushRefresh.isSelected());
+		}
+		
+		// MQTT
+		final String mqttBroker = mqttBrokerField.getText().trim();
+		final String mqttUser = mqttUserField.getText().trim();
+		final char[] mqttPwd = mqttPasswordField.getPassword();
+		String encodedMqttPwd = "";
+		if(mqttUser.length() > 0) {
+			String pwdStr = new String(mqttPwd);
+			encodedMqttPwd = (char)(pwdStr.hashCode() % ('Z' - 'A') + 'A') + Base64.getEncoder().encodeToString(pwdStr.getBytes());
+		}
+		boolean m0 = appProp.changeProperty(ScannerProperties.PROP_MQTT_BROKER, mqttBroker);
+		boolean m1 = appProp.changeProperty(ScannerProperties.PROP_MQTT_USER, mqttUser);
+		boolean m2 = appProp.changeProperty(ScannerProperties.PROP_MQTT_PWD, encodedMqttPwd);
+		if(m0 || m1 || m2) {
+			model.setMqttBroker(mqttBroker, mqttUser, mqttPwd);
+		}
 
 		dialogIP.store(model);
 	}
@@ -36,10 +36,11 @@ public class PanelStore extends JPanel {
 	private JCheckBox chckbxUseStore = new JCheckBox();
 	private JTextField textFieldStoreFileName;
 	private JCheckBox autoReloadCheckBox;
+	private JCheckBox discoveryCacheCheckBox;
 
 	PanelStore(final Devices model, final AppProperties appProp) {
 		GridBagLayout gridBagLayout = new GridBagLayout();
-		gridBagLayout.rowHeights = new int[] {0, 0, 0, 3};
+		gridBagLayout.rowHeights = new int[] {0, 0, 0, 0, 3};
 		gridBagLayout.columnWeights = new double[]{0.2, 1.0, 0.0};
 //		gridBagLayout.columnWidths = new int[]{0, 10, 0};
 		setLayout(gridBagLayout);
@@ -109,7 +110,6 @@ public class PanelStore extends JPanel {
 		JLabel lblNewLabel_1 = new JLabel(LABELS.getString("dlgAppStoreAutoReload"));
 		lblNewLabel_1.setFont(new Font("Tahoma", Font.BOLD, 11));
 		GridBagConstraints gbc_lblNewLabel_1 = new GridBagConstraints();
-		gbc_lblNewLabel_1.weighty = 1.0;
 		gbc_lblNewLabel_1.anchor = GridBagConstraints.NORTHWEST;
 		gbc_lblNewLabel_1.insets = new Insets(0, 0, 10, 15);
 		gbc_lblNewLabel_1.gridx = 0;
@@ -126,6 +126,28 @@ public class PanelStore extends JPanel {
 		gbc_chckbxNewCheckBox.gridx = 1;
 		gbc_chckbxNewCheckBox.gridy = 3;
 		add(autoReloadCheckBox, gbc_chckbxNewCheckBox);
+		
+		JLabel lblDiscoveryCache = new JLabel(LABELS.getString("dlgAppStoreDiscoveryCache"));
+		lblDiscoveryCache.setFont(new Font("Tahoma", Font.BOLD, 11));
+		GridBagConstraints gbc_lblDiscoveryCache = new GridBagConstraints();
+		gbc_lblDiscoveryCache.weighty = 1.0;
+		gbc_lblDiscoveryCache.anchor = GridBagConstraints.NORTHWEST;
+		gbc_lblDiscoveryCache.insets = new Insets(0, 0, 10, 15);
+		gbc_lblDiscoveryCache.gridx = 0;
+		gbc_lblDiscoveryCache.gridy = 4;
+		add(lblDiscoveryCache, gbc_lblDiscoveryCache);
+		
+		discoveryCacheCheckBox = new JCheckBox(LABELS.getString("dlgAppStoreDiscoveryCacheTooltip"));
+		discoveryCacheCheckBox.setVerticalTextPosition(SwingConstants.TOP);
+		GridBagConstraints gbc_discoveryCacheCheckBox = new GridBagConstraints();
+		gbc_discoveryCacheCheckBox.fill = GridBagConstraints.HORIZONTAL;
+		gbc_discoveryCacheCheckBox.gridwidth = 2;
+		gbc_discoveryCacheCheckBox.anchor = GridBagConstraints.NORTHWEST;
+		gbc_discoveryCacheCheckBox.insets = new Insets(0, 0, 0, 5);
+		gbc_discoveryCacheCheckBox.gridx = 1;
+		gbc_discoveryCacheCheckBox.gridy = 4;
+		add(discoveryCacheCheckBox, gbc_discoveryCacheCheckBox);
+		discoveryCacheCheckBox.setSelected(appProp.getBoolProperty(ScannerProperties.PROP_DISCOVERY_CACHE));
 		btnNewButton.addActionListener(event -> {
 			final String cancel = UIManager.getString("OptionPane.cancelButtonText");
 			if(JOptionPane.showOptionDialog(
@@ -173,5 +195,6 @@ public class PanelStore extends JPanel {
 		}
 		boolean autoReload = autoReloadCheckBox.isSelected();
 		appProp.setBoolProperty(ScannerProperties.PROP_AUTORELOAD_ARCHIVE, autoReload);
+		appProp.setBoolProperty(ScannerProperties.PROP_DISCOVERY_CACHE, discoveryCacheCheckBox.isSelected());
 	}
 }
\ No newline at end of file
@@ -555,7 +555,7 @@ public class MeasuresChart extends JFrame implements UsnaEventListener<Devices.E
 					adjustScrollBar();
 				});
 			}
-		} else if(mesgType == Devices.EventType.CLEAR) {
+		} else if(mesgType == Devices.EventType.CLEAR || mesgType == Devices.EventType.DELETE) {
 			SwingUtilities.invokeLater(() -> dispose());
 		}
 	}
@@ -508,9 +508,9 @@ public class CheckListView extends JDialog implements UsnaEventListener<Devices.
 		exeService.execute(() -> {
 			try {
 				if (d instanceof AbstractG1Device g1) {
-					g1Row(g1, d.getJSON("/settings"), tRow);
+					g1Row(g1, d.getJSON("/settings", ShellyAbstractDevice.SETTINGS_SNAPSHOT_AGE), tRow);
 				} else if (d instanceof AbstractG2Device g2) { // G2-G3-...
-					g2Row(g2, d.getJSON("/rpc/Shelly.GetConfig"), d.getJSON("/rpc/Shelly.GetStatus"), tRow);
+					g2Row(g2, d.getJSON("/rpc/Shelly.GetConfig", ShellyAbstractDevice.SETTINGS_SNAPSHOT_AGE), d.getJSON("/rpc/Shelly.GetStatus", ShellyAbstractDevice.RECENT_RESPONSE_AGE), tRow);
 				} else /*if (d instanceof AbstractBluDevice blu)*/ {
 					//bluRow(blu, tRow);
 					tRow[CheckListTable.COL_STATUS] = DevicesTable.getStatusIcon(d);
@@ -689,7 +689,7 @@ public class CheckListView extends JDialog implements UsnaEventListener<Devices.
 
 	@Override
 	public void update(EventType mesgType, Integer pos) {
-		if (mesgType == Devices.EventType.CLEAR) {
+		if (mesgType == Devices.EventType.CLEAR || mesgType == Devices.EventType.DELETE) {
 			SwingUtilities.invokeLater(() -> dispose()); // devicesInd changes
 		} else if (mesgType == Devices.EventType.UPDATE) {
 			try {
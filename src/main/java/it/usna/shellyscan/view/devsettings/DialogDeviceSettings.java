@@ -7,7 +7,6 @@ import java.awt.Cursor;
 import java.awt.FlowLayout;
 import java.awt.Frame;
 import java.awt.Window;
-import java.util.concurrent.TimeUnit;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -98,6 +97,8 @@ public class DialogDeviceSettings extends JDialog implements UsnaEventListener<D
 			panelMQTT = new PanelMQTTMix(this);
 		}
 		tabbedPane.add(LABELS.getString("dlgSetMQTT"), panelMQTT);
+		PanelOutboundWS panelWS = new PanelOutboundWS(this);
+		tabbedPane.add(LABELS.getString("dlgSetOutboundWS"), panelWS);
 		PanelOthers others = new PanelOthers(this);
 		tabbedPane.add(LABELS.getString("dlgSetOthers"), others);
 
@@ -120,12 +121,7 @@ public class DialogDeviceSettings extends JDialog implements UsnaEventListener<D
 		
 		tabbedPane.setSelectedIndex(defaultPanel);
 
-		tabbedPane.addChangeListener(e -> {
-			showCurrent();
-			try {
-				TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
-			} catch (InterruptedException e1) {}
-		});
+		tabbedPane.addChangeListener(e -> showCurrent());
 		setVisible(true);
 		showCurrent();
 	}
@@ -248,7 +244,7 @@ public class DialogDeviceSettings extends JDialog implements UsnaEventListener<D
 	
 	@Override
 	public void update(EventType mesgType, Integer pos) {
-		if(mesgType == Devices.EventType.CLEAR) {
+		if(mesgType == Devices.EventType.CLEAR || mesgType == Devices.EventType.DELETE) {
 			SwingUtilities.invokeLater(() -> dispose()); // devicesInd changes
 		}
 	}
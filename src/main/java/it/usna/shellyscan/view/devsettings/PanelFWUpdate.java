@@ -32,7 +32,6 @@ import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
 import javax.swing.table.TableColumn;
 
-import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.exceptions.WebSocketTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +49,7 @@ import it.usna.shellyscan.model.device.ShellyAbstractDevice.Status;
 import it.usna.shellyscan.model.device.blu.AbstractBluDevice;
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 import it.usna.shellyscan.model.device.g2.WebSocketDeviceListener;
+import it.usna.shellyscan.model.device.g2.WebSocketHub;
 import it.usna.shellyscan.model.device.modules.FirmwareManager;
 import it.usna.shellyscan.view.DevicesTable;
 import it.usna.shellyscan.view.MainView;
@@ -263,13 +263,7 @@ public class PanelFWUpdate extends AbstractSettingsPanel implements UsnaEventLis
 		if(retriveFutures != null) {
 			retriveFutures.forEach(f -> f.cancel(true));
 		}
-		devicesFWData.stream().map(dd -> dd.wsSession).filter(futureSession -> futureSession != null).forEach(futureSession -> {
-			try {
-				futureSession.get().close();
-			} catch (InterruptedException | ExecutionException e) {
-				LOG.error("ws-close", e);
-			}
-		});
+		devicesFWData.stream().map(dd -> dd.wsSession).filter(subscription -> subscription != null).forEach(WebSocketHub.Subscription::close);
 	}
 
 	private class GetFWManagerCaller implements Callable<Void> {
@@ -346,7 +340,7 @@ public class PanelFWUpdate extends AbstractSettingsPanel implements UsnaEventLis
 				}
 			} else { // success
 				try {
-					if(fwInfo.wsSession != null && fwInfo.wsSession.get().isOpen() == false) {
+					if(fwInfo.wsSession != null && fwInfo.wsSession.isOpen() == false) {
 						fwInfo.wsSession = wsEventListener(i, device);
 					}
 				} catch (InterruptedException | ExecutionException | IOException e) {}
@@ -380,11 +374,16 @@ public class PanelFWUpdate extends AbstractSettingsPanel implements UsnaEventLis
 		return countS + countB;
 	}
 
-	private Future<Session> wsEventListener(int index, ShellyAbstractDevice d) throws IOException, InterruptedException, ExecutionException {
+	// parent and BLU devices share the parent "/rpc" session (see WebSocketHub)
+	private WebSocketHub.Subscription wsEventListener(int index, ShellyAbstractDevice d) throws IOException, InterruptedException, ExecutionException {
+		final WebSocketHub.Subscription old = devicesFWData.get(index).wsSession;
+		if(old != null) {
+			old.close();
+		}
 		if(d instanceof AbstractBluDevice blu) {
-			return ((AbstractG2Device)blu.getParent()).connectWebSocketClient(new FMUpdateListener(index, AbstractBluDevice.DEVICE_KEY_PREFIX + blu.getIndex()));
+			return ((AbstractG2Device)blu.getParent()).subscribeWebSocket(new FMUpdateListener(index, AbstractBluDevice.DEVICE_KEY_PREFIX + blu.getIndex()));
 		} else {
-			return ((AbstractG2Device)d).connectWebSocketClient(new FMUpdateListener(index, "sys"));
+			return ((AbstractG2Device)d).subscribeWebSocket(new FMUpdateListener(index, "sys"));
 		}
 	}
 	
@@ -443,7 +442,7 @@ public class PanelFWUpdate extends AbstractSettingsPanel implements UsnaEventLis
 
 	private static class DeviceFirmware {
 		private FirmwareManager fwModule;
-		private Future<Session> wsSession;
+		private WebSocketHub.Subscription wsSession;
 		private long rebootTime = Long.MAX_VALUE; // g2+
 		private int uptime = -1; // g1
 		private ShellyAbstractDevice.Status status;
@@ -10,7 +10,6 @@ import java.awt.event.ActionEvent;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.concurrent.TimeUnit;
 
 import javax.swing.AbstractButton;
 import javax.swing.BorderFactory;
@@ -29,7 +28,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 
 import it.usna.shellyscan.controller.DeferrableTask;
 import it.usna.shellyscan.controller.DeferrablesContainer;
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.DeviceOfflineException;
 import it.usna.shellyscan.model.device.GhostDevice;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice;
@@ -215,11 +213,11 @@ public class PanelOthers extends AbstractSettingsPanel {
 				final TimeAndLocationManager timeManager;
 				final InputResetManager inputResetMode;
 				if (d instanceof AbstractG1Device g1) {
-					JsonNode config = d.getJSON("/settings");
+					JsonNode config = d.getJSON("/settings", ShellyAbstractDevice.RECENT_RESPONSE_AGE);
 					timeManager = new TimeAndLocationManagerG1(g1, config);
 					inputResetMode = new InputResetManagerG1(g1, config);
 				} else if (d instanceof AbstractG2Device g2) { // G2-G3-G4
-					JsonNode config = d.getJSON("/rpc/Shelly.GetConfig");
+					JsonNode config = d.getJSON("/rpc/Shelly.GetConfig", ShellyAbstractDevice.SETTINGS_SNAPSHOT_AGE); // valid while cfg_rev is unchanged
 					timeManager = new TimeAndLocationManagerG2(g2, config);
 					inputResetMode = new InputResetManagerG2(g2, config);
 				} else if (d instanceof GhostDevice) {
@@ -298,7 +296,6 @@ public class PanelOthers extends AbstractSettingsPanel {
 			res = applyInputReset();
 		}
 		try {
-			try { TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY); } catch (InterruptedException e) {}
 			fill(false);
 		} catch (InterruptedException e) {}
 		return res;
@@ -0,0 +1,214 @@
+package it.usna.shellyscan.view.devsettings;
+
+import static it.usna.shellyscan.Main.LABELS;
+
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.awt.event.ItemEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JTextField;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import it.usna.shellyscan.model.Devices;
+import it.usna.shellyscan.model.OutboundWsServer;
+import it.usna.shellyscan.model.device.ShellyAbstractDevice;
+import it.usna.shellyscan.model.device.g2.AbstractG2Device;
+import it.usna.shellyscan.view.util.Msg;
+import it.usna.shellyscan.view.util.ScannerProperties;
+import it.usna.shellyscan.view.util.UtilMiscellaneous;
+
+/**
+ * Gen2+ outbound web socket (Ws.SetConfig): point selected devices to a server, typically this scanner
+ * (see OutboundWsServer)
+ */
+public class PanelOutboundWS extends AbstractSettingsPanel {
+	private static final long serialVersionUID = 1L;
+	private JCheckBox chckbxEnabled = new JCheckBox();
+	private JTextField textFieldServer = new JTextField();
+	private JButton btnThisScanner = new JButton(LABELS.getString("dlgSetWsThisScanner"));
+	private ArrayList<AbstractG2Device> devices = new ArrayList<>(); // null: excluded or not reachable
+
+	public PanelOutboundWS(DialogDeviceSettings parent) {
+		super(parent);
+		setBorder(BorderFactory.createEmptyBorder(6, 6, 2, 6));
+		GridBagLayout gridBagLayout = new GridBagLayout();
+		gridBagLayout.columnWidths = new int[] {0, 0, 0};
+		gridBagLayout.rowHeights = new int[] {0, 0, 30};
+		gridBagLayout.columnWeights = new double[]{0.0, 1.0, 0.0};
+		gridBagLayout.rowWeights = new double[]{0.0, 0.0, Double.MIN_VALUE};
+		setLayout(gridBagLayout);
+
+		JLabel lblEnabled = new JLabel(LABELS.getString("lblEnabled"));
+		GridBagConstraints gbc_lblEnabled = new GridBagConstraints();
+		gbc_lblEnabled.anchor = GridBagConstraints.WEST;
+		gbc_lblEnabled.insets = new Insets(0, 0, 5, 5);
+		gbc_lblEnabled.gridx = 0;
+		gbc_lblEnabled.gridy = 0;
+		add(lblEnabled, gbc_lblEnabled);
+
+		GridBagConstraints gbc_chckbxEnabled = new GridBagConstraints();
+		gbc_chckbxEnabled.anchor = GridBagConstraints.WEST;
+		gbc_chckbxEnabled.insets = new Insets(0, 0, 5, 5);
+		gbc_chckbxEnabled.gridx = 1;
+		gbc_chckbxEnabled.gridy = 0;
+		add(chckbxEnabled, gbc_chckbxEnabled);
+
+		JLabel lblServer = new JLabel(LABELS.getString("dlgSetServer"));
+		GridBagConstraints gbc_lblServer = new GridBagConstraints();
+		gbc_lblServer.anchor = GridBagConstraints.WEST;
+		gbc_lblServer.insets = new Insets(0, 0, 5, 5);
+		gbc_lblServer.gridx = 0;
+		gbc_lblServer.gridy = 1;
+		add(lblServer, gbc_lblServer);
+
+		GridBagConstraints gbc_textFieldServer = new GridBagConstraints();
+		gbc_textFieldServer.insets = new Insets(0, 0, 5, 5);
+		gbc_textFieldServer.fill = GridBagConstraints.HORIZONTAL;
+		gbc_textFieldServer.gridx = 1;
+		gbc_textFieldServer.gridy = 1;
+		add(textFieldServer, gbc_textFieldServer);
+
+		GridBagConstraints gbc_btnThisScanner = new GridBagConstraints();
+		gbc_btnThisScanner.insets = new Insets(0, 0, 5, 0);
+		gbc_btnThisScanner.gridx = 2;
+		gbc_btnThisScanner.gridy = 1;
+		add(btnThisScanner, gbc_btnThisScanner);
+
+		chckbxEnabled.addItemListener(event -> setEnabledServer(event.getStateChange() == ItemEvent.SELECTED));
+		btnThisScanner.addActionListener(event -> thisScanner());
+	}
+
+	private void setEnabledServer(boolean enabled) {
+		textFieldServer.setEnabled(enabled);
+		btnThisScanner.setEnabled(enabled);
+	}
+
+	// start the scanner server (if not running) and use its url
+	private void thisScanner() {
+		final Devices model = parent.getModel();
+		final ScannerProperties appProp = ScannerProperties.instance();
+		try {
+			int port = model.getWsServerPort();
+			if(port < 0) {
+				port = appProp.getIntProperty(ScannerProperties.PROP_WS_SERVER_PORT);
+				if(port <= 0) {
+					port = OutboundWsServer.DEF_PORT;
+				}
+				model.startWsServer(port);
+				appProp.setIntProperty(ScannerProperties.PROP_WS_SERVER_PORT, port);
+			}
+			textFieldServer.setText(OutboundWsServer.serverURL(parent.getLocalDevice(0).getAddressAndPort().getAddress(), port));
+		} catch (Exception e) {
+			Msg.errorMsg(this, e);
+		}
+	}
+
+	@Override
+	public String showing() throws InterruptedException {
+		return fill(true);
+	}
+
+	private String fill(boolean showExcluded) throws InterruptedException {
+		String exclude = "<html>" + LABELS.getString("dlgExcludedDevicesMsg");
+		int excludeCount = 0;
+		devices.clear();
+		chckbxEnabled.setEnabled(false);
+		setEnabledServer(false);
+		boolean enabledGlobal = false;
+		String serverGlobal = "";
+		boolean first = true;
+		for(int i = 0; i < parent.getLocalSize(); i++) {
+			ShellyAbstractDevice d = parent.getLocalDevice(i);
+			if(d instanceof AbstractG2Device == false) { // gen1, BLU, ghost
+				exclude += "<br>" + UtilMiscellaneous.getFullName(d);
+				excludeCount++;
+				devices.add(null);
+				continue;
+			}
+			try {
+				JsonNode ws = d.getJSON("/rpc/Ws.GetConfig");
+				if(Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				boolean enabled = ws.path("enable").booleanValue();
+				String server = ws.path("server").asText("");
+				if(first) {
+					enabledGlobal = enabled;
+					serverGlobal = server;
+					first = false;
+				} else {
+					if(enabled != enabledGlobal) enabledGlobal = false;
+					if(server.equals(serverGlobal) == false) serverGlobal = "";
+				}
+				devices.add((AbstractG2Device)d);
+			} catch(IOException | RuntimeException e) {
+				devices.add(null);
+			}
+		}
+		if(showExcluded) {
+			if(excludeCount == parent.getLocalSize() && isShowing()) {
+				return LABELS.getString("msgAllDevicesExcluded");
+			} else if (excludeCount > 0 && isShowing()) {
+				Msg.showHtmlMessageDialog(this, exclude, LABELS.getString("dlgExcludedDevicesTitle"), JOptionPane.WARNING_MESSAGE);
+			}
+		}
+		chckbxEnabled.setSelected(enabledGlobal);
+		textFieldServer.setText(serverGlobal);
+		chckbxEnabled.setEnabled(true); // form is active
+		setEnabledServer(enabledGlobal);
+		return null;
+	}
+
+	@Override
+	public String apply() {
+		// Validation
+		final boolean enabled = chckbxEnabled.isSelected();
+		final String server = textFieldServer.getText().trim();
+		if(enabled && server.matches("wss?://.+") == false) {
+			throw new IllegalArgumentException(LABELS.getString("dlgSetMsgWsServer"));
+		}
+		final ObjectNode config = JsonNodeFactory.instance.objectNode();
+		config.put("enable", enabled);
+		if(enabled) {
+			config.put("server", server);
+			config.put("ssl_ca", "*"); // wss: do not validate the certificate
+		}
+		final ObjectNode pars = JsonNodeFactory.instance.objectNode();
+		pars.set("config", config);
+		String res = "<html>";
+		for(int i = 0; i < parent.getLocalSize(); i++) {
+			final ShellyAbstractDevice device = parent.getLocalDevice(i);
+			if(device instanceof AbstractG2Device) {
+				final AbstractG2Device d = devices.get(i);
+				if(d != null) {
+					String msg = d.postCommand("Ws.SetConfig", pars); // restart required
+					if(msg != null) {
+						if(LABELS.containsKey(msg)) {
+							msg = LABELS.getString(msg);
+						}
+						res += String.format(LABELS.getString("dlgSetMultiMsgFail"), device.getHostname()) + " (" + msg + ")<br>";
+					} else {
+						res += String.format(LABELS.getString("dlgSetMultiMsgOk"), device.getHostname()) + "<br>";
+					}
+				} else {
+					res += String.format(LABELS.getString("dlgSetMultiMsgExclude"), device.getHostname()) + "<br>";
+				}
+			}
+		}
+		try {
+			fill(false);
+		} catch (InterruptedException e) {}
+		return res;
+	}
+}
@@ -9,7 +9,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
@@ -24,7 +23,6 @@ import javax.swing.JTextField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import it.usna.shellyscan.model.Devices;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice;
 import it.usna.shellyscan.model.device.modules.WIFIManager;
 import it.usna.shellyscan.view.DialogDeviceSelection;
@@ -476,7 +474,6 @@ public class PanelWIFI extends AbstractSettingsPanel implements UsnaEventListene
 				}
 			}
 			try {
-				TimeUnit.MILLISECONDS.sleep(Devices.MULTI_QUERY_DELAY);
 				fill(false);
 			} catch (InterruptedException e) {}
 			return res;
@@ -20,10 +20,8 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.ProviderNotFoundException;
-import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import javax.swing.AbstractAction;
@@ -50,9 +48,6 @@ import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultEditorKit;
 import javax.swing.text.DocumentFilter;
 
-import org.eclipse.jetty.websocket.api.Callback;
-import org.eclipse.jetty.websocket.api.Session;
-import org.eclipse.jetty.websocket.api.StatusCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,6 +60,7 @@ import it.usna.shellyscan.controller.UsnaToggleAction;
 import it.usna.shellyscan.model.device.ShellyAbstractDevice.LogMode;
 import it.usna.shellyscan.model.device.g2.AbstractG2Device;
 import it.usna.shellyscan.model.device.g2.WebSocketDeviceListener;
+import it.usna.shellyscan.model.device.g2.WebSocketHub;
 import it.usna.shellyscan.model.device.g2.modules.Script;
 import it.usna.shellyscan.view.MainView;
 import it.usna.shellyscan.view.scripts.DialogDeviceScripts;
@@ -112,7 +108,7 @@ public class ScriptFrame extends JFrame {
 	private boolean darkMode = ScannerProperties.instance().getBoolProperty(ScannerProperties.PROP_IDE_DARK);
 	private final AbstractG2Device device;
 	private boolean logWasActive;
-	private Future<Session> wsSession;
+	private WebSocketHub.Subscription wsSession;
 	
 	private final int scriptId;
 	
@@ -175,11 +171,7 @@ public class ScriptFrame extends JFrame {
 	public void dispose() {
 		firePropertyChange(CLOSE_EVENT, null, null);
 		if(wsSession != null) {
-			try {
-				wsSession.get().close(StatusCode.NORMAL, "bye", Callback.NOOP);
-			} catch (InterruptedException | ExecutionException e) {
-				LOG.error("webSocketClient.disconnect", e);
-			}
+			wsSession.close();
 		}
 		if(logWasActive == false) {
 			device.setDebugMode(LogMode.SOCKET, false);
@@ -472,12 +464,8 @@ public class ScriptFrame extends JFrame {
 			uploadAndRunAction.setEnabled(true);
 			uploadAction.setEnabled(true);
 			runStopAction.setSelected(false);
-			try {
-				if(wsSession != null && wsSession.get().isOpen()) {
-					wsSession.get().close(StatusCode.NORMAL, "bye", Callback.NOOP);
-				}
-			} catch (Exception e1) {
-				LOG.error("webSocketClient.disconnect", e1);
+			if(wsSession != null) {
+				wsSession.close();
 			}
 		}
 	}
@@ -551,9 +539,11 @@ public class ScriptFrame extends JFrame {
 			if(device.getDebugMode() == LogMode.SOCKET == false) {
 				device.setDebugMode(LogMode.SOCKET, true);
 			}
+			if(wsSession != null) {
+				wsSession.close();
+			}
 			WebSocketDeviceListener wsListener = new LogWebSocketDeviceListener();
-			wsSession = device.connectWebSocketLogs(wsListener);
-			wsSession.get().setIdleTimeout(Duration.ofMinutes(30));
+			wsSession = device.subscribeWebSocketLogs(wsListener); // session shared with other log views (see WebSocketHub)
 		} catch(IOException | InterruptedException | ExecutionException e) {
 			LOG.error("activateLogConnection", e);
 		}
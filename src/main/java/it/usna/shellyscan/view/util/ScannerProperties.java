@@ -48,11 +48,25 @@ public class ScannerProperties extends AppProperties { // cannot also extend Usn
 	private final static int PROP_REFRESH_ITERVAL_DEFAULT = 2;
 	public final static String PROP_REFRESH_CONF = "REFRESH_SETTINGS";
 	private final static int PROP_REFRESH_CONF_DEFAULT = 5;
+	public final static String PROP_REFRESH_PUSH = "REFRESH_PUSH";
+	public final static String PROP_REFRESH_LIGHTWEIGHT = "REFRESH_LIGHTWEIGHT";
+	public final static String PROP_REFRESH_ADAPTIVE = "REFRESH_ADAPTIVE";
+	public final static String PROP_REFRESH_MIN = "REFRESH_MIN";
+	private final static int PROP_REFRESH_MIN_DEFAULT = 1;
+	public final static String PROP_REFRESH_MAX = "REFRESH_MAX";
+	private final static int PROP_REFRESH_MAX_DEFAULT = 60;
+	public final static String PROP_REFRESH_TYPE_BOUNDS = "REFRESH_TYPE_BOUNDS"; // "typeID=min-max;..." (see Devices.RefreshBounds)
+	public final static String PROP_WS_SERVER_PORT = "WS_SERVER_PORT"; // outbound web socket server; 0: not active
+	public final static String PROP_MQTT_BROKER = "MQTT_BROKER"; // status from MQTT; empty: not active
+	public final static String PROP_MQTT_USER = "MQTT_USER";
+	public final static String PROP_MQTT_PWD = "MQTT_PWD";
 	
 	public final static String PROP_USE_ARCHIVE = "USE_ARCHIVE";
 	public final static String PROP_ARCHIVE_FILE = "USE_ARCHIVE_FILENAME";
 	public final static String PROP_ARCHIVE_FILE_DEFAULT = Path.of(System.getProperty("user.home"), "ShellyStore.arc").toString();
 	public final static String PROP_AUTORELOAD_ARCHIVE = "AUTORELOAD";
+	public final static String PROP_DISCOVERY_CACHE = "DISCOVERY_CACHE";
+	public final static String DISCOVERY_CACHE_FILE = Path.of(System.getProperty("user.home"), "ShellyDiscovery.cache").toString();
 	
 	public final static String BASE_SCAN_IP = "BASE_SCAN";
 	public final static String FIRST_SCAN_IP = "FIRST_SCAN";
@@ -95,8 +109,18 @@ public class ScannerProperties extends AppProperties { // cannot also extend Usn
 		defaultProperty(PROP_DETAILED_VIEW_SCREEN, PROP_DETAILED_VIEW_SCREEN_FULL);
 		defaultIntProperty(PROP_REFRESH_ITERVAL, PROP_REFRESH_ITERVAL_DEFAULT);
 		defaultIntProperty(PROP_REFRESH_CONF, PROP_REFRESH_CONF_DEFAULT);
+		defaultBoolProperty(PROP_REFRESH_PUSH, false);
+		defaultBoolProperty(PROP_REFRESH_LIGHTWEIGHT, false);
+		defaultBoolProperty(PROP_REFRESH_ADAPTIVE, false);
+		defaultIntProperty(PROP_REFRESH_MIN, PROP_REFRESH_MIN_DEFAULT);
+		defaultIntProperty(PROP_REFRESH_MAX, PROP_REFRESH_MAX_DEFAULT);
+		defaultProperty(PROP_REFRESH_TYPE_BOUNDS, "");
+		defaultIntProperty(PROP_WS_SERVER_PORT, 0);
+		defaultProperty(PROP_MQTT_BROKER, "");
+		defaultProperty(PROP_MQTT_USER, "");
 		defaultBoolProperty(PROP_USE_ARCHIVE, true);
 		defaultBoolProperty(PROP_AUTORELOAD_ARCHIVE, false);
+		defaultBoolProperty(PROP_DISCOVERY_CACHE, false);
 	}
 	
 	public static ScannerProperties init(Path file) {
@@ -0,0 +1,96 @@
+package it.usna.shellyscan.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class CoIoTListenerTest {
+	private final static String PAYLOAD = "{\"G\":[[0,1101,1],[0,4101,12.5]]}";
+
+	// CoAP v1, non confirmable, code 0.30 (as sent by gen1 devices), token, options (ascending numbers) and optional payload
+	private static ByteBuffer packet(byte[] token, Object[][] options, String payload) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(0x50 | token.length);
+		out.write(0x1E);
+		out.write(0x12);
+		out.write(0x34);
+		out.writeBytes(token);
+		int prev = 0;
+		for(Object[] opt: options) {
+			final int number = (Integer)opt[0];
+			final byte[] value = opt[1] instanceof byte[] b ? b : ((String)opt[1]).getBytes(StandardCharsets.UTF_8);
+			final int delta = number - prev;
+			prev = number;
+			out.write((nibble(delta) << 4) | nibble(value.length));
+			extended(out, delta);
+			extended(out, value.length);
+			out.writeBytes(value);
+		}
+		if(payload != null) {
+			out.write(0xFF);
+			out.writeBytes(payload.getBytes(StandardCharsets.UTF_8));
+		}
+		return ByteBuffer.wrap(out.toByteArray());
+	}
+
+	private static int nibble(int v) {
+		return v < 13 ? v : (v < 269 ? 13 : 14);
+	}
+
+	private static void extended(ByteArrayOutputStream out, int v) {
+		if(v >= 269) {
+			out.write((v - 269) >> 8);
+			out.write((v - 269) & 0xFF);
+		} else if(v >= 13) {
+			out.write(v - 13);
+		}
+	}
+
+	private static String rest(ByteBuffer buf) {
+		return new String(buf.array(), buf.position(), buf.remaining(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void statusMessage() {
+		ByteBuffer buf = packet(new byte[0], new Object[][] {
+			{11, "cit"}, {11, "s"}, {3332, "SHSW-25#A4CF12F45678#2"}, {3412, new byte[] {0, 0x54, 0x60}}, {3420, new byte[] {0x01, 0x02}}
+		}, PAYLOAD);
+		CoIoTListener.Message msg = CoIoTListener.parse(buf);
+		assertEquals("/cit/s", msg.path());
+		assertEquals("SHSW-25#A4CF12F45678#2", msg.devId());
+		assertEquals(0x0102, msg.serial());
+		assertEquals(PAYLOAD, rest(buf));
+	}
+
+	@Test
+	void tokenSkipped() {
+		ByteBuffer buf = packet(new byte[] {1, 2, 3, 4}, new Object[][] {{11, "cit"}, {11, "s"}, {3332, "SHHT-1#A4CF12000001#2"}}, PAYLOAD);
+		CoIoTListener.Message msg = CoIoTListener.parse(buf);
+		assertEquals("/cit/s", msg.path());
+		assertEquals("SHHT-1#A4CF12000001#2", msg.devId());
+		assertEquals(-1, msg.serial());
+		assertEquals(PAYLOAD, rest(buf));
+	}
+
+	@Test
+	void longOptionValue() { // value length >= 13 -> extended length byte
+		String devId = "SHPLG-S#A4CF12ABCDEF#2";
+		ByteBuffer buf = packet(new byte[0], new Object[][] {{11, "cit"}, {11, "d"}, {3332, devId}}, null);
+		CoIoTListener.Message msg = CoIoTListener.parse(buf);
+		assertEquals("/cit/d", msg.path());
+		assertEquals(devId, msg.devId());
+		assertFalse(buf.hasRemaining());
+	}
+
+	@Test
+	void notCoAP() {
+		assertNull(CoIoTListener.parse(ByteBuffer.wrap(new byte[] {(byte)0x80, 0, 0, 0, 0})));
+		assertNull(CoIoTListener.parse(ByteBuffer.wrap(new byte[] {0x50, 0})));
+	}
+}
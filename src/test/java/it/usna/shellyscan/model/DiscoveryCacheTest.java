@@ -0,0 +1,73 @@
+package it.usna.shellyscan.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+class DiscoveryCacheTest {
+	@TempDir
+	Path dir;
+
+	private Path write(String json) throws IOException {
+		Path file = dir.resolve("discovery.json");
+		Files.writeString(file, json, StandardCharsets.UTF_8);
+		return file;
+	}
+
+	@Test
+	void missingFile() throws IOException {
+		assertTrue(new DiscoveryCache().read(dir.resolve("none.json")).isEmpty());
+	}
+
+	@Test
+	void otherVersion() throws IOException {
+		Path file = write("{\"ver\":-1,\"dev\":[{\"mac\":\"A4CF12000001\",\"class\":\"x\"}]}");
+		assertTrue(new DiscoveryCache().read(file).isEmpty());
+	}
+
+	@Test
+	void bluAfterParents() throws IOException {
+		Path file = write("{\"ver\":0,\"time\":1,\"dev\":[" +
+				"{\"mac\":\"7C0000000001\",\"parent\":\"A4CF12000002\",\"key\":\"bthomedevice:200\",\"class\":\"blu\"}," +
+				"{\"mac\":\"A4CF12000001\",\"ip\":\"192.168.1.10\",\"port\":80,\"host\":\"shelly1-000001\",\"class\":\"g1\"}," +
+				"{\"mac\":\"A4CF12000002\",\"ip\":\"192.168.1.11\",\"port\":80,\"host\":\"shellyplus1-000002\",\"class\":\"g2\"}]}");
+		List<JsonNode> entries = new DiscoveryCache().read(file);
+		assertEquals(List.of("A4CF12000001", "A4CF12000002", "7C0000000001"), entries.stream().map(e -> e.path(DiscoveryCache.MAC).asText()).toList());
+		assertEquals("shellyplus1-000002", entries.get(1).path(DiscoveryCache.HOSTNAME).asText());
+		assertEquals("bthomedevice:200", entries.get(2).path(DiscoveryCache.KEY).asText());
+	}
+
+	@Test
+	void responses() throws IOException {
+		Path file = write("{\"ver\":0,\"dev\":[" +
+				"{\"mac\":\"A4CF12000001\",\"class\":\"g2\",\"resp\":{\"/rpc/Shelly.GetConfig\":{\"sys\":{}},\"/rpc/Shelly.GetStatus\":{\"switch:0\":{\"output\":true}}}}," +
+				"{\"mac\":\"A4CF12000002\",\"class\":\"g2\"}]}");
+		List<JsonNode> entries = new DiscoveryCache().read(file);
+		Map<String, JsonNode> resp = DiscoveryCache.responses(entries.get(0));
+		assertEquals(2, resp.size());
+		assertTrue(resp.get("/rpc/Shelly.GetStatus").at("/switch:0/output").booleanValue());
+		assertTrue(DiscoveryCache.responses(entries.get(1)).isEmpty());
+	}
+
+	@Test
+	void rereadReplacesEntries() throws IOException {
+		DiscoveryCache cache = new DiscoveryCache();
+		Path file = write("{\"ver\":0,\"dev\":[{\"mac\":\"A4CF12000001\",\"class\":\"g1\"},{\"mac\":\"A4CF12000002\",\"class\":\"g2\"}]}");
+		assertEquals(2, cache.read(file).size());
+		file = write("{\"ver\":0,\"dev\":[{\"mac\":\"A4CF12000003\",\"class\":\"g2\"}]}");
+		List<JsonNode> entries = cache.read(file);
+		assertEquals(1, entries.size());
+		assertEquals("A4CF12000003", entries.get(0).path(DiscoveryCache.MAC).asText());
+	}
+}
@@ -0,0 +1,92 @@
+package it.usna.shellyscan.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+class IPCollectionTest {
+
+	private static List<String> addresses(IPCollection c) {
+		List<String> list = new ArrayList<>();
+		for(InetAddress a: c) {
+			list.add(a.getHostAddress());
+		}
+		return list;
+	}
+
+	@Test
+	void cidrExcludesNetworkAndBroadcast() {
+		IPCollection c = new IPCollection();
+		c.add("192.168.4.0/30");
+		assertEquals(2, c.size());
+		assertEquals(List.of("192.168.4.1", "192.168.4.2"), addresses(c));
+	}
+
+	@Test
+	void cidrAcrossOctets() {
+		IPCollection c = new IPCollection();
+		c.add("192.168.1.77/22"); // host bits are ignored
+		assertEquals(1022, c.size());
+		List<String> list = addresses(c);
+		assertEquals(1022, list.size());
+		assertEquals("192.168.0.1", list.get(0));
+		assertEquals("192.168.0.255", list.get(254));
+		assertEquals("192.168.1.0", list.get(255));
+		assertEquals("192.168.3.254", list.get(list.size() - 1));
+	}
+
+	@Test
+	void cidrSmallPrefixes() {
+		IPCollection c = new IPCollection();
+		c.add("10.0.0.8/31");
+		assertEquals(List.of("10.0.0.8", "10.0.0.9"), addresses(c));
+
+		c = new IPCollection();
+		c.add(" 10.0.0.8/32 ");
+		assertEquals(List.of("10.0.0.8"), addresses(c));
+		assertEquals("10.0.0.8/32", c.toString());
+	}
+
+	@Test
+	void cidrErrors() {
+		IPCollection c = new IPCollection();
+		assertThrows(IllegalArgumentException.class, () -> c.add("192.168.1.0/33"));
+		assertThrows(IllegalArgumentException.class, () -> c.add("192.168.1/24"));
+		assertThrows(IllegalArgumentException.class, () -> c.add("192.168.256.0/24"));
+		assertThrows(IllegalArgumentException.class, () -> c.add("192.168.1.0"));
+		assertThrows(IllegalArgumentException.class, () -> c.add("192.168.x.0/24")); // NumberFormatException
+		assertEquals(0, c.size());
+	}
+
+	@Test
+	void rangesAndCidr() {
+		IPCollection c = new IPCollection();
+		c.add(new byte[] {(byte)192, (byte)168, 1, 0}, 10, 12);
+		c.add("192.168.3", 30, 31);
+		c.add("192.168.4.0/30");
+		assertEquals(7, c.size());
+		assertEquals(List.of("192.168.1.10", "192.168.1.11", "192.168.1.12", "192.168.3.30", "192.168.3.31", "192.168.4.1", "192.168.4.2"), addresses(c));
+		assertEquals("192.168.1/10-12, 192.168.3/30-31, 192.168.4.0/30", c.toString());
+	}
+
+	@Test
+	void emptyRanges() {
+		IPCollection c = new IPCollection();
+		assertFalse(c.iterator().hasNext());
+		c.add("192.168.1", 20, 10); // first > last
+		c.add("192.168.2", 5, 5);
+		assertEquals(1, c.size());
+		Iterator<InetAddress> it = c.iterator();
+		assertEquals("192.168.2.5", it.next().getHostAddress());
+		assertFalse(it.hasNext());
+		assertThrows(NoSuchElementException.class, it::next);
+	}
+}
@@ -0,0 +1,77 @@
+package it.usna.shellyscan.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MqttIngestTest {
+	private final List<String> lookups = new ArrayList<>();
+	private final List<Object> updates = new ArrayList<>();
+	private final MqttIngest ingest = new MqttIngest(id -> {
+		lookups.add(id);
+		return null; // not in the model
+	}, updates::add);
+
+	@Test
+	void g1Sensors() {
+		assertEquals(1101, MqttIngest.g1Sensor("relay/0"));
+		assertEquals(1201, MqttIngest.g1Sensor("relay/1"));
+		assertEquals(1101, MqttIngest.g1Sensor("light/0"));
+		assertEquals(2301, MqttIngest.g1Sensor("input/2"));
+		assertEquals(4101, MqttIngest.g1Sensor("relay/0/power"));
+		assertEquals(4202, MqttIngest.g1Sensor("roller/1/power"));
+		assertEquals(4305, MqttIngest.g1Sensor("emeter/2/power"));
+		assertEquals(4108, MqttIngest.g1Sensor("emeter/0/voltage"));
+		assertEquals(3104, MqttIngest.g1Sensor("temperature"));
+		assertEquals(3101, MqttIngest.g1Sensor("sensor/temperature"));
+		assertEquals(3103, MqttIngest.g1Sensor("sensor/humidity"));
+		assertEquals(3111, MqttIngest.g1Sensor("sensor/battery"));
+	}
+
+	@Test
+	void g1NotMapped() {
+		assertEquals(-1, MqttIngest.g1Sensor("relay/0/energy"));
+		assertEquals(-1, MqttIngest.g1Sensor("roller/0"));
+		assertEquals(-1, MqttIngest.g1Sensor("relay/10"));
+		assertEquals(-1, MqttIngest.g1Sensor("announce"));
+		assertEquals(-1, MqttIngest.g1Sensor("online"));
+	}
+
+	@Test
+	void g1DeviceId() throws IOException {
+		ingest.message("shellies/shelly1pm-A4CF12F45678/relay/0", "on");
+		ingest.message("shellies/shelly1pm-A4CF12F45678/online", "true");
+		ingest.message("shellies/announce", "{}"); // not a device topic
+		assertEquals(List.of("shelly1pm-A4CF12F45678", "shelly1pm-A4CF12F45678"), lookups);
+		assertTrue(updates.isEmpty());
+	}
+
+	@Test
+	void g2DefaultPrefix() throws IOException {
+		ingest.message("shellyplus1-a8032ab12345/status/switch:0", "{\"id\":0,\"output\":true}");
+		ingest.message("shellyplus1-a8032ab12345/online", "true");
+		assertEquals(List.of("shellyplus1-a8032ab12345", "shellyplus1-a8032ab12345"), lookups);
+	}
+
+	@Test
+	void g2CustomPrefix() throws IOException {
+		ingest.message("garage/status/switch:0", "{\"id\":0,\"output\":true}"); // prefix not yet known
+		ingest.message("garage/events/rpc", "{\"src\":\"shellyplus1-a8032ab12345\",\"dst\":\"garage/events\",\"method\":\"NotifyStatus\",\"params\":{\"ts\":1,\"switch:0\":{\"id\":0,\"output\":false}}}");
+		ingest.message("garage/status/switch:0", "{\"id\":0,\"output\":true}"); // learned from "src"
+		ingest.message("garage/online", "false");
+		assertEquals(List.of("garage", "shellyplus1-a8032ab12345", "shellyplus1-a8032ab12345", "shellyplus1-a8032ab12345"), lookups);
+		assertTrue(updates.isEmpty());
+	}
+
+	@Test
+	void notActive() throws IOException {
+		ingest.message("shellyplus1-a8032ab12345/online", "true");
+		assertFalse(ingest.isActive(new Object()));
+	}
+}
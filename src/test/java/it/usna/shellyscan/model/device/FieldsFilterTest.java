@@ -0,0 +1,103 @@
+package it.usna.shellyscan.model.device;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter.Inclusion;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class FieldsFilterTest {
+	private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+	private final static String STATUS = "{\"sys\":{\"uptime\":100,\"ram_free\":1000,\"available_updates\":{\"stable\":{\"version\":\"1.5.0\"}}}," +
+			"\"switch:0\":{\"id\":0,\"output\":true,\"apower\":12.5,\"temperature\":{\"tC\":40.1,\"tF\":104.2}}," +
+			"\"wifi\":{\"rssi\":-60,\"ssid\":\"net\"},\"cloud\":{\"connected\":true}}";
+
+	// same parsing used by ShellyAbstractDevice.toJSON(...)
+	private static JsonNode parse(String json, FieldsFilter filter) throws IOException {
+		try(JsonParser parser = new FilteringParserDelegate(JSON_MAPPER.createParser(json), filter, Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+			JsonNode node = JSON_MAPPER.readTree(parser);
+			return node != null ? node : JSON_MAPPER.createObjectNode();
+		}
+	}
+
+	@Test
+	void selectedPaths() throws IOException {
+		JsonNode status = parse(STATUS, FieldsFilter.of("switch:0/output", "switch:0/temperature/tC", "wifi/rssi"));
+		assertTrue(status.at("/switch:0/output").booleanValue());
+		assertEquals(40.1, status.at("/switch:0/temperature/tC").doubleValue());
+		assertEquals(-60, status.at("/wifi/rssi").intValue());
+		assertFalse(status.has("sys"));
+		assertFalse(status.has("cloud"));
+		assertFalse(status.path("switch:0").has("apower"));
+		assertFalse(status.path("switch:0").path("temperature").has("tF"));
+		assertFalse(status.path("wifi").has("ssid"));
+	}
+
+	@Test
+	void wholeValue() throws IOException {
+		JsonNode status = parse(STATUS, FieldsFilter.of("sys"));
+		assertEquals(JSON_MAPPER.readTree(STATUS).get("sys"), status.get("sys"));
+		assertEquals(1, status.size());
+	}
+
+	@Test
+	void shorterPathIncludesLonger() throws IOException {
+		JsonNode status = parse(STATUS, FieldsFilter.of("switch:0/temperature", "switch:0/temperature/tC"));
+		assertEquals(2, status.at("/switch:0/temperature").size()); // "switch:0/temperature" already includes the whole value
+		status = parse(STATUS, FieldsFilter.of("switch:0/temperature/tC", "switch:0/temperature"));
+		assertEquals(2, status.at("/switch:0/temperature").size());
+	}
+
+	@Test
+	void with() throws IOException {
+		FieldsFilter base = FieldsFilter.of("wifi/rssi");
+		FieldsFilter extended = base.with("switch:0/output", "wifi/ssid");
+
+		JsonNode status = parse(STATUS, extended);
+		assertEquals(-60, status.at("/wifi/rssi").intValue());
+		assertEquals("net", status.at("/wifi/ssid").textValue());
+		assertTrue(status.at("/switch:0/output").booleanValue());
+
+		status = parse(STATUS, base); // base filter is not altered
+		assertFalse(status.has("switch:0"));
+		assertFalse(status.path("wifi").has("ssid"));
+	}
+
+	@Test
+	void componentType() throws IOException {
+		final String json = "{\"switch:0\":{\"output\":true,\"apower\":1.5},\"switch:1\":{\"output\":false,\"apower\":0},\"switch\":{\"output\":true},\"script:0\":{\"running\":true}}";
+		JsonNode status = parse(json, FieldsFilter.of("switch:*/output"));
+		assertTrue(status.at("/switch:0/output").booleanValue());
+		assertFalse(status.at("/switch:1/output").booleanValue());
+		assertFalse(status.path("switch:0").has("apower"));
+		assertFalse(status.has("switch")); // not a component key
+		assertFalse(status.has("script:0"));
+
+		status = parse(json, FieldsFilter.of("switch:*/output", "switch:1")); // exact key first
+		assertEquals(1, status.path("switch:0").size());
+		assertEquals(2, status.path("switch:1").size());
+	}
+
+	@Test
+	void arrayElements() throws IOException {
+		JsonNode status = parse("{\"meters\":[{\"power\":10.5,\"counters\":[1,2,3]},{\"power\":0,\"counters\":[0,0,0]}],\"ram_free\":1000}", FieldsFilter.of("meters/power"));
+		assertEquals(2, status.get("meters").size());
+		assertEquals(10.5, status.at("/meters/0/power").doubleValue());
+		assertFalse(status.at("/meters/1").has("counters"));
+		assertFalse(status.has("ram_free"));
+	}
+
+	@Test
+	void missingFields() throws IOException {
+		JsonNode status = parse(STATUS, FieldsFilter.of("em:0/act_power", "switch:1/output"));
+		assertTrue(status.isEmpty());
+	}
+}
@@ -0,0 +1,112 @@
+package it.usna.shellyscan.model.device.g2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.usna.shellyscan.model.device.DeviceOfflineException;
+
+class WebSocketRPCTest {
+	private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+	private final List<JsonNode> sent = new ArrayList<>();
+	private WebSocketDeviceListener listener;
+	private boolean open = true;
+
+	// session replaced by the list of sent frames
+	private final WebSocketRPC rpc = new WebSocketRPC(l -> {
+		listener = l;
+		return new WebSocketHub().new Subscription(null, l) {
+			@Override
+			public boolean isOpen() {
+				return open;
+			}
+
+			@Override
+			public void sendText(String text) {
+				try {
+					sent.add(JSON_MAPPER.readTree(text));
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			@Override
+			public void close() {
+				open = false;
+				listener.onWebSocketClose(StatusCode.NORMAL, "unsubscribed");
+			}
+		};
+	});
+
+	private void receive(JsonNode request, String body) {
+		listener.onWebSocketText("{\"id\":" + request.get("id") + ",\"src\":\"shellyplus1-a8032ab12345\",\"dst\":\"" + request.get("src").asText() + "\"," + body + "}");
+	}
+
+	@Test
+	void outOfOrderResponses() throws Exception {
+		CompletableFuture<JsonNode> r1 = rpc.call("KVS.Set", "{\"key\":\"a\",\"value\":\"1\"}");
+		CompletableFuture<JsonNode> r2 = rpc.call("KVS.Set", "{\"key\":\"b\",\"value\":\"2\"}");
+		CompletableFuture<JsonNode> r3 = rpc.call("KVS.Set", "{\"key\":\"c\",\"value\":\"3\"}");
+		assertEquals(3, sent.size());
+		assertNotEquals(sent.get(0).get("id"), sent.get(1).get("id"));
+		assertNotEquals(sent.get(1).get("id"), sent.get(2).get("id"));
+		assertEquals("KVS.Set", sent.get(1).get("method").asText());
+		assertEquals("b", sent.get(1).at("/params/key").asText());
+		assertFalse(sent.get(0).has("auth"));
+
+		receive(sent.get(2), "\"result\":{\"etag\":\"c\"}");
+		receive(sent.get(0), "\"result\":{\"etag\":\"a\"}");
+		assertTrue(r1.isDone());
+		assertFalse(r2.isDone());
+		assertTrue(r3.isDone());
+		receive(sent.get(1), "\"error\":{\"code\":-103,\"message\":\"Invalid argument\"}");
+
+		assertEquals("a", r1.get().at("/result/etag").asText());
+		assertEquals(-103, r2.get().at("/error/code").asInt());
+		assertEquals("c", r3.get().at("/result/etag").asText());
+	}
+
+	@Test
+	void otherFramesIgnored() {
+		CompletableFuture<JsonNode> r = rpc.call("Switch.Set", "{\"id\":0,\"on\":true}");
+		JsonNode req = sent.get(0);
+		listener.onWebSocketText("{\"id\":" + req.get("id") + ",\"src\":\"shellyplus1-a8032ab12345\",\"dst\":\"other\",\"result\":{}}"); // other channel
+		listener.onWebSocketText("{\"src\":\"shellyplus1-a8032ab12345\",\"dst\":\"" + req.get("src").asText() + "\",\"method\":\"NotifyStatus\",\"params\":{}}"); // notification
+		assertFalse(r.isDone());
+		receive(req, "\"result\":{\"was_on\":false}");
+		assertTrue(r.isDone());
+	}
+
+	@Test
+	void authenticatedCall() {
+		rpc.call("Webhook.Create", "{}", JSON_MAPPER.createObjectNode().put("realm", "shellyplus1-a8032ab12345").put("username", "admin"));
+		assertEquals("admin", sent.get(0).at("/auth/username").asText());
+		assertEquals("Webhook.Create", sent.get(0).get("method").asText());
+	}
+
+	@Test
+	void closeFailsPending() {
+		CompletableFuture<JsonNode> r = rpc.call("KVS.Set", "{}");
+		rpc.close();
+		ExecutionException e = assertThrows(ExecutionException.class, r::get);
+		assertInstanceOf(DeviceOfflineException.class, e.getCause());
+
+		CompletableFuture<JsonNode> afterClose = rpc.call("KVS.Set", "{}"); // not sent
+		assertTrue(afterClose.isCompletedExceptionally());
+		assertEquals(1, sent.size());
+	}
+}
@@ -0,0 +1,47 @@
+package it.usna.shellyscan.model.device.g2.modules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class LoginManagerG2Test {
+	private final static ObjectMapper JSON_MAPPER = new ObjectMapper();
+	private final LoginManagerG2.RpcDigestAuthentication credentials = new LoginManagerG2.RpcDigestAuthentication(URI.create("http://192.168.1.20:80"), "secret");
+
+	private static String sha256(String in) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(in.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void rpcAuth() throws Exception {
+		JsonNode challenge = JSON_MAPPER.readTree("{\"auth_type\":\"digest\",\"nonce\":1625038762,\"nc\":1,\"realm\":\"shellypro4pm-f008d1d8b8b8\",\"algorithm\":\"SHA-256\"}");
+		JsonNode auth = credentials.rpcAuth(challenge);
+		assertEquals("shellypro4pm-f008d1d8b8b8", auth.get("realm").asText());
+		assertEquals("admin", auth.get("username").asText());
+		assertEquals(1625038762L, auth.get("nonce").longValue()); // same type as the challenge
+		assertEquals("SHA-256", auth.get("algorithm").asText());
+
+		String ha1 = sha256("admin:shellypro4pm-f008d1d8b8b8:secret");
+		String ha2 = sha256("dummy_method:dummy_uri");
+		String cnonce = auth.get("cnonce").asText();
+		assertEquals(sha256(ha1 + ":1625038762:1:" + cnonce + ":auth:" + ha2), auth.get("response").asText());
+
+		assertNotEquals(cnonce, credentials.rpcAuth(challenge).get("cnonce").asText());
+	}
+
+	@Test
+	void unsupportedChallenge() throws Exception {
+		assertNull(credentials.rpcAuth(JSON_MAPPER.readTree("{\"auth_type\":\"basic\",\"realm\":\"x\"}")));
+		assertNull(credentials.rpcAuth(JSON_MAPPER.readTree("{\"auth_type\":\"digest\",\"nonce\":1,\"realm\":\"x\",\"algorithm\":\"MD5\"}")));
+	}
+}